@@ -36,7 +36,20 @@ repositories {
 }
 
 tasks.test {
-    useJUnitPlatform()
+    useJUnitPlatform {
+        excludeTags("benchmark")
+    }
+    testLogging.showStandardStreams = true
+}
+
+tasks.register<Test>("benchmark") {
+    description = "Runs the benchmarks (the tests tagged 'benchmark')."
+    group = "verification"
+    testClassesDirs = sourceSets.test.get().output.classesDirs
+    classpath = sourceSets.test.get().runtimeClasspath
+    useJUnitPlatform {
+        includeTags("benchmark")
+    }
     testLogging.showStandardStreams = true
 }
 
@@ -44,7 +57,7 @@ dependencies {
     implementation("org.eclipse.jgit:org.eclipse.jgit:7.7.0.202606012155-r")
     implementation("com.fasterxml.jackson.dataformat:jackson-dataformat-yaml:2.22.1")
     implementation("com.fasterxml.jackson.datatype:jackson-datatype-jsr310:2.22.1")
-    implementation("org.apache.httpcomponents:httpmime:4.5.14")
+    implementation("org.apache.commons:commons-compress:1.28.0")
 
     testImplementation("org.junit.jupiter:junit-jupiter-api:6.1.2")
     testRuntimeOnly("org.junit.jupiter:junit-jupiter-engine:6.1.2")
@@ -25,8 +25,6 @@ import static org.modelingvalue.gradle.mvgplugin.Info.LOGGER;
 import java.nio.file.Path;
 import java.util.Stack;
 
-import javax.xml.parsers.SAXParserFactory;
-
 import org.xml.sax.Attributes;
 import org.xml.sax.helpers.DefaultHandler;
 
@@ -44,7 +42,7 @@ class AntFileMpsVersionsExtractor extends DefaultHandler {
     public AntFileMpsVersionsExtractor(Path f) {
         file = f;
         try {
-            SAXParserFactory.newInstance().newSAXParser().parse(f.toFile(), this);
+            SaxParsers.parse(f, this);
             isAntFile = true;
         } catch (NoAntFile e) {
             isAntFile = false;
@@ -54,6 +52,16 @@ class AntFileMpsVersionsExtractor extends DefaultHandler {
         }
     }
 
+    /**
+     * an ant file that was parsed before with the given range
+     */
+    public AntFileMpsVersionsExtractor(Path f, Version since, Version until) {
+        file = f;
+        isAntFile = true;
+        this.since = since;
+        this.until = until;
+    }
+
     private static class NoAntFile extends RuntimeException {
     }
 
@@ -0,0 +1,205 @@
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+//  (C) Copyright 2018-2026 Modeling Value Group B.V. (http://modelingvalue.org)                                         ~
+//                                                                                                                       ~
+//  Licensed under the GNU Lesser General Public License v3.0 (the 'License'). You may not use this file except in       ~
+//  compliance with the License. You may obtain a copy of the License at: https://choosealicense.com/licenses/lgpl-3.0   ~
+//  Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on  ~
+//  an 'AS IS' BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the   ~
+//  specific language governing permissions and limitations under the License.                                           ~
+//                                                                                                                       ~
+//  Maintainers:                                                                                                         ~
+//      Wim Bast, Tom Brus                                                                                               ~
+//                                                                                                                       ~
+//  Contributors:                                                                                                        ~
+//      Ronald Krijgsheld ✝, Arjan Kok, Carel Bast                                                                       ~
+// --------------------------------------------------------------------------------------------------------------------- ~
+//  In Memory of Ronald Krijgsheld, 1972 - 2023                                                                          ~
+//      Ronald was suddenly and unexpectedly taken from us. He was not only our long-term colleague and team member      ~
+//      but also our friend. "He will live on in many of the lines of code you see below."                               ~
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+package org.modelingvalue.gradle.mvgplugin;
+
+import static org.modelingvalue.gradle.mvgplugin.Info.LOGGER;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * finds the ant files in a project tree together with the MPS range they mention.
+ * <p>
+ * MPS projects contain thousands of xml files that are not ant files. Excluded dirs (the corrector excludes)
+ * are not even entered, a peek at the first bytes rejects any xml file whose root element is not
+ * {@code <project>} (utf-16 files are left to the parser), and only the remaining files are parsed, in parallel.
+ * The outcome of a parse is cached by the sha256 of the file content, so an unchanged ant file is never parsed again.
+ */
+public class AntFileScanner {
+    public static final  Path    DEFAULT_CACHE_FILE = Path.of(System.getProperty("user.home"), ".gradle", "caches", "mvgplugin", "ant-files.properties");
+    private static final int     PEEK_SIZE          = 4096;
+    private static final Pattern PROLOG             = Pattern.compile("(?s)\\A(\\s|<\\?.*?\\?>|<!--.*?-->|<!DOCTYPE[^>]*>)*");
+    private static final String  NO_ANT_FILE        = "-";
+
+    private final Path                root;
+    private final Set<String>         excludes;
+    private final Path                cacheFile;
+    private final Map<String, String> cache = new ConcurrentHashMap<>();
+
+    public AntFileScanner(Path root, Set<String> excludes, Path cacheFile) {
+        this.root = root;
+        this.excludes = excludes;
+        this.cacheFile = cacheFile;
+    }
+
+    /**
+     * @return the ant files found, sorted by path
+     * @throws IOException when the tree can not be walked
+     */
+    public List<AntFileMpsVersionsExtractor> scan() throws IOException {
+        long       t0       = System.currentTimeMillis();
+        List<Path> xmlFiles = findXmlFiles();
+        readCache();
+        int cacheSize = cache.size();
+        List<AntFileMpsVersionsExtractor> antFiles = xmlFiles.parallelStream()
+                .filter(AntFileScanner::mayBeAntFile)
+                .map(this::extract)
+                .filter(Objects::nonNull)
+                .sorted(Comparator.comparing(AntFileMpsVersionsExtractor::getFile))
+                .toList();
+        if (cache.size() != cacheSize) {
+            writeCache();
+        }
+        LOGGER.info("+ mvg-mps: found {} ant files among {} xml files in {} ms", antFiles.size(), xmlFiles.size(), System.currentTimeMillis() - t0);
+        return antFiles;
+    }
+
+    private List<Path> findXmlFiles() throws IOException {
+        List<Path> xmlFiles = new ArrayList<>();
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                return TreeCorrector.isExcludedDir(root, dir, excludes) ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (attrs.isRegularFile() && file.getFileName().toString().endsWith(".xml") && !TreeCorrector.isExcluded(root, file, excludes)) {
+                    xmlFiles.add(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return xmlFiles;
+    }
+
+    /**
+     * @return false if the root element of the xml file is certainly not {@code <project>}
+     */
+    public static boolean mayBeAntFile(Path f) {
+        byte[] head = new byte[PEEK_SIZE];
+        int    len;
+        try (InputStream in = Files.newInputStream(f)) {
+            len = in.readNBytes(head, 0, head.length);
+        } catch (IOException e) {
+            return false;
+        }
+        if (isUtf16(head, len)) {
+            return true; // not readable byte by byte: let the parser decide
+        }
+        int     bom    = 3 <= len && (head[0] & 0xff) == 0xEF && (head[1] & 0xff) == 0xBB && (head[2] & 0xff) == 0xBF ? 3 : 0;
+        String  text   = new String(head, bom, len - bom, StandardCharsets.ISO_8859_1);
+        Matcher prolog = PROLOG.matcher(text);
+        String  rest   = prolog.lookingAt() ? text.substring(prolog.end()) : text;
+        if (rest.isEmpty() || rest.startsWith("<!") || rest.startsWith("<?")) {
+            return len == PEEK_SIZE; // the prolog does not fit in the peek: let the parser decide
+        }
+        return rest.matches("(?s)<project([\\s/>].*)?");
+    }
+
+    // a utf-16 byte order mark, or the zero bytes of a utf-16 '<' without one
+    private static boolean isUtf16(byte[] head, int len) {
+        if (len < 2) {
+            return false;
+        }
+        int b0 = head[0] & 0xff;
+        int b1 = head[1] & 0xff;
+        return (b0 == 0xFE && b1 == 0xFF) || (b0 == 0xFF && b1 == 0xFE) || (b0 == 0 && b1 == '<') || (b0 == '<' && b1 == 0);
+    }
+
+    private AntFileMpsVersionsExtractor extract(Path f) {
+        String sha256;
+        try {
+            sha256 = Hash.checksums(f, List.of(Hash.SHA256)).get(Hash.SHA256);
+        } catch (IOException e) {
+            return null;
+        }
+        String cached = cache.get(sha256);
+        if (cached != null) {
+            if (cached.equals(NO_ANT_FILE)) {
+                return null;
+            }
+            String[] range = cached.split("\\|", -1);
+            return new AntFileMpsVersionsExtractor(f, range[0].isEmpty() ? null : new Version(range[0]), range[1].isEmpty() ? null : new Version(range[1]));
+        }
+        AntFileMpsVersionsExtractor a = new AntFileMpsVersionsExtractor(f);
+        if (a.isAntFile()) {
+            cache.put(sha256, (a.getSince() == null ? "" : a.getSince().get()) + "|" + (a.getUntil() == null ? "" : a.getUntil().get()));
+            return a;
+        }
+        if (!a.error()) {
+            cache.put(sha256, NO_ANT_FILE);
+        }
+        return null;
+    }
+
+    private void readCache() {
+        if (Files.isRegularFile(cacheFile)) {
+            Properties props = new Properties();
+            try (Reader r = Files.newBufferedReader(cacheFile)) {
+                props.load(r);
+                props.forEach((k, v) -> cache.put(k.toString(), v.toString()));
+            } catch (IOException | IllegalArgumentException e) {
+                LOGGER.info("+ mvg-mps: ignoring unreadable ant file cache {} ({})", cacheFile, e.getMessage());
+            }
+        }
+    }
+
+    private void writeCache() {
+        Properties props = new Properties();
+        props.putAll(cache);
+        Path tmp = cacheFile.resolveSibling(cacheFile.getFileName() + ".tmp-" + ProcessHandle.current().pid());
+        try {
+            Files.createDirectories(cacheFile.getParent());
+            try (Writer w = Files.newBufferedWriter(tmp)) {
+                props.store(w, "ant file mps ranges by sha256, " + Info.PLUGIN_NAME);
+            }
+            Files.move(tmp, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // without the cache the ant files are just parsed again next time
+            LOGGER.info("+ mvg-mps: could not write ant file cache {} ({})", cacheFile, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,92 @@
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+//  (C) Copyright 2018-2026 Modeling Value Group B.V. (http://modelingvalue.org)                                         ~
+//                                                                                                                       ~
+//  Licensed under the GNU Lesser General Public License v3.0 (the 'License'). You may not use this file except in       ~
+//  compliance with the License. You may obtain a copy of the License at: https://choosealicense.com/licenses/lgpl-3.0   ~
+//  Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on  ~
+//  an 'AS IS' BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the   ~
+//  specific language governing permissions and limitations under the License.                                           ~
+//                                                                                                                       ~
+//  Maintainers:                                                                                                         ~
+//      Wim Bast, Tom Brus                                                                                               ~
+//                                                                                                                       ~
+//  Contributors:                                                                                                        ~
+//      Ronald Krijgsheld ✝, Arjan Kok, Carel Bast                                                                       ~
+// --------------------------------------------------------------------------------------------------------------------- ~
+//  In Memory of Ronald Krijgsheld, 1972 - 2023                                                                          ~
+//      Ronald was suddenly and unexpectedly taken from us. He was not only our long-term colleague and team member      ~
+//      but also our friend. "He will live on in many of the lines of code you see below."                               ~
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+package org.modelingvalue.gradle.mvgplugin;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * exponential backoff with jitter for retrying network calls.
+ * <p>
+ * The n-th retry waits a random time between half and the full value of {@code initialDelayMs * 2^(n-1)},
+ * capped at {@code maxDelayMs}. The jitter prevents parallel callers that failed together from retrying together.
+ * A wait that the server asks for (e.g. in a Retry-After header) is never shortened: retrying earlier than a rate limit
+ * allows only makes it worse. When the server asks for more than {@code maxDelayMs} the caller should give up instead
+ * (see {@link #mayWait(long)}).
+ */
+public class Backoff {
+    private final int  maxAttempts;
+    private final long initialDelayMs;
+    private final long maxDelayMs;
+
+    public Backoff(int maxAttempts, long initialDelayMs, long maxDelayMs) {
+        if (maxAttempts < 1 || initialDelayMs < 0 || maxDelayMs < initialDelayMs) {
+            throw new IllegalArgumentException("invalid backoff: " + maxAttempts + "/" + initialDelayMs + "/" + maxDelayMs);
+        }
+        this.maxAttempts = maxAttempts;
+        this.initialDelayMs = initialDelayMs;
+        this.maxDelayMs = maxDelayMs;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public boolean mayRetry(int attempt) {
+        return attempt < maxAttempts;
+    }
+
+    /**
+     * @param minDelayMs the time the server asked to wait before the next attempt
+     * @return true if that wait is within the cap of this backoff, otherwise the caller should give up
+     */
+    public boolean mayWait(long minDelayMs) {
+        return minDelayMs <= maxDelayMs;
+    }
+
+    /**
+     * @param attempt the attempt that just failed (1 for the first call)
+     * @return the number of ms to wait before the next attempt
+     */
+    public long delayMs(int attempt) {
+        long full = initialDelayMs << Math.min(Math.max(attempt - 1, 0), 30);
+        long capped = Math.min(maxDelayMs, full);
+        return capped / 2 + ThreadLocalRandom.current().nextLong(capped / 2 + 1);
+    }
+
+    /**
+     * Sleep before the next attempt, at least {@code minDelayMs} (e.g. what the server asked for in a Retry-After header),
+     * even when that is more than the cap
+     *
+     * @param attempt    the attempt that just failed (1 for the first call)
+     * @param minDelayMs the minimal time to wait
+     * @param metrics    the metrics to count the retry in
+     * @throws InterruptedException when interrupted while waiting
+     */
+    public void sleep(int attempt, long minDelayMs, MvgMetrics metrics) throws InterruptedException {
+        metrics.count(MvgMetrics.RETRIES);
+        Thread.sleep(Math.max(delayMs(attempt), minDelayMs));
+    }
+
+    @Override
+    public String toString() {
+        return "Backoff{max=" + maxAttempts + ", initial=" + initialDelayMs + "ms, cap=" + maxDelayMs + "ms}";
+    }
+}
@@ -31,8 +31,8 @@ import java.util.regex.Pattern;
 public class BashCorrector extends TreeCorrector {
     public static final String CORRECTOR_EXT = ".corrector.sh";
 
-    public BashCorrector(MvgCorrectorExtension ext) {
-        super("bash", InfoGradle.getAbsProjectDir(), ext.getBashFileExcludes());
+    public BashCorrector(MvgCorrectorExtension ext, MvgMetrics metrics) {
+        super("bash", InfoGradle.getAbsProjectDir(), ext.getBashFileExcludes(), metrics);
     }
 
     public Set<Path> getChangedFiles() {
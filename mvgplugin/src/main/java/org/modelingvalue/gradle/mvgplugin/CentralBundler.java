@@ -0,0 +1,330 @@
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+//  (C) Copyright 2018-2026 Modeling Value Group B.V. (http://modelingvalue.org)                                         ~
+//                                                                                                                       ~
+//  Licensed under the GNU Lesser General Public License v3.0 (the 'License'). You may not use this file except in       ~
+//  compliance with the License. You may obtain a copy of the License at: https://choosealicense.com/licenses/lgpl-3.0   ~
+//  Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on  ~
+//  an 'AS IS' BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the   ~
+//  specific language governing permissions and limitations under the License.                                           ~
+//                                                                                                                       ~
+//  Maintainers:                                                                                                         ~
+//      Wim Bast, Tom Brus                                                                                               ~
+//                                                                                                                       ~
+//  Contributors:                                                                                                        ~
+//      Ronald Krijgsheld ✝, Arjan Kok, Carel Bast                                                                       ~
+// --------------------------------------------------------------------------------------------------------------------- ~
+//  In Memory of Ronald Krijgsheld, 1972 - 2023                                                                          ~
+//      Ronald was suddenly and unexpectedly taken from us. He was not only our long-term colleague and team member      ~
+//      but also our friend. "He will live on in many of the lines of code you see below."                               ~
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+package org.modelingvalue.gradle.mvgplugin;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.modelingvalue.gradle.mvgplugin.Info.LOGGER;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.ZipEntry;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+
+/**
+ * builds the maven central bundle from the staging dir, incrementally.
+ * <p>
+ * Next to the bundle a manifest is kept with the sha256 of every entry. When the bundle is made again (e.g. after a failed upload)
+ * the entries whose content did not change are copied raw from the previous bundle, only new and changed files are
+ * (in parallel) compressed again. When nothing changed at all the previous bundle is used as is.
+ * Checksum files are only generated when missing or older than their artifact.
+ */
+public class CentralBundler {
+    public static final List<String> CHECKSUM_EXTENSIONS   = List.of(".md5", ".sha1", ".sha256", ".sha512");
+    public static final List<String> COMPRESSED_EXTENSIONS = List.of(".jar", ".zip", ".war", ".ear", ".aar", ".gz", ".tgz");
+    public static final String       MANIFEST_EXTENSION    = ".manifest";
+
+    private final Path stagingDir;
+    private final Path bundleFile;
+    private final Path manifestFile;
+
+    private record Entry(String name, Path file, String sha256, ZipArchiveEntry previous) {
+    }
+
+    private record Compressed(ZipArchiveEntry entry, byte[] raw) {
+    }
+
+    public CentralBundler(Path stagingDir, Path bundleFile) {
+        this.stagingDir = stagingDir;
+        this.bundleFile = bundleFile;
+        this.manifestFile = bundleFile.resolveSibling(bundleFile.getFileName() + MANIFEST_EXTENSION);
+    }
+
+    /**
+     * Remove everything from the staging dir that the current publications do not produce, e.g. other versions or
+     * artifacts (like a dropped classifier) staged by an earlier build. The checksums and signatures of the produced
+     * artifacts are kept.
+     *
+     * @param stagingDir the staging dir
+     * @param artifacts  the files (relative to the staging dir, like "org/modelingvalue/x/1.2.3/x-1.2.3.jar") the current publications produce
+     */
+    public static void prune(Path stagingDir, Set<Path> artifacts) throws IOException {
+        if (Files.isDirectory(stagingDir)) {
+            List<Path> stale;
+            try (Stream<Path> stream = Files.walk(stagingDir)) {
+                stale = stream.filter(Files::isRegularFile)
+                        .filter(f -> !artifacts.contains(artifactOf(stagingDir.relativize(f))))
+                        .toList();
+            }
+            for (Path f : stale) {
+                Files.delete(f);
+            }
+            try (Stream<Path> stream = Files.walk(stagingDir)) {
+                for (Path d : stream.filter(Files::isDirectory).sorted(Comparator.reverseOrder()).toList()) {
+                    if (!d.equals(stagingDir) && isEmptyDir(d)) {
+                        Files.delete(d);
+                    }
+                }
+            }
+            if (!stale.isEmpty()) {
+                LOGGER.info("+ mvg-central: pruned {} stale files from staging dir {}", stale.size(), stagingDir);
+            }
+        }
+    }
+
+    // the artifact a checksum or signature file belongs to (e.g. "x.jar" for "x.jar.asc.sha1"), the file itself otherwise:
+    private static Path artifactOf(Path f) {
+        String name = f.getFileName().toString();
+        String was;
+        do {
+            was = name;
+            for (String ext : CHECKSUM_EXTENSIONS) {
+                if (name.endsWith(ext)) {
+                    name = name.substring(0, name.length() - ext.length());
+                }
+            }
+            if (name.endsWith(".asc")) {
+                name = name.substring(0, name.length() - ".asc".length());
+            }
+        } while (!name.equals(was));
+        return f.resolveSibling(name);
+    }
+
+    private static boolean isEmptyDir(Path d) throws IOException {
+        try (Stream<Path> stream = Files.list(d)) {
+            return stream.findAny().isEmpty();
+        }
+    }
+
+    public void create() throws IOException {
+        long       t0 = System.currentTimeMillis();
+        List<Path> files;
+        try (Stream<Path> stream = Files.walk(stagingDir)) {
+            files = stream.filter(Files::isRegularFile)
+                    .filter(f -> !f.getFileName().toString().startsWith("maven-metadata"))
+                    .collect(Collectors.toList());
+        }
+        try {
+            files.addAll(files.parallelStream()
+                    .filter(CentralBundler::isArtifact)
+                    .flatMap(f -> writeMissingChecksums(f).stream())
+                    .toList());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        files.sort(null);
+
+        Map<String, String> manifest = readManifest();
+        try (ZipFile previous = openPrevious(manifest)) {
+            List<Entry> entries;
+            try {
+                entries = files.parallelStream().map(f -> {
+                    String name   = stagingDir.relativize(f).toString().replace('\\', '/');
+                    String sha256 = contentSha256(f);
+                    return new Entry(name, f, sha256, previous != null && sha256.equals(manifest.get(name)) ? previous.getEntry(name) : null);
+                }).toList();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            long reused = entries.stream().filter(e -> e.previous != null).count();
+            if (previous != null && reused == entries.size() && manifest.size() == entries.size()) {
+                LOGGER.info("+ mvg-central: bundle {} is up to date ({} files)", bundleFile, entries.size());
+                return;
+            }
+            Path tmp = bundleFile.resolveSibling(bundleFile.getFileName() + ".tmp");
+            Files.createDirectories(bundleFile.getParent());
+            write(entries, previous, tmp);
+            Files.move(tmp, bundleFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            writeManifest(entries);
+            LOGGER.info("+ mvg-central: created bundle {} with {} files ({} reused from the previous bundle) in {} ms", bundleFile, entries.size(), reused, System.currentTimeMillis() - t0);
+        }
+    }
+
+    private ZipFile openPrevious(Map<String, String> manifest) {
+        if (manifest.isEmpty() || !Files.isRegularFile(bundleFile)) {
+            return null;
+        }
+        try {
+            return ZipFile.builder().setPath(bundleFile).get();
+        } catch (IOException e) {
+            LOGGER.info("+ mvg-central: previous bundle {} not usable ({}), making a new one", bundleFile, e.getMessage());
+            return null;
+        }
+    }
+
+    private void write(List<Entry> entries, ZipFile previous, Path tmp) throws IOException {
+        Map<String, Compressed> compressed;
+        try {
+            compressed = entries.parallelStream()
+                    .filter(e -> e.previous == null && !isCompressed(e.file))
+                    .collect(Collectors.toConcurrentMap(Entry::name, e -> deflate(e.name, e.file)));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        try (ZipArchiveOutputStream zip = new ZipArchiveOutputStream(tmp.toFile())) {
+            for (Entry e : entries) {
+                if (e.previous != null) {
+                    zip.addRawArchiveEntry(new ZipArchiveEntry(e.previous), previous.getRawInputStream(e.previous));
+                } else if (compressed.containsKey(e.name)) {
+                    Compressed c = compressed.get(e.name);
+                    zip.addRawArchiveEntry(c.entry, new ByteArrayInputStream(c.raw));
+                } else {
+                    ZipArchiveEntry entry = new ZipArchiveEntry(e.name);
+                    entry.setMethod(ZipEntry.STORED);
+                    entry.setSize(Files.size(e.file));
+                    entry.setCompressedSize(entry.getSize());
+                    entry.setCrc(crc(e.file));
+                    try (InputStream in = Files.newInputStream(e.file)) {
+                        zip.addRawArchiveEntry(entry, in);
+                    }
+                }
+            }
+        }
+    }
+
+    private static Compressed deflate(String name, Path f) {
+        try {
+            byte[]                data  = Files.readAllBytes(f); // only files that are not compressed yet: poms, module files, checksums, signatures
+            ByteArrayOutputStream out   = new ByteArrayOutputStream(data.length / 2 + 64);
+            Deflater              def   = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+            CRC32                 crc32 = new CRC32();
+            try (DeflaterOutputStream dos = new DeflaterOutputStream(out, def)) {
+                dos.write(data);
+            } finally {
+                def.end();
+            }
+            crc32.update(data);
+            ZipArchiveEntry entry = new ZipArchiveEntry(name);
+            entry.setMethod(ZipEntry.DEFLATED);
+            entry.setSize(data.length);
+            entry.setCompressedSize(out.size());
+            entry.setCrc(crc32.getValue());
+            return new Compressed(entry, out.toByteArray());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long crc(Path f) throws IOException {
+        CRC32 crc32 = new CRC32();
+        try (InputStream in = Files.newInputStream(f)) {
+            byte[] block = new byte[64 * 1024];
+            for (int length; (length = in.read(block)) > 0; ) {
+                crc32.update(block, 0, length);
+            }
+        }
+        return crc32.getValue();
+    }
+
+    // the sha256 sidecar that gradle (or we) wrote is used when it is up to date, that saves reading big artifacts
+    static String contentSha256(Path f) {
+        try {
+            Path sidecar = checksumFile(f, Hash.SHA256);
+            if (isArtifact(f) && isUpToDate(sidecar, f)) {
+                return Files.readString(sidecar).trim();
+            }
+            return Hash.checksums(f, List.of(Hash.SHA256)).get(Hash.SHA256);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static List<Path> writeMissingChecksums(Path f) {
+        List<Hash> missing = Arrays.stream(Hash.values()).filter(h -> !isUpToDate(checksumFile(f, h), f)).toList();
+        if (missing.isEmpty()) {
+            return List.of();
+        }
+        try {
+            List<Path> written = new ArrayList<>();
+            for (Map.Entry<Hash, String> e : Hash.checksums(f, missing).entrySet()) {
+                Path    checksumFile = checksumFile(f, e.getKey());
+                boolean existed      = Files.isRegularFile(checksumFile);
+                Files.writeString(checksumFile, e.getValue());
+                if (!existed) {
+                    written.add(checksumFile);
+                }
+            }
+            return written;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // a checksum or signature file that is older than its artifact is left over from an earlier build
+    static boolean isUpToDate(Path derived, Path source) {
+        try {
+            return Files.isRegularFile(derived) && Files.getLastModifiedTime(source).compareTo(Files.getLastModifiedTime(derived)) <= 0;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    static Path checksumFile(Path f, Hash hash) {
+        return f.resolveSibling(f.getFileName() + hash.getExtension());
+    }
+
+    static boolean isArtifact(Path f) {
+        String name = f.getFileName().toString();
+        return !name.endsWith(".asc") && CHECKSUM_EXTENSIONS.stream().noneMatch(name::endsWith);
+    }
+
+    private static boolean isCompressed(Path f) {
+        String name = f.getFileName().toString();
+        return COMPRESSED_EXTENSIONS.stream().anyMatch(name::endsWith);
+    }
+
+    private Map<String, String> readManifest() {
+        Map<String, String> manifest = new TreeMap<>();
+        if (Files.isRegularFile(manifestFile)) {
+            for (String line : Util.readAllLines(manifestFile)) {
+                int eq = line.lastIndexOf('=');
+                if (0 < eq) {
+                    manifest.put(line.substring(0, eq), line.substring(eq + 1));
+                }
+            }
+        }
+        return manifest;
+    }
+
+    private void writeManifest(List<Entry> entries) throws IOException {
+        Files.write(manifestFile, entries.stream().map(e -> e.name + "=" + e.sha256).toList(), UTF_8);
+    }
+}
@@ -0,0 +1,106 @@
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+//  (C) Copyright 2018-2026 Modeling Value Group B.V. (http://modelingvalue.org)                                         ~
+//                                                                                                                       ~
+//  Licensed under the GNU Lesser General Public License v3.0 (the 'License'). You may not use this file except in       ~
+//  compliance with the License. You may obtain a copy of the License at: https://choosealicense.com/licenses/lgpl-3.0   ~
+//  Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on  ~
+//  an 'AS IS' BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the   ~
+//  specific language governing permissions and limitations under the License.                                           ~
+//                                                                                                                       ~
+//  Maintainers:                                                                                                         ~
+//      Wim Bast, Tom Brus                                                                                               ~
+//                                                                                                                       ~
+//  Contributors:                                                                                                        ~
+//      Ronald Krijgsheld ✝, Arjan Kok, Carel Bast                                                                       ~
+// --------------------------------------------------------------------------------------------------------------------- ~
+//  In Memory of Ronald Krijgsheld, 1972 - 2023                                                                          ~
+//      Ronald was suddenly and unexpectedly taken from us. He was not only our long-term colleague and team member      ~
+//      but also our friend. "He will live on in many of the lines of code you see below."                               ~
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+package org.modelingvalue.gradle.mvgplugin;
+
+import static org.modelingvalue.gradle.mvgplugin.Info.LOGGER;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.gradle.plugins.signing.signatory.Signatory;
+import org.gradle.plugins.signing.type.SignatureType;
+import org.gradle.plugins.signing.type.pgp.ArmoredSignatureType;
+
+/**
+ * signs all artifacts in the staging dir (in parallel) with one signatory, so the key is only parsed once per build.
+ * <p>
+ * Signatures are kept in a cache dir per signing key under the sha256 of the artifact they sign, an artifact with the
+ * same bytes (e.g. on a retry after a failed upload) gets the cached signature instead of being signed again, unless the
+ * key changed in the mean time.
+ */
+public class CentralSigner {
+    private static final SignatureType ARMORED = new ArmoredSignatureType();
+
+    private final Signatory signatory;
+    private final Path      cacheDir;
+
+    public CentralSigner(Signatory signatory, Path cacheDir) {
+        this.signatory = signatory;
+        this.cacheDir = cacheDir.resolve(signatory.getKeyId() != null ? signatory.getKeyId() : "no-key-id");
+    }
+
+    /**
+     * @param stagingDir the staging dir with the artifacts to sign
+     * @return the number of artifacts that really had to be signed (so not up to date and not in the cache)
+     */
+    public long signAll(Path stagingDir) throws IOException {
+        long       t0 = System.currentTimeMillis();
+        List<Path> artifacts;
+        try (Stream<Path> stream = Files.walk(stagingDir)) {
+            artifacts = stream.filter(Files::isRegularFile)
+                    .filter(f -> !f.getFileName().toString().startsWith("maven-metadata"))
+                    .filter(CentralBundler::isArtifact)
+                    .filter(f -> !CentralBundler.isUpToDate(signatureFile(f), f))
+                    .toList();
+        }
+        Files.createDirectories(cacheDir);
+        long signed;
+        try {
+            signed = artifacts.parallelStream().filter(this::sign).count();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        LOGGER.info("+ mvg-central: {} artifacts needed a signature, {} signed and {} from cache in {} ms", artifacts.size(), signed, artifacts.size() - signed, System.currentTimeMillis() - t0);
+        return signed;
+    }
+
+    /**
+     * @return true if the artifact was signed, false if the signature came from the cache
+     */
+    private boolean sign(Path f) {
+        try {
+            Path    cached    = cacheDir.resolve(CentralBundler.contentSha256(f) + "." + ARMORED.getExtension());
+            boolean fromCache = Files.isRegularFile(cached);
+            if (!fromCache) {
+                Path tmp = Files.createTempFile(cacheDir, "sign", ".tmp");
+                try (InputStream in = Files.newInputStream(f); OutputStream out = Files.newOutputStream(tmp)) {
+                    ARMORED.sign(signatory, in, out);
+                }
+                Files.move(tmp, cached, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            Files.copy(cached, signatureFile(f), StandardCopyOption.REPLACE_EXISTING);
+            return !fromCache;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Path signatureFile(Path f) {
+        return f.resolveSibling(f.getFileName() + "." + ARMORED.getExtension());
+    }
+}
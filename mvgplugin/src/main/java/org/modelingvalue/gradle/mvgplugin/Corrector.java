@@ -35,12 +35,14 @@ import java.util.stream.Collectors;
 import org.gradle.api.GradleException;
 
 public abstract class Corrector {
-    protected final String    name;
-    protected final String    nameField;
-    protected final Set<Path> changedFiles = new HashSet<>();
+    protected final String     name;
+    protected final String     nameField;
+    protected final MvgMetrics metrics;
+    protected final Set<Path>  changedFiles = new HashSet<>();
 
-    public Corrector(String name) {
+    public Corrector(String name, MvgMetrics metrics) {
         this.name = name;
+        this.metrics = metrics;
         nameField = String.format("%-10s", name);
     }
 
@@ -50,6 +52,7 @@ public abstract class Corrector {
                 LOGGER.info("+ mvg: {} generated   : {}", nameField, file);
                 Files.write(file, lines);
                 changedFiles.add(file);
+                metrics.count(MvgMetrics.FILES_REWRITTEN);
             } else {
                 String was = Files.readString(file);
                 String req = String.join("\n", lines);
@@ -63,11 +66,12 @@ public abstract class Corrector {
                     }
                     Files.write(file, req.getBytes(StandardCharsets.UTF_8));
                     changedFiles.add(file);
+                    metrics.count(MvgMetrics.FILES_REWRITTEN);
                 } else {
                     LOGGER.info("+ mvg: {} untouched   : {}", nameField, file);
                 }
             }
-            if (TESTING) {
+            if (TESTING.get()) {
                 List<String> reread = Files.readAllLines(file);
                 if (!reread.equals(lines)) {
                     System.err.println("+ mvg: reread of corrected file yielded different file (" + file.toAbsolutePath() + ")");
@@ -29,8 +29,8 @@ import java.util.Set;
 public class DependabotCorrector extends Corrector {
 
     @SuppressWarnings("unused")
-    public DependabotCorrector(MvgCorrectorExtension ext) {
-        super("dependabot");
+    public DependabotCorrector(MvgCorrectorExtension ext, MvgMetrics metrics) {
+        super("dependabot", metrics);
     }
 
     public DependabotCorrector generate() throws IOException {
@@ -0,0 +1,186 @@
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+//  (C) Copyright 2018-2026 Modeling Value Group B.V. (http://modelingvalue.org)                                         ~
+//                                                                                                                       ~
+//  Licensed under the GNU Lesser General Public License v3.0 (the 'License'). You may not use this file except in       ~
+//  compliance with the License. You may obtain a copy of the License at: https://choosealicense.com/licenses/lgpl-3.0   ~
+//  Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on  ~
+//  an 'AS IS' BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the   ~
+//  specific language governing permissions and limitations under the License.                                           ~
+//                                                                                                                       ~
+//  Maintainers:                                                                                                         ~
+//      Wim Bast, Tom Brus                                                                                               ~
+//                                                                                                                       ~
+//  Contributors:                                                                                                        ~
+//      Ronald Krijgsheld ✝, Arjan Kok, Carel Bast                                                                       ~
+// --------------------------------------------------------------------------------------------------------------------- ~
+//  In Memory of Ronald Krijgsheld, 1972 - 2023                                                                          ~
+//      Ronald was suddenly and unexpectedly taken from us. He was not only our long-term colleague and team member      ~
+//      but also our friend. "He will live on in many of the lines of code you see below."                               ~
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+package org.modelingvalue.gradle.mvgplugin;
+
+import static org.modelingvalue.gradle.mvgplugin.Info.LOGGER;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.gradle.api.GradleException;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.treewalk.TreeWalk;
+
+/**
+ * the index of all trigger files in the <B>dependencies</B> repo.
+ * <p>
+ * Without this index every build has to walk the complete dependencies repo to find its own trigger files.
+ * The index is one sorted text file in the root of the dependencies repo with one line per trigger file:
+ * <pre>
+ *     <B>test.ab.c.lib gh-app build.yaml/test.yml</B>
+ *     <B>test.base.lib gh-lib build.yaml</B>
+ * </pre>
+ * (package, repo, workflows) so both the repo=&gt;packages and the package=&gt;triggers mappings can be made from it.
+ * The lines are sorted so that a commit of the index only shows the lines that really changed.
+ * <p>
+ * The trigger files stay the truth: older plugin versions only write trigger files and do not know about the index.
+ * The first line of the index holds the stamp of the trigger files it was made from, an index with another stamp is stale
+ * and is not used. The stamp is made from the git object ids of the top level dirs of the repo: git already hashes every
+ * trigger file into the tree of its dir, so any change to a trigger file changes the stamp, while computing it only
+ * reads the root tree and not a single trigger file.
+ */
+public class DependenciesIndex {
+    public static final  String INDEX_FILE_NAME = "dependencies.index";
+    private static final String STAMP_PREFIX    = "# stamp ";
+    private static final int    FORMAT          = 3;
+
+    private final Path                                    file;
+    private final Map<String, Map<String, List<String>>> packageToTriggers = new TreeMap<>();
+    private final Map<String, Set<String>>                repoToPackages    = new TreeMap<>();
+
+    private DependenciesIndex(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * @param dependenciesRepoDir the dir of the dependencies repo
+     * @param stamp               the stamp of the trigger files that are in the repo now
+     * @return the index as found in the repo or null if the repo does not have an index (yet) or the index is stale
+     */
+    public static DependenciesIndex read(Path dependenciesRepoDir, String stamp) {
+        Path file = dependenciesRepoDir.resolve(INDEX_FILE_NAME);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        List<String> lines = Util.readAllLines(file);
+        if (lines.isEmpty() || !lines.get(0).equals(STAMP_PREFIX + stamp)) {
+            LOGGER.info("+ mvg-bbb: dependencies index is stale (trigger files were changed without updating it)");
+            return null;
+        }
+        DependenciesIndex index = new DependenciesIndex(file);
+        for (String line : lines) {
+            String[] parts = line.trim().split("\\s+");
+            if (parts.length == 3 && !line.startsWith("#")) {
+                index.put(parts[1], parts[0], Arrays.asList(parts[2].split("/")));
+            }
+        }
+        LOGGER.info("+ mvg-bbb: read dependencies index with {} packages for {} repos", index.packageToTriggers.size(), index.repoToPackages.size());
+        return index;
+    }
+
+    /**
+     * @param git the dependencies repo
+     * @return the stamp of the trigger files in the last commit
+     * @throws IOException when the repo can not be read
+     */
+    public static String stampOfHead(Git git) throws IOException {
+        return stamp(git.getRepository(), git.getRepository().resolve(Constants.HEAD + "^{tree}"));
+    }
+
+    /**
+     * @param git the dependencies repo, with the changed trigger files staged
+     * @return the stamp of the trigger files that are about to be committed
+     * @throws IOException when the repo can not be read
+     */
+    public static String stampOfStaged(Git git) throws IOException {
+        Repository repo = git.getRepository();
+        try (ObjectInserter inserter = repo.newObjectInserter()) {
+            ObjectId tree = repo.readDirCache().writeTree(inserter);
+            inserter.flush();
+            return stamp(repo, tree);
+        }
+    }
+
+    private static String stamp(Repository repo, ObjectId tree) throws IOException {
+        MessageDigest digest = Hash.SHA256.newDigest();
+        if (tree != null) {
+            try (TreeWalk walk = new TreeWalk(repo)) {
+                walk.addTree(tree);
+                while (walk.next()) {
+                    if (walk.isSubtree()) {
+                        digest.update((walk.getNameString() + " " + walk.getObjectId(0).name() + "\n").getBytes(StandardCharsets.UTF_8));
+                    }
+                }
+            }
+        }
+        return "v" + FORMAT + " " + Hash.bytesToLowerHex(digest.digest());
+    }
+
+    public static DependenciesIndex empty(Path dependenciesRepoDir) {
+        return new DependenciesIndex(dependenciesRepoDir.resolve(INDEX_FILE_NAME));
+    }
+
+    public Set<String> getPackages(String repoName) {
+        return repoToPackages.getOrDefault(repoName, Set.of());
+    }
+
+    public Map<String, List<String>> getTriggers(String pack) {
+        return packageToTriggers.getOrDefault(pack, Map.of());
+    }
+
+    public void put(String repoName, String pack, List<String> workflows) {
+        packageToTriggers.computeIfAbsent(pack, p -> new TreeMap<>()).put(repoName, List.copyOf(workflows));
+        repoToPackages.computeIfAbsent(repoName, r -> new TreeSet<>()).add(pack);
+    }
+
+    public void removeRepo(String repoName) {
+        Set<String> packages = repoToPackages.remove(repoName);
+        if (packages != null) {
+            packages.forEach(pack -> {
+                Map<String, List<String>> triggers = packageToTriggers.get(pack);
+                triggers.remove(repoName);
+                if (triggers.isEmpty()) {
+                    packageToTriggers.remove(pack);
+                }
+            });
+        }
+    }
+
+    /**
+     * @param stamp the stamp of the trigger files that are in the repo now (that this index describes)
+     */
+    public void write(String stamp) {
+        List<String> lines = new ArrayList<>();
+        lines.add(STAMP_PREFIX + stamp);
+        lines.add("# generated by " + Info.PLUGIN_NAME + ": <package> <repo> <workflows>");
+        packageToTriggers.forEach((pack, triggers) -> triggers.forEach((repoName, workflows) -> lines.add(pack + " " + repoName + " " + String.join("/", workflows))));
+        try {
+            Files.write(file, lines);
+        } catch (IOException e) {
+            throw new GradleException("could not write the dependencies index " + file, e);
+        }
+    }
+}
@@ -31,23 +31,26 @@ import java.nio.file.Path;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Properties;
 import java.util.Set;
-import java.util.function.Predicate;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.gradle.api.GradleException;
+import org.modelingvalue.gradle.mvgplugin.WorkflowDispatcher.Dispatch;
+import org.modelingvalue.gradle.mvgplugin.WorkflowDispatcher.Result;
 
+import org.eclipse.jgit.api.AddCommand;
 import org.eclipse.jgit.api.CreateBranchCommand.SetupUpstreamMode;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.ListBranchCommand.ListMode;
 import org.eclipse.jgit.api.errors.GitAPIException;
 import org.eclipse.jgit.transport.RefSpec;
 import org.eclipse.jgit.util.FileUtils;
-import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 /**
@@ -77,23 +80,30 @@ import org.jetbrains.annotations.Nullable;
  * <pre>
  *     <B>WORKFLOWS=build.yaml/test.yml/xyzzy.yaml</B>
  * </pre>
+ * Next to the trigger files the repo holds a {@link DependenciesIndex} with the same information,
+ * so that finding the trigger files of a repo or a package does not need to read all trigger files.
+ * The index is only a cache: it is rebuilt when the trigger files in git do not match its stamp anymore
+ * (e.g. because a build with an older plugin version changed trigger files).
  */
 public class DependenciesRepoManager {
-    private static final String      TRIGGER_EXT = ".trigger";
-    private final        String      repoName;
-    private final        String      branch;
-    private final        boolean     active;
-    private final        Path        dependenciesRepoDir;
-    private final        Set<String> workflowFileNames;
-    private final        String      commitMessage;
-
-    public DependenciesRepoManager(Path buildDir) {
+    private static final String            TRIGGER_EXT = ".trigger";
+    private final        String            repoName;
+    private final        String            branch;
+    private final        boolean           active;
+    private final        Path              dependenciesRepoDir;
+    private final        Set<String>       workflowFileNames;
+    private final        String            commitMessage;
+    private final        MvgHttp           http;
+    private              DependenciesIndex index;
+
+    public DependenciesRepoManager(Path buildDir, MvgHttp http) {
+        this.http = http;
         repoName = InfoGradle.getMvgRepoName();
         branch = InfoGradle.getBranch();
         active = !InfoGradle.isMasterBranch() && InfoGradle.isMvgCI_orTesting();
         dependenciesRepoDir = active ? buildDir.resolve(MVG_DEPENDENCIES_REPO_NAME).toAbsolutePath() : null;
         workflowFileNames = active ? findMyTriggerWorkflows() : null;
-        commitMessage = active ? repoName + ":" + branch + " @" + Info.NOW_STAMP + " [" + Info.HOSTNAME + "]" : null;
+        commitMessage = active ? repoName + ":" + branch + " @" + Info.NOW_STAMP.get() + " [" + Info.HOSTNAME.get() + "]" : null;
         if (active) {
             cloneDependenciesRepo(dependenciesRepoDir, branch);
         }
@@ -101,7 +111,7 @@ public class DependenciesRepoManager {
 
     public void saveDependencies(Set<String> packages) {
         if (active) {
-            if (Info.TESTING) {
+            if (Info.TESTING.get()) {
                 test();
             }
             if (repoName == null) {
@@ -115,23 +125,27 @@ public class DependenciesRepoManager {
     public void trigger(Set<String> publications) {
         if (active) {
             try {
-                getTriggers(publications).forEach(tr -> tr.workflows.forEach(workflowFilename -> trigger(tr.repoName, workflowFilename)));
+                trigger(getTriggers(publications)
+                        .flatMap(tr -> tr.workflows.stream().map(workflowFilename -> new Dispatch(tr.repoName, workflowFilename)))
+                        .collect(Collectors.toList()));
             } catch (IOException e) {
                 LOGGER.warn("+ mvg: triggers could not be retrieved", e);
             }
         }
     }
 
-    private void trigger(String repoName, String workflowFilename) {
-        LOGGER.info("+ mvg-bbb: TRIGGER dependent project (repo={} branch={} workflow={})", repoName, branch, workflowFilename);
-        try {
-            String json = GithubApi.triggerWorkflow(repoName, workflowFilename, branch, msg -> LOGGER.info("+ mvg-bbb: TRIGGER gave problem: err={}", msg));
-            if (!json.isBlank()) {
-                LOGGER.info("+ mvg-bbb: trigger error: {}: {}", json.length(), json);
+    private void trigger(List<Dispatch> dispatches) {
+        dispatches.forEach(d -> LOGGER.info("+ mvg-bbb: TRIGGER dependent project (repo={} branch={} workflow={})", d.repo(), branch, d.workflow()));
+        for (Result result : WorkflowDispatcher.forGithub(http).dispatch(dispatches, branch)) {
+            Dispatch d = result.dispatch();
+            if (result.ok()) {
+                if (!result.message().isBlank()) {
+                    LOGGER.info("+ mvg-bbb: trigger error: {}: {}", result.message().length(), result.message());
+                }
+            } else {
+                LOGGER.info("+ mvg-bbb: TRIGGER gave problem: err={}", result.message());
+                LOGGER.info("+ mvg-bbb: {} could not trigger (repo={} wf={} status={} attempts={})", Util.TEST_MARKER_TRIGGER, d.repo(), d.workflow(), result.status(), result.attempts());
             }
-        } catch (IOException e) {
-            LOGGER.info("+ mvg-bbb: {} could not trigger (repo={} wf={} msg='{}:{}')", Util.TEST_MARKER_TRIGGER, repoName, workflowFilename, e.getClass().getSimpleName(), e.getMessage());
-            LOGGER.debug("++ mvg-bbb: could not trigger", e);
         }
     }
 
@@ -199,49 +213,118 @@ public class DependenciesRepoManager {
 
     void saveDependencies(String repoName, Set<String> usedPackages) {
         try {
-            clearExistingDependencies(repoName);
-            writeDependencies(repoName, usedPackages);
+            Set<Path> changes = new HashSet<>(clearExistingDependencies(repoName));
+            changes.addAll(writeDependencies(repoName, usedPackages));
+            stageTriggerFiles(changes);
+            getIndex().write(DependenciesIndex.stampOfStaged(GitManager.git(dependenciesRepoDir)));
             pushDependenciesRepo();
         } catch (IOException | GitAPIException e) {
             e.printStackTrace();
         }
     }
 
-    private void clearExistingDependencies(String repoName) throws IOException {
-        if (Files.isDirectory(dependenciesRepoDir)) {
-            Files.walkFileTree(dependenciesRepoDir, new SimpleFileVisitor<>() {
-                @Override
-                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
-                    if (dir.getFileName().toString().equals(".git")) {
-                        return FileVisitResult.SKIP_SUBTREE;
-                    }
-                    Path file = getTriggerFile(dir, repoName);
-                    if (Files.isRegularFile(file)) {
-                        LOGGER.info("+ mvg-bbb: deleting obsolete trigger file: {}", file);
-                        Files.delete(file);
-                    }
-                    return FileVisitResult.CONTINUE;
-                }
-            });
+    private Set<Path> clearExistingDependencies(String repoName) throws IOException {
+        DependenciesIndex index   = getIndex();
+        Set<Path>         deleted = new HashSet<>();
+        for (String pack : index.getPackages(repoName)) {
+            Path file = getTriggerFile(repoName, pack);
+            if (Files.isRegularFile(file)) {
+                LOGGER.info("+ mvg-bbb: deleting obsolete trigger file: {}", file);
+                Files.delete(file);
+                deleted.add(file);
+            }
         }
+        index.removeRepo(repoName);
+        return deleted;
     }
 
-    private void writeDependencies(String repoName, Set<String> usedPackages) {
-        String prop = "WORKFLOWS=" + String.join("/", workflowFileNames) + "\n";
+    private Set<Path> writeDependencies(String repoName, Set<String> usedPackages) {
+        List<String> workflows = List.copyOf(workflowFileNames);
+        String       prop      = "WORKFLOWS=" + String.join("/", workflows) + "\n";
+        Set<Path>    written   = new HashSet<>();
         usedPackages.forEach(usedPackage -> {
             try {
                 Path triggerFile = getTriggerFile(repoName, usedPackage);
                 LOGGER.info("+ mvg-bbb: creating          trigger file: {}", triggerFile);
                 Files.createDirectories(triggerFile.getParent());
                 Files.write(triggerFile, prop.getBytes());
+                written.add(triggerFile);
+                if (!workflows.isEmpty()) {
+                    getIndex().put(repoName, usedPackage, workflows);
+                }
             } catch (IOException e) {
                 e.printStackTrace();
             }
         });
+        return written;
+    }
+
+    // only the trigger files that were touched are staged, so the stamp of the next commit is known without a status of the whole repo:
+    private void stageTriggerFiles(Set<Path> changes) throws GitAPIException {
+        if (!changes.isEmpty()) {
+            Git        git      = GitManager.git(dependenciesRepoDir);
+            AddCommand add      = git.add();
+            AddCommand addTrack = git.add().setUpdate(true);
+            for (Path file : changes) {
+                String pattern = dependenciesRepoDir.relativize(file).toString().replace('\\', '/');
+                if (Files.isRegularFile(file)) {
+                    add.addFilepattern(pattern);
+                }
+                addTrack.addFilepattern(pattern);
+            }
+            add.call();
+            addTrack.call();
+        }
+    }
+
+    private DependenciesIndex getIndex() throws IOException {
+        if (index == null) {
+            index = DependenciesIndex.read(dependenciesRepoDir, DependenciesIndex.stampOfHead(GitManager.git(dependenciesRepoDir)));
+            if (index == null) {
+                index = rebuildIndex();
+            }
+        }
+        return index;
+    }
+
+    private boolean isTriggerFile(Path file) {
+        return file.getFileName().toString().endsWith(TRIGGER_EXT) && !file.getParent().equals(dependenciesRepoDir);
+    }
+
+    /**
+     * Builds the index from the trigger files that are in the repo. This is the expensive read of all trigger
+     * files that the index is there to prevent; it is only needed when the repo has no index or a stale one.
+     *
+     * @return the index made from the trigger files
+     */
+    private DependenciesIndex rebuildIndex() throws IOException {
+        LOGGER.info("+ mvg-bbb: no (valid) dependencies index found, rebuilding it from the trigger files in {}", dependenciesRepoDir);
+        DependenciesIndex newIndex = DependenciesIndex.empty(dependenciesRepoDir);
+        if (Files.isDirectory(dependenciesRepoDir)) {
+            Files.walkFileTree(dependenciesRepoDir, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    return dir.getFileName().toString().equals(".git") ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (isTriggerFile(file)) {
+                        Trigger trigger = new Trigger(file);
+                        if (trigger.workflows != null) {
+                            String pack = dependenciesRepoDir.relativize(file.getParent()).toString().replace('\\', '/').replace('/', '.');
+                            newIndex.put(trigger.repoName, pack, trigger.workflows);
+                        }
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        }
+        return newIndex;
     }
 
     private void pushDependenciesRepo() throws GitAPIException, IOException {
-        GitUtil.stageCommitPush(dependenciesRepoDir, commitMessage, null);
+        GitUtil.stageCommitPush(http.metrics(), dependenciesRepoDir, commitMessage, null);
     }
 
     private Stream<Trigger> getTriggers(Set<String> publications) throws IOException {
@@ -249,17 +332,10 @@ public class DependenciesRepoManager {
     }
 
     private Stream<Trigger> getTriggers(String pack) {
-        Path path = getTriggerDirFor(pack);
         try {
-            return !Files.isDirectory(path)
-                    ? Stream.empty()
-                    : Files.list(path)
-                    .filter(Files::isRegularFile)
-                    .filter(p -> p.getFileName().toString().endsWith(TRIGGER_EXT))
-                    .map(Trigger::new)
-                    .filter(tr -> tr.workflows != null);
+            return getIndex().getTriggers(pack).entrySet().stream().map(e -> new Trigger(e.getKey(), e.getValue()));
         } catch (IOException e) {
-            throw new GradleException("could not list directory " + path, e);
+            throw new GradleException("could not read the dependencies index in " + dependenciesRepoDir, e);
         }
     }
 
@@ -272,6 +348,11 @@ public class DependenciesRepoManager {
             workflows = readWorkflows(triggerFile);
         }
 
+        private Trigger(String repoName, List<String> workflows) {
+            this.repoName = repoName;
+            this.workflows = workflows;
+        }
+
         @Nullable
         private List<String> readWorkflows(Path triggerFile) {
             try {
@@ -284,70 +365,35 @@ public class DependenciesRepoManager {
             }
         }
 
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Trigger that && repoName.equals(that.repoName) && Objects.equals(workflows, that.workflows);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(repoName, workflows);
+        }
+
         @Override
         public String toString() {
             return "{repo=" + repoName + ", workflows=" + workflows + '}';
         }
     }
 
-    private Path getTriggerDirFor(String pack) {
-        return dependenciesRepoDir.resolve(pack.replace('.', '/'));
-    }
-
     private Path getTriggerFile(String repoName, String pack) {
-        return getTriggerFile(getTriggerDirFor(pack), repoName);
-    }
-
-    @NotNull
-    private Path getTriggerFile(Path d, String repoName) {
-        return d.resolve(repoName + TRIGGER_EXT);
+        return dependenciesRepoDir.resolve(pack.replace('.', '/')).resolve(repoName + TRIGGER_EXT);
     }
 
     /**
-     * Gets you the set of workflow file names with extensions but without any directory info
+     * Gets you the set of workflow file names with extensions but without any directory info:
+     * the dispatchable workflows with my name, or all dispatchable workflows if none has my name.
      *
      * @return set of workflowfile names
      */
     private Set<String> findMyTriggerWorkflows() {
-        Path workflowsDir = InfoGradle.getWorkflowsDir();
-        if (!Files.isDirectory(workflowsDir)) {
-            return Set.of();
-        }
-        String namePattern = "^name: *" + Pattern.quote(Info.GITHUB_WORKFLOW) + "$";
         try {
-            Predicate<Path> fileFilter = p -> {
-                try {
-                    if (!Files.isRegularFile(p)) {
-                        return false;
-                    }
-                    if (!p.getFileName().toString().matches(".*\\.(yaml|yml)")) {
-                        return false;
-                    }
-                    List<String> lines = Files.readAllLines(p);
-                    return lines.stream().anyMatch(l -> l.contains("workflow_dispatch"));
-                } catch (IOException e) {
-                    return false;
-                }
-            };
-            Set<String> set = Files.list(workflowsDir)
-                    .filter(fileFilter)
-                    .filter(p -> {
-                        try {
-                            List<String> lines = Files.readAllLines(p);
-                            return lines.stream().anyMatch(l -> l.matches(namePattern));
-                        } catch (IOException e) {
-                            return false;
-                        }
-                    })
-                    .map(p -> p.getFileName().toString())
-                    .collect(Collectors.toSet());
-            if (!set.isEmpty()) {
-                return set;
-            }
-            return Files.list(workflowsDir)
-                    .filter(fileFilter)
-                    .map(p -> p.getFileName().toString())
-                    .collect(Collectors.toSet());
+            return WorkflowFiles.triggerWorkflows(InfoGradle.getWorkflowsDir(), Info.GITHUB_WORKFLOW.get());
         } catch (IOException e) {
             return Set.of();
         }
@@ -362,8 +408,7 @@ public class DependenciesRepoManager {
             for (String pack : List.of("test.ab.c.lib", "test.qw.e.lib", "test.base.lib")) {
                 getTriggers(pack).forEach(s -> LOGGER.info("+ mvg: test trigger: {}  ==={}===>  {}", pack, Util.TEST_MARKER_TRIGGERING, s));
             }
-            trigger("sync-proxy", "build.yaml");
-            trigger("sync-proxy", "no_wf.yaml");
+            trigger(List.of(new Dispatch("sync-proxy", "build.yaml"), new Dispatch("sync-proxy", "no_wf.yaml")));
         } catch (Exception e) {
             throw new GradleException("TESTING: unable to test DependenciesManager", e);
         } finally {
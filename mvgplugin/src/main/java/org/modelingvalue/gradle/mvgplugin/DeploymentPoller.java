@@ -0,0 +1,121 @@
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+//  (C) Copyright 2018-2026 Modeling Value Group B.V. (http://modelingvalue.org)                                         ~
+//                                                                                                                       ~
+//  Licensed under the GNU Lesser General Public License v3.0 (the 'License'). You may not use this file except in       ~
+//  compliance with the License. You may obtain a copy of the License at: https://choosealicense.com/licenses/lgpl-3.0   ~
+//  Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on  ~
+//  an 'AS IS' BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the   ~
+//  specific language governing permissions and limitations under the License.                                           ~
+//                                                                                                                       ~
+//  Maintainers:                                                                                                         ~
+//      Wim Bast, Tom Brus                                                                                               ~
+//                                                                                                                       ~
+//  Contributors:                                                                                                        ~
+//      Ronald Krijgsheld ✝, Arjan Kok, Carel Bast                                                                       ~
+// --------------------------------------------------------------------------------------------------------------------- ~
+//  In Memory of Ronald Krijgsheld, 1972 - 2023                                                                          ~
+//      Ronald was suddenly and unexpectedly taken from us. He was not only our long-term colleague and team member      ~
+//      but also our friend. "He will live on in many of the lines of code you see below."                               ~
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+package org.modelingvalue.gradle.mvgplugin;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.modelingvalue.gradle.mvgplugin.Info.LOGGER;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import org.gradle.api.GradleException;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * waits until maven central has validated a deployment.
+ * <p>
+ * Validation takes anything from seconds to many minutes, so the interval between two status requests starts small and
+ * grows (with jitter) up to a cap. Failing status requests (connection problems, 5xx) do not end the wait, they are just retried later.
+ */
+public class DeploymentPoller {
+    public static final  Backoff      DEFAULT_SCHEDULE = new Backoff(Integer.MAX_VALUE, 2_000, 30_000);
+    private static final ObjectMapper MAPPER           = new ObjectMapper();
+
+    private final MvgHttp http;
+    private final String  apiUrl;
+    private final String  authHeader;
+    private final Backoff schedule;
+    private final long    timeoutMs;
+
+    public DeploymentPoller(MvgHttp http, String apiUrl, String authHeader, Backoff schedule, long timeoutMs) {
+        this.http = http;
+        this.apiUrl = apiUrl;
+        this.authHeader = authHeader;
+        this.schedule = schedule;
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * @param deploymentId the id maven central returned for the upload
+     * @throws GradleException when the deployment failed, the status can not be asked or the wait timed out
+     */
+    public void awaitDone(String deploymentId) {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        for (int poll = 1; ; poll++) {
+            String state = pollState(deploymentId);
+            if (state != null) {
+                LOGGER.info("+ mvg-central: deployment {} state: {}", deploymentId, state);
+                if (state.equals("PUBLISHING") || state.equals("PUBLISHED")) {
+                    LOGGER.info("+ mvg-central: deployment {} accepted by maven central", deploymentId);
+                    return;
+                }
+            }
+            long delay = schedule.delayMs(poll);
+            if (deadline < System.currentTimeMillis() + delay) {
+                throw new GradleException("maven central validation timed out for deployment " + deploymentId);
+            }
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new GradleException("interrupted while waiting for maven central validation", e);
+            }
+        }
+    }
+
+    /**
+     * @return the state of the deployment or null if it could not be determined this time
+     */
+    private String pollState(String deploymentId) {
+        HttpRequest request = http.request(apiUrl + "/status?id=" + URLEncoder.encode(deploymentId, UTF_8))
+                .header("Authorization", authHeader)
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+        try {
+            HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString(UTF_8));
+            int                  status   = response.statusCode();
+            String               answer   = response.body();
+            if (500 <= status || status == 429) {
+                LOGGER.info("+ mvg-central: status check of deployment {} gave HTTP {}, will retry", deploymentId, status);
+                return null;
+            }
+            if (status < 200 || 300 <= status) {
+                throw new GradleException("maven central status check failed (HTTP " + status + "): " + answer);
+            }
+            JsonNode json  = MAPPER.readTree(answer);
+            String   state = json.path("deploymentState").asText();
+            if (state.equals("FAILED")) {
+                throw new GradleException("maven central rejected the deployment: " + json.path("errors").toString());
+            }
+            return state;
+        } catch (InterruptedIOException e) {
+            throw new GradleException("interrupted while waiting for maven central validation", e);
+        } catch (IOException e) {
+            LOGGER.info("+ mvg-central: status check of deployment {} failed ({}), will retry", deploymentId, e.getMessage());
+            return null;
+        }
+    }
+}
@@ -22,41 +22,64 @@ package org.modelingvalue.gradle.mvgplugin;
 
 import static org.modelingvalue.gradle.mvgplugin.Info.LOGGER;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Properties;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import org.gradle.api.GradleException;
 
+/**
+ * a properties file (with an optional parent that supplies defaults) that is read once.
+ * <p>
+ * Lookups are memoised, so a property is a map lookup after its first access. A change of the file underneath
+ * is detected from its modification time and size; only when those change the content is read again and compared.
+ */
 public class DotProperties {
-    private final DotProperties parent;
-    private final Path          file;
-    private       String        crc;
-    private final boolean       valid;
-    private final Properties    properties;
-    private final List<String>  lines;
+    private final DotProperties                 parent;
+    private final Path                          file;
+    private final boolean                       valid;
+    private final Properties                    properties;
+    private final List<String>                  lines;
+    private final Map<String, Optional<String>> resolved = new HashMap<>();
+    private       byte[]                        content;
+    private       FileTime                      modified;
+    private       long                          size;
+    private       int                           modCount;
+    private       int                           resolvedModCount;
 
     public DotProperties(Path file, DotProperties parent) {
         this.parent = parent;
         this.file = file;
         valid = Files.isRegularFile(file);
         if (valid) {
-            crc = Hash.MD5.checksum(file);
-            properties = Util.loadProperties(file);
-            LOGGER.debug("++ mvg: properties from {}: read {} properties", file, properties.size());
-            properties.forEach((name, value) -> LOGGER.debug("++ mvg: prop read: [{}] = {}", name, value == null ? null : Util.hide(value.toString())));
             try {
-                lines = Files.readAllLines(file);
+                BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+                modified = attrs.lastModifiedTime();
+                size = attrs.size();
+                content = Files.readAllBytes(file);
+                lines = new ArrayList<>(new String(content, StandardCharsets.UTF_8).lines().toList());
             } catch (IOException e) {
                 throw new GradleException("properties file could not be read: " + file.toAbsolutePath(), e);
             }
+            properties = load(content);
+            LOGGER.debug("++ mvg: properties from {}: read {} properties", file, properties.size());
+            properties.forEach((name, value) -> LOGGER.debug("++ mvg: prop read: [{}] = {}", name, value == null ? null : Util.hide(value.toString())));
         } else {
-            crc = "";
+            content = new byte[0];
             properties = new Properties();
             lines = new ArrayList<>();
             LOGGER.debug("++ mvg: properties file {}: no file, no values", file);
@@ -80,32 +103,69 @@ public class DotProperties {
     }
 
     public String getProp(String name, String def) {
-        trackFileChange();
-        Object o = properties.get(name);
-        LOGGER.debug("++ mvg: getProp raw get on {}: [{}] = {}", file, name, o == null ? o : Util.hide(o.toString()));
-        String value = o != null ? o.toString() : parent != null ? parent.getProp(name, def) : def;
-        LOGGER.info("+ mvg: getProp          : {} => {}   (from {}{})", name, Util.hide(value), file.toAbsolutePath(), valid ? "" : " - INVALID");
+        return lookup(name).orElse(def);
+    }
+
+    private synchronized Optional<String> lookup(String name) {
+        trackFileChanges();
+        int chainModCount = chainModCount();
+        if (resolvedModCount != chainModCount) {
+            resolved.clear();
+            resolvedModCount = chainModCount;
+        }
+        Optional<String> value = resolved.get(name);
+        if (value == null) {
+            Object o = properties.get(name);
+            value = o != null ? Optional.of(o.toString()) : parent != null ? parent.lookup(name) : Optional.empty();
+            resolved.put(name, value);
+            LOGGER.info("+ mvg: getProp          : {} => {}   (from {}{})", name, Util.hide(value.orElse(null)), file.toAbsolutePath(), valid ? "" : " - INVALID");
+        }
         return value;
     }
 
-    private void trackFileChange() {
-        String newCrc = Hash.MD5.checksum(file);
-        if (!newCrc.equals(crc)) {
-            Properties newProps = Util.loadProperties(file);
-            if (newProps.equals(properties)) {
-                LOGGER.info("+ mvg: FILE CHANGED: {} ({}!={}) but same properties so updating crc", file, crc, newCrc);
-                crc = newCrc;
-            } else {
-                LOGGER.info("+ mvg: FILE CHANGED: {} ({}!={})", file, crc, newCrc);
-                throw new GradleException("consistency problem: the file " + file + " has changed in mid air ('./gradlew --stop' might solve this)");
+    // a change anywhere in the parent chain invalidates the memoised lookups:
+    private int chainModCount() {
+        return modCount + (parent == null ? 0 : parent.chainModCount());
+    }
+
+    private void trackFileChanges() {
+        trackFileChange();
+        if (parent != null) {
+            parent.trackFileChange();
+        }
+    }
+
+    private synchronized void trackFileChange() {
+        if (!valid) {
+            return;
+        }
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+            if (attrs.lastModifiedTime().equals(modified) && attrs.size() == size) {
+                return;
+            }
+            byte[] newContent = Files.readAllBytes(file);
+            if (!Arrays.equals(newContent, content)) {
+                Properties newProps = load(newContent);
+                if (!newProps.equals(properties)) {
+                    LOGGER.info("+ mvg: FILE CHANGED: {}", file);
+                    throw new GradleException("consistency problem: the file " + file + " has changed in mid air ('./gradlew --stop' might solve this)");
+                }
+                LOGGER.info("+ mvg: FILE CHANGED: {} but same properties", file);
+                content = newContent;
             }
+            modified = attrs.lastModifiedTime();
+            size = attrs.size();
+        } catch (IOException e) {
+            throw new GradleException("properties file could not be read: " + file.toAbsolutePath(), e);
         }
     }
 
-    public void setProp(String name, String value) {
+    public synchronized void setProp(String name, String value) {
         LOGGER.debug("++ mvg: setProp on {}: [{}] = {}", file, name, Util.hide(value));
         trackFileChange();
         properties.setProperty(name, value);
+        modCount++;
         if (valid) {
             List<String> newLines = lines.stream()
                     .map(l -> l.matches("^" + Pattern.quote(name) + "\\s*=.*") ? l.replaceFirst("(=\\s*).*$", "$1") + value : l)
@@ -114,10 +174,23 @@ public class DotProperties {
             lines.addAll(newLines);
             try {
                 Files.write(file, lines);
-                crc = Hash.MD5.checksum(file);
+                BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+                content = Files.readAllBytes(file);
+                modified = attrs.lastModifiedTime();
+                size = attrs.size();
             } catch (IOException e) {
                 throw new GradleException("properties file could not be written: " + file.toAbsolutePath(), e);
             }
         }
     }
+
+    private Properties load(byte[] bytes) {
+        try (InputStream in = new ByteArrayInputStream(bytes)) {
+            Properties props = new Properties();
+            props.load(in);
+            return props;
+        } catch (IOException e) {
+            throw new GradleException("can not read properties file at " + file.toAbsolutePath(), e);
+        }
+    }
 }
@@ -0,0 +1,104 @@
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+//  (C) Copyright 2018-2026 Modeling Value Group B.V. (http://modelingvalue.org)                                         ~
+//                                                                                                                       ~
+//  Licensed under the GNU Lesser General Public License v3.0 (the 'License'). You may not use this file except in       ~
+//  compliance with the License. You may obtain a copy of the License at: https://choosealicense.com/licenses/lgpl-3.0   ~
+//  Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on  ~
+//  an 'AS IS' BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the   ~
+//  specific language governing permissions and limitations under the License.                                           ~
+//                                                                                                                       ~
+//  Maintainers:                                                                                                         ~
+//      Wim Bast, Tom Brus                                                                                               ~
+//                                                                                                                       ~
+//  Contributors:                                                                                                        ~
+//      Ronald Krijgsheld ✝, Arjan Kok, Carel Bast                                                                       ~
+// --------------------------------------------------------------------------------------------------------------------- ~
+//  In Memory of Ronald Krijgsheld, 1972 - 2023                                                                          ~
+//      Ronald was suddenly and unexpectedly taken from us. He was not only our long-term colleague and team member      ~
+//      but also our friend. "He will live on in many of the lines of code you see below."                               ~
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+package org.modelingvalue.gradle.mvgplugin;
+
+import static org.modelingvalue.gradle.mvgplugin.Info.LOGGER;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Properties;
+
+/**
+ * the sidecar file next to a cached download that records where it came from and when it was last verified against the server.
+ * <p>
+ * As long as the verification is younger than the revalidation ttl the cached file is used without any network access.
+ */
+public record DownloadMeta(String url, long size, String etag, Instant verifiedAt) {
+    public static final String META_EXTENSION = ".meta";
+
+    public static DownloadMeta verifiedNow(String url, long size, String etag) {
+        return new DownloadMeta(url, size, etag == null ? "" : etag, Instant.now());
+    }
+
+    public static Path metaFile(Path file) {
+        return file.resolveSibling(file.getFileName() + META_EXTENSION);
+    }
+
+    /**
+     * @param file the cached file
+     * @return the metadata of the cached file or null if it is absent or unreadable
+     */
+    public static DownloadMeta read(Path file) {
+        Path meta = metaFile(file);
+        if (!Files.isRegularFile(meta)) {
+            return null;
+        }
+        Properties props = new Properties();
+        try (Reader r = Files.newBufferedReader(meta)) {
+            props.load(r);
+            return new DownloadMeta(props.getProperty("url"),
+                    Long.parseLong(props.getProperty("size")),
+                    props.getProperty("etag", ""),
+                    Instant.parse(props.getProperty("verifiedAt")));
+        } catch (IOException | RuntimeException e) {
+            LOGGER.info("+ mvg: ignoring unreadable download metadata {} ({})", meta, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * @param url  the url the cached file should come from
+     * @param size the current size of the cached file
+     * @param ttl  how long a verification stays valid (zero or negative means: always verify)
+     * @return true if the cached file was verified recently enough to use it without asking the server
+     */
+    public boolean isFresh(String url, long size, Duration ttl) {
+        return this.url.equals(url)
+                && this.size == size
+                && !ttl.isNegative() && !ttl.isZero()
+                && Instant.now().isBefore(verifiedAt.plus(ttl));
+    }
+
+    public void write(Path file) {
+        Path       meta  = metaFile(file);
+        Path       tmp   = meta.resolveSibling(meta.getFileName() + ".tmp");
+        Properties props = new Properties();
+        props.setProperty("url", url);
+        props.setProperty("size", Long.toString(size));
+        props.setProperty("etag", etag);
+        props.setProperty("verifiedAt", verifiedAt.toString());
+        try {
+            try (Writer w = Files.newBufferedWriter(tmp)) {
+                props.store(w, "download metadata of " + Info.PLUGIN_NAME);
+            }
+            Files.move(tmp, meta, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // without metadata the next build just verifies with the server again
+            LOGGER.info("+ mvg: could not write download metadata {} ({})", meta, e.getMessage());
+        }
+    }
+}
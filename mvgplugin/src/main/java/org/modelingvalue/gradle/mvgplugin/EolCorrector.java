@@ -32,8 +32,8 @@ import org.gradle.api.GradleException;
 public class EolCorrector extends TreeCorrector {
     private final MvgCorrectorExtension ext;
 
-    public EolCorrector(MvgCorrectorExtension ext) {
-        super("eols", ext.getRoot(), ext.getEolFileExcludes());
+    public EolCorrector(MvgCorrectorExtension ext, MvgMetrics metrics) {
+        super("eols", ext.getRoot(), ext.getEolFileExcludes(), metrics);
         this.ext = ext;
         if (LOGGER.isDebugEnabled()) {
             ext.getTextFileExtensions()/*  */.forEach(x -> LOGGER.debug("++ mvg: # eols   textExtensions  : " + x));
@@ -51,7 +51,7 @@ import org.eclipse.jgit.transport.UsernamePasswordCredentialsProvider;
 public class GitUtil {
     public final static  String              NO_CI_COMMIT_MARKER = "[no-ci]";
     private final static TextProgressMonitor PROGRESS_MONITOR    = new TextProgressMonitor();
-    private final static CredentialsProvider CREDENTIALS_PROV    = new UsernamePasswordCredentialsProvider(Info.ALLREP_TOKEN, "");
+    private final static CredentialsProvider CREDENTIALS_PROV    = new UsernamePasswordCredentialsProvider(Info.ALLREP_TOKEN.get(), "");
     private final static PersonIdent         AUTOMATION_IDENT    = new PersonIdent("automation", "automation@modelingvalue.org");
 
     //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -111,30 +111,30 @@ public class GitUtil {
         }
     }
 
-    public static void tag(Path root, String tag) {
+    public static void tag(MvgMetrics metrics, Path root, String tag) {
         Git git = GitManager.git(root);
         LOGGER.info("+ mvg-git:{}: adding tag '{}'", describe(git), tag);
-        try {
+        try (MvgMetrics.Span ignored = metrics.span("git.tag")) {
             Ref ref = git.tag()
                     .setName(tag)
                     .setForceUpdate(true)
                     .call();
-            push(git, true);
+            push(metrics, git, true);
             LOGGER.info("+ mvg-git:{}: added tag '{}' => {}", describe(git), tag, ref.getObjectId());
         } catch (GitAPIException e) {
             throw new GradleException("could not add tag " + tag + " to git " + describe(git), e);
         }
     }
 
-    public static void untag(Path root, String... tags) {
+    public static void untag(MvgMetrics metrics, Path root, String... tags) {
         Git git = GitManager.git(root);
         LOGGER.info("+ mvg-git:{}: deleting tags: {}", describe(git), Arrays.asList(tags));
-        try {
+        try (MvgMetrics.Span ignored = metrics.span("git.untag")) {
             List<String> l = git.tagDelete()
                     .setTags(tags)
                     .call();
             LOGGER.info("+ mvg-git:{}: deleted tags {} => result={}", describe(git), Arrays.asList(tags), l);
-            push(git, true);
+            push(metrics, git, true);
         } catch (GitAPIException e) {
             throw new GradleException("could not delete tag " + Arrays.asList(tags) + " from git " + describe(git), e);
         }
@@ -149,16 +149,16 @@ public class GitUtil {
         }
     }
 
-    public static void stageCommitPush(Path root, String message) {
-        stageCommitPush(root, message, null);
+    public static void stageCommitPush(MvgMetrics metrics, Path root, String message) {
+        stageCommitPush(metrics, root, message, null);
     }
 
-    public static void stageCommitPush(Path root, String message, Set<Path> changes) {
+    public static void stageCommitPush(MvgMetrics metrics, Path root, String message, Set<Path> changes) {
         Git git = GitManager.git(root);
-        try {
+        try (MvgMetrics.Span ignored = metrics.span("git.stageCommitPush")) {
             if (stage(git, changes)) {
                 commit(git, message);
-                push(git, false);
+                push(metrics, git, false);
             }
         } catch (GitAPIException | IOException e) {
             throw new GradleException("could not stage-commit-push on git " + describe(git), e);
@@ -251,19 +251,22 @@ public class GitUtil {
         LOGGER.info("+ mvg-git:{}: commit (result={})", describe(git), rc);
     }
 
-    public static void push(Git git, boolean tagsOnly) throws GitAPIException {
+    public static void push(MvgMetrics metrics, Git git, boolean tagsOnly) throws GitAPIException {
         StoredConfig config = git.getRepository().getConfig();
 
         if (config.getSubsections("remote").isEmpty()) {
             LOGGER.info("+ mvg-git:{}: NOT pushing, repo has no remotes", describe(git));
         } else {
             LOGGER.info("+ mvg-git:{}: pushing {}", describe(git), tagsOnly ? "tags only" : "branch");
-            Iterable<PushResult> result = (tagsOnly
-                    ? git.push().setRefSpecs(new RefSpec("refs/tags/*:refs/tags/*"))
-                    : git.push())
-                    .setCredentialsProvider(CREDENTIALS_PROV)
-                    .setProgressMonitor(PROGRESS_MONITOR)
-                    .call();
+            Iterable<PushResult> result;
+            try (MvgMetrics.Span ignored = metrics.span("git.push")) {
+                result = (tagsOnly
+                        ? git.push().setRefSpecs(new RefSpec("refs/tags/*:refs/tags/*"))
+                        : git.push())
+                        .setCredentialsProvider(CREDENTIALS_PROV)
+                        .setProgressMonitor(PROGRESS_MONITOR)
+                        .call();
+            }
             if (LOGGER.isInfoEnabled()) {
                 result.forEach(pr -> {
                     LOGGER.info("+ mvg-git:{}: push result  : {}", describe(git), pr.getMessages());
@@ -20,54 +20,114 @@
 
 package org.modelingvalue.gradle.mvgplugin;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
 
 import org.gradle.api.GradleException;
 
 public enum Hash {
-    MD5("MD5"),
-    SHA1("SHA1"),
-    SHA256("SHA-256"),
-    SHA512("SHA-512");
+    MD5("MD5", ".md5"),
+    SHA1("SHA1", ".sha1"),
+    SHA256("SHA-256", ".sha256"),
+    SHA512("SHA-512", ".sha512");
 
     private final String name;
+    private final String extension;
 
-    Hash(String name) {
+    Hash(String name, String extension) {
         this.name = name;
+        this.extension = extension;
     }
 
     public String getName() {
         return name;
     }
 
+    /**
+     * @return the extension of a maven checksum file for this hash (e.g. ".sha1")
+     */
+    public String getExtension() {
+        return extension;
+    }
+
+    public MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(name);
+        } catch (NoSuchAlgorithmException e) {
+            throw new GradleException("checksum algorithm missing: " + name, e);
+        }
+    }
+
     public String checksum(Path input) {
         if (!Files.isRegularFile(input)) {
             return "";
         }
-        try (InputStream in = Files.newInputStream(input)) {
-            MessageDigest digest = MessageDigest.getInstance(getName());
-            byte[]        block  = new byte[16 * 1024];
-            for (int length; (length = in.read(block)) > 0; ) {
-                digest.update(block, 0, length);
-            }
+        try {
+            MessageDigest digest = newDigest();
+            digest(input, digest);
             return bytesToHex(digest.digest());
         } catch (Exception e) {
             throw new GradleException("unexpected exception during " + name + " calculation of " + input, e);
         }
     }
 
-    private static final char[] HEX_ARRAY = "0123456789ABCDEF".toCharArray();
+    /**
+     * Calculate several hashes of a file in one read: every block read is fed to all digests.
+     *
+     * @param input  the file to hash
+     * @param hashes the hashes to calculate
+     * @return the lowercase hex of every requested hash (the format of maven checksum files)
+     * @throws IOException when the file can not be read
+     */
+    public static Map<Hash, String> checksums(Path input, Collection<Hash> hashes) throws IOException {
+        Map<Hash, MessageDigest> digests = new EnumMap<>(Hash.class);
+        hashes.forEach(h -> digests.put(h, h.newDigest()));
+        digest(input, digests.values().toArray(MessageDigest[]::new));
+        Map<Hash, String> checksums = new EnumMap<>(Hash.class);
+        digests.forEach((h, d) -> checksums.put(h, bytesToLowerHex(d.digest())));
+        return checksums;
+    }
+
+    /**
+     * stream a file through one or more digests, without ever having more than one block of it in memory.
+     */
+    public static void digest(Path input, MessageDigest... digests) throws IOException {
+        try (InputStream in = Files.newInputStream(input)) {
+            byte[] block = new byte[BLOCK_SIZE];
+            for (int length; (length = in.read(block)) > 0; ) {
+                for (MessageDigest digest : digests) {
+                    digest.update(block, 0, length);
+                }
+            }
+        }
+    }
+
+    private static final int    BLOCK_SIZE      = 16 * 1024;
+    private static final char[] HEX_ARRAY       = "0123456789ABCDEF".toCharArray();
+    private static final char[] LOWER_HEX_ARRAY = "0123456789abcdef".toCharArray();
 
     public static String bytesToHex(byte[] bytes) {
+        return bytesToHex(bytes, HEX_ARRAY);
+    }
+
+    public static String bytesToLowerHex(byte[] bytes) {
+        return bytesToHex(bytes, LOWER_HEX_ARRAY);
+    }
+
+    private static String bytesToHex(byte[] bytes, char[] hexArray) {
         char[] hexChars = new char[bytes.length * 2];
         for (int j = 0; j < bytes.length; j++) {
             int v = bytes[j] & 0xFF;
-            hexChars[j * 2] = HEX_ARRAY[v >>> 4];
-            hexChars[j * 2 + 1] = HEX_ARRAY[v & 0x0F];
+            hexChars[j * 2] = hexArray[v >>> 4];
+            hexChars[j * 2 + 1] = hexArray[v & 0x0F];
         }
         return new String(hexChars);
     }
-}
\ No newline at end of file
+}
@@ -38,8 +38,8 @@ public class HeaderCorrector extends TreeCorrector {
     private final List<String>              headerLines;
     private final Map<String, List<String>> ext2header = new HashMap<>();
 
-    public HeaderCorrector(MvgCorrectorExtension ext) {
-        super("header", ext.getRoot(), ext.getHeaderFileExcludes());
+    public HeaderCorrector(MvgCorrectorExtension ext, MvgHttp http) {
+        super("header", ext.getRoot(), ext.getHeaderFileExcludes(), http.metrics());
 
         extensions = ext.getHeaderFileExtensions();
         extensions.forEach((e, p) -> LOGGER.debug("++ mvg: # header extensions      : {} ({})", e, p));
@@ -47,7 +47,7 @@ public class HeaderCorrector extends TreeCorrector {
         URL headerUrl = ext.getHeaderUrl();
         LOGGER.info("+ mvg: header                 : {}", headerUrl);
 
-        List<String> raw = Util.download(headerUrl);
+        List<String> raw = Util.download(http, headerUrl);
         if (raw == null) {
             LOGGER.warn("+ mvg: headers are not updated because {} could not be read", headerUrl);
             headerLines = null;
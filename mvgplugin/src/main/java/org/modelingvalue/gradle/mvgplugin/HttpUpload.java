@@ -0,0 +1,207 @@
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+//  (C) Copyright 2018-2026 Modeling Value Group B.V. (http://modelingvalue.org)                                         ~
+//                                                                                                                       ~
+//  Licensed under the GNU Lesser General Public License v3.0 (the 'License'). You may not use this file except in       ~
+//  compliance with the License. You may obtain a copy of the License at: https://choosealicense.com/licenses/lgpl-3.0   ~
+//  Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on  ~
+//  an 'AS IS' BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the   ~
+//  specific language governing permissions and limitations under the License.                                           ~
+//                                                                                                                       ~
+//  Maintainers:                                                                                                         ~
+//      Wim Bast, Tom Brus                                                                                               ~
+//                                                                                                                       ~
+//  Contributors:                                                                                                        ~
+//      Ronald Krijgsheld ✝, Arjan Kok, Carel Bast                                                                       ~
+// --------------------------------------------------------------------------------------------------------------------- ~
+//  In Memory of Ronald Krijgsheld, 1972 - 2023                                                                          ~
+//      Ronald was suddenly and unexpectedly taken from us. He was not only our long-term colleague and team member      ~
+//      but also our friend. "He will live on in many of the lines of code you see below."                               ~
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+package org.modelingvalue.gradle.mvgplugin;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.modelingvalue.gradle.mvgplugin.Info.LOGGER;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublisher;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * uploads a (possibly huge) multipart body with retries and progress reporting.
+ * <p>
+ * The body is streamed from disk on every attempt, so a file is never held in memory.
+ * A multipart POST is not idempotent: when the server stored the upload but the answer got lost (read timeout, 502 from a proxy),
+ * a second POST would create a second upload (e.g. a second maven central deployment of the same version).
+ * Therefore only failures that certainly happened before the server accepted the body are retried with a {@link Backoff}:
+ * connect failures, 429 and 503 with a Retry-After header. All other answers are returned to the caller and all other
+ * exceptions are thrown. On top of that the caller can pass an {@link UploadCheck} that is asked before every retry whether
+ * the upload is already present at the server after all.
+ * Neither maven central nor the JetBrains marketplace offer a resumable upload, so a retry always starts from the first byte.
+ * <p>
+ * The timeout of a request runs until the response headers arrive, so it includes sending the body. The read timeout of
+ * {@link MvgHttp} is therefore widened by the time the body takes at {@value #MIN_BYTES_PER_SECOND} bytes per second.
+ */
+public class HttpUpload {
+    public static final  Backoff DEFAULT_BACKOFF       = new Backoff(4, 2_000, 60_000);
+    private static final int     PROGRESS_STEP_PERCENT = 10;
+    private static final String  RETRY_AFTER           = "Retry-After";
+    private static final long    MIN_BYTES_PER_SECOND  = 32 * 1024;
+
+    /**
+     * asks the server whether an earlier attempt did arrive after all, before the body is sent again.
+     */
+    @FunctionalInterface
+    public interface UploadCheck {
+        boolean isAlreadyUploaded() throws IOException;
+    }
+
+    private final MvgHttp http;
+    private final Backoff backoff;
+    private final String  what;
+
+    public HttpUpload(MvgHttp http, Backoff backoff, String what) {
+        this.http = http;
+        this.backoff = backoff;
+        this.what = what;
+    }
+
+    /**
+     * @param request   the request to post the body with (url and headers filled in)
+     * @param multipart the body to post
+     * @return the response of the last attempt
+     * @throws IOException when all attempts failed to get an answer from the server
+     */
+    public HttpResponse<String> post(HttpRequest.Builder request, MvgHttp.Multipart multipart) throws IOException {
+        return post(request, multipart, () -> false);
+    }
+
+    /**
+     * @param request   the request to post the body with (url and headers filled in)
+     * @param multipart the body to post
+     * @param check     asked before every retry, an upload that is already present is not sent again
+     * @return the response of the last attempt
+     * @throws IOException when all attempts failed to get an answer from the server or when a retry found the upload already present
+     */
+    public HttpResponse<String> post(HttpRequest.Builder request, MvgHttp.Multipart multipart, UploadCheck check) throws IOException {
+        for (int attempt = 1; ; attempt++) {
+            if (1 < attempt && check.isAlreadyUploaded()) {
+                throw new IOException("upload of " + what + " is already present at the server, not uploading it again");
+            }
+            long          t0        = System.currentTimeMillis();
+            AtomicLong    sent      = new AtomicLong();
+            BodyPublisher publisher = multipart.publisher();
+            HttpRequest   r         = request.copy()
+                    .timeout(http.readTimeout().plusSeconds(Math.max(0, publisher.contentLength()) / MIN_BYTES_PER_SECOND))
+                    .header("Content-Type", multipart.contentType())
+                    .POST(new ProgressPublisher(publisher, sent))
+                    .build();
+            String problem;
+            long   retryAfterMs = 0;
+            try {
+                HttpResponse<String> response = http.send(r, HttpResponse.BodyHandlers.ofString(UTF_8));
+                long ms = Math.max(1, System.currentTimeMillis() - t0);
+                LOGGER.info("+ mvg-upload: {}: sent {} bytes in {} ms ({} KB/s, attempt {}): HTTP {}", what, sent.get(), ms, sent.get() / ms, attempt, response.statusCode());
+                if (!isRetryable(response) || !backoff.mayRetry(attempt)) {
+                    return response;
+                }
+                retryAfterMs = retryAfterMs(response);
+                if (!backoff.mayWait(retryAfterMs)) {
+                    LOGGER.warn("+ mvg-upload: {}: server asks to wait {} ms, that is too long, giving up", what, retryAfterMs);
+                    return response;
+                }
+                problem = "HTTP " + response.statusCode();
+            } catch (InterruptedIOException e) {
+                throw e;
+            } catch (ConnectException | HttpConnectTimeoutException e) {
+                // nothing reached the server, so it is safe to send again:
+                if (!backoff.mayRetry(attempt)) {
+                    throw e;
+                }
+                problem = e.getClass().getSimpleName() + ":" + e.getMessage();
+            }
+            LOGGER.warn("+ mvg-upload: {}: upload failed after {} bytes ({}), retrying", what, sent.get(), problem);
+            try {
+                backoff.sleep(attempt, retryAfterMs, http.metrics());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw (IOException) new InterruptedIOException("interrupted while retrying upload of " + what).initCause(e);
+            }
+        }
+    }
+
+    // only answers that say the server did not take the upload (rate limited or explicitly unavailable for now):
+    private static boolean isRetryable(HttpResponse<?> response) {
+        int status = response.statusCode();
+        return status == 429 || (status == 503 && response.headers().firstValue(RETRY_AFTER).isPresent());
+    }
+
+    private static long retryAfterMs(HttpResponse<?> response) {
+        try {
+            return Long.parseLong(response.headers().firstValue(RETRY_AFTER).orElse("0").trim()) * 1000;
+        } catch (NumberFormatException e) {
+            return 0; // an http-date: the backoff will do
+        }
+    }
+
+    /**
+     * counts the bytes that go out and logs the progress every {@value #PROGRESS_STEP_PERCENT}%.
+     */
+    private class ProgressPublisher implements BodyPublisher {
+        private final BodyPublisher delegate;
+        private final AtomicLong    sent;
+
+        private ProgressPublisher(BodyPublisher delegate, AtomicLong sent) {
+            this.delegate = delegate;
+            this.sent = sent;
+        }
+
+        @Override
+        public long contentLength() {
+            return delegate.contentLength();
+        }
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+            long total = delegate.contentLength();
+            delegate.subscribe(new Flow.Subscriber<>() {
+                private int reportedPercent;
+
+                @Override
+                public void onSubscribe(Flow.Subscription subscription) {
+                    subscriber.onSubscribe(subscription);
+                }
+
+                @Override
+                public void onNext(ByteBuffer item) {
+                    long now = sent.addAndGet(item.remaining());
+                    if (0 < total) {
+                        int percent = (int) (now * 100 / total) / PROGRESS_STEP_PERCENT * PROGRESS_STEP_PERCENT;
+                        if (reportedPercent < percent) {
+                            reportedPercent = percent;
+                            LOGGER.info("+ mvg-upload: {}: {}% ({} of {} bytes)", what, percent, now, total);
+                        }
+                    }
+                    subscriber.onNext(item);
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                    subscriber.onError(throwable);
+                }
+
+                @Override
+                public void onComplete() {
+                    subscriber.onComplete();
+                }
+            });
+        }
+    }
+}
@@ -32,59 +32,60 @@ import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 
 public interface Info {
-    String       MODELING_VALUE_GROUP         = "ModelingValueGroup";
-    String       MVG                          = "mvg";
-    String       PLUGIN_PACKAGE_NAME          = MvgPlugin.class.getPackageName();
-    String       PLUGIN_CLASS_NAME            = MvgPlugin.class.getName();
-    String       PLUGIN_NAME                  = MvgPlugin.class.getSimpleName().toLowerCase(Locale.ROOT);
-    String       CORRECTOR_TASK_NAME          = MvgCorrector.class.getSimpleName().toLowerCase(Locale.ROOT);
-    String       UPLOADER_TASK_NAME           = MvgUploader.class.getSimpleName().toLowerCase(Locale.ROOT);
-    String       CENTRAL_TASK_NAME            = MvgCentralPublisher.class.getSimpleName().toLowerCase(Locale.ROOT);
-    String       TAG_TASK_NAME                = MvgTagger.class.getSimpleName().toLowerCase(Locale.ROOT);
-    String       MPS_TASK_NAME                = MvgMps.class.getSimpleName().toLowerCase(Locale.ROOT);
-    Logger       LOGGER                       = new TimedLogger(Logging.getLogger(PLUGIN_NAME));
-    String       GRADLE_PROPERTIES_FILE       = "gradle.properties";
-    String       PROP_NAME_VERSION            = "version";
-    String       PROP_NAME_GROUP              = "group";
-    String       PROP_NAME_VERSION_JAVA       = "version_java";
-    String       PROP_NAME_VERSION_MPS        = "version_mps";
-    String       PROP_NAME_ALLREP_TOKEN       = "ALLREP_TOKEN";
-    String       PROP_NAME_JETBRAINS_TOKEN    = "JETBRAINS_PUBLISH_TOKEN";
-    String       PROP_NAME_CENTRAL_USERNAME   = "CENTRAL_USERNAME";
-    String       PROP_NAME_CENTRAL_PASSWORD   = "CENTRAL_PASSWORD";
-    String       PROP_NAME_SIGNING_KEY        = "MVG_SIGNING_KEY";
-    String       PROP_NAME_SIGNING_PASSPHRASE = "MVG_SIGNING_PASSPHRASE";
-    String       PROP_NAME_GITHUB_WORKFLOW    = "GITHUB_WORKFLOW";
-    String       PROP_NAME_CI                 = "CI";
-    String       PROP_NAME_TESTING            = "TESTING";
+    String        MODELING_VALUE_GROUP         = "ModelingValueGroup";
+    String        MVG                          = "mvg";
+    String        PLUGIN_PACKAGE_NAME          = MvgPlugin.class.getPackageName();
+    String        PLUGIN_CLASS_NAME            = MvgPlugin.class.getName();
+    String        PLUGIN_NAME                  = MvgPlugin.class.getSimpleName().toLowerCase(Locale.ROOT);
+    String        CORRECTOR_TASK_NAME          = MvgCorrector.class.getSimpleName().toLowerCase(Locale.ROOT);
+    String        UPLOADER_TASK_NAME           = MvgUploader.class.getSimpleName().toLowerCase(Locale.ROOT);
+    String        CENTRAL_TASK_NAME            = MvgCentralPublisher.class.getSimpleName().toLowerCase(Locale.ROOT);
+    String        TAG_TASK_NAME                = MvgTagger.class.getSimpleName().toLowerCase(Locale.ROOT);
+    String        MPS_TASK_NAME                = MvgMps.class.getSimpleName().toLowerCase(Locale.ROOT);
+    Logger        LOGGER                       = new TimedLogger(Logging.getLogger(PLUGIN_NAME));
+    String        GRADLE_PROPERTIES_FILE       = "gradle.properties";
+    String        PROP_NAME_VERSION            = "version";
+    String        PROP_NAME_GROUP              = "group";
+    String        PROP_NAME_VERSION_JAVA       = "version_java";
+    String        PROP_NAME_VERSION_MPS        = "version_mps";
+    String        PROP_NAME_ALLREP_TOKEN       = "ALLREP_TOKEN";
+    String        PROP_NAME_JETBRAINS_TOKEN    = "JETBRAINS_PUBLISH_TOKEN";
+    String        PROP_NAME_CENTRAL_USERNAME   = "CENTRAL_USERNAME";
+    String        PROP_NAME_CENTRAL_PASSWORD   = "CENTRAL_PASSWORD";
+    String        PROP_NAME_SIGNING_KEY        = "MVG_SIGNING_KEY";
+    String        PROP_NAME_SIGNING_PASSPHRASE = "MVG_SIGNING_PASSPHRASE";
+    String        PROP_NAME_GITHUB_WORKFLOW    = "GITHUB_WORKFLOW";
+    String        PROP_NAME_CI                 = "CI";
+    String        PROP_NAME_TESTING            = "TESTING";
     //
-    String       NOW_STAMP                    = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyMMddHHmmss_nnnnnnnnn"));
+    Lazy<String>  NOW_STAMP                    = Lazy.of(() -> LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyMMddHHmmss_nnnnnnnnn")));
     //
-    boolean      CI                           = envOrPropBoolean(PROP_NAME_CI);
-    boolean      TESTING                      = envOrPropBoolean(PROP_NAME_TESTING);
-    String       ALLREP_TOKEN                 = envOrProp(PROP_NAME_ALLREP_TOKEN, "notset");
-    String       JETBRAINS_TOKEN              = envOrProp(PROP_NAME_JETBRAINS_TOKEN, "notset");
-    String       CENTRAL_USERNAME             = envOrProp(PROP_NAME_CENTRAL_USERNAME, null);
-    String       CENTRAL_PASSWORD             = envOrProp(PROP_NAME_CENTRAL_PASSWORD, null);
-    String       MVG_SIGNING_KEY              = envOrProp(PROP_NAME_SIGNING_KEY, null);
-    String       MVG_SIGNING_PASSPHRASE       = envOrProp(PROP_NAME_SIGNING_PASSPHRASE, null);
-    String       GITHUB_WORKFLOW              = envOrProp(PROP_NAME_GITHUB_WORKFLOW, null);
-    String       MASTER_BRANCH                = "master";
-    String       DEVELOP_BRANCH               = "develop";
-    String       DEFAULT_BRANCH               = "can-not-determine-branch";
-    String       GIT_CONFIG_FILE              = ".git/config";
-    String       GIT_HEAD_FILE                = ".git/HEAD";
-    String       GIT_HEAD_FILE_START          = "ref: refs/heads/";
-    String       NO_CI_GUARD                  = "!contains(github.event.head_commit.message, '[no-ci]')";
-    String       MIN_TEST_HEAP_SIZE           = "2g";
-    String       JAVA_VERSION                 = "21";
-    String       JUNIT_VERSION                = "6.1.2";
-    String       JUNIT_GROUP_ID               = "org.junit.jupiter";
-    List<String> JUNIT_IMPLEMENTATION_DEPS    = List.of(
+    // the environment is only consulted for the settings that are really used (see Lazy):
+    Lazy<Boolean> CI                           = Lazy.of(() -> envOrPropBoolean(PROP_NAME_CI));
+    Lazy<Boolean> TESTING                      = Lazy.of(() -> envOrPropBoolean(PROP_NAME_TESTING));
+    Lazy<String>  ALLREP_TOKEN                 = Lazy.of(() -> envOrProp(PROP_NAME_ALLREP_TOKEN, "notset"));
+    Lazy<String>  JETBRAINS_TOKEN              = Lazy.of(() -> envOrProp(PROP_NAME_JETBRAINS_TOKEN, "notset"));
+    Lazy<String>  CENTRAL_USERNAME             = Lazy.of(() -> envOrProp(PROP_NAME_CENTRAL_USERNAME, null));
+    Lazy<String>  CENTRAL_PASSWORD             = Lazy.of(() -> envOrProp(PROP_NAME_CENTRAL_PASSWORD, null));
+    Lazy<String>  MVG_SIGNING_KEY              = Lazy.of(() -> envOrProp(PROP_NAME_SIGNING_KEY, null));
+    Lazy<String>  MVG_SIGNING_PASSPHRASE       = Lazy.of(() -> envOrProp(PROP_NAME_SIGNING_PASSPHRASE, null));
+    Lazy<String>  GITHUB_WORKFLOW              = Lazy.of(() -> envOrProp(PROP_NAME_GITHUB_WORKFLOW, null));
+    String        MASTER_BRANCH                = "master";
+    String        DEVELOP_BRANCH               = "develop";
+    String        DEFAULT_BRANCH               = "can-not-determine-branch";
+    String        GIT_CONFIG_FILE              = ".git/config";
+    String        GIT_HEAD_FILE                = ".git/HEAD";
+    String        GIT_HEAD_FILE_START          = "ref: refs/heads/";
+    String        NO_CI_GUARD                  = "!contains(github.event.head_commit.message, '[no-ci]')";
+    String        MIN_TEST_HEAP_SIZE           = "2g";
+    String        JAVA_VERSION                 = "21";
+    String        JUNIT_VERSION                = "6.1.2";
+    String        JUNIT_GROUP_ID               = "org.junit.jupiter";
+    List<String>  JUNIT_IMPLEMENTATION_DEPS    = List.of(
             JUNIT_GROUP_ID + ":junit-jupiter-api:" + JUNIT_VERSION,
             JUNIT_GROUP_ID + ":junit-jupiter-params:" + JUNIT_VERSION
     );
-    List<String> JUNIT_RUNTIMEONLY_DEPS       = List.of(
+    List<String>  JUNIT_RUNTIMEONLY_DEPS       = List.of(
             JUNIT_GROUP_ID + ":junit-jupiter-engine:" + JUNIT_VERSION,
             "org.junit.platform:junit-platform-launcher"
     );
@@ -92,17 +93,17 @@ public interface Info {
     // https://plugins.gradle.org/m2/org/modelingvalue/gradle/mvgplugin/org.modelingvalue.gradle.mvgplugin.gradle.plugin/maven-metadata.xml
     // https://plugins.gradle.org/m2/__________________________________/__________________________________.gradle.plugin/maven-metadata.xml
     //
-    String       PLUGIN_META_URL              = "https://plugins.gradle.org/m2/" + MvgPlugin.class.getPackageName().replace('.', '/') + "/" + MvgPlugin.class.getPackageName() + ".gradle.plugin/maven-metadata.xml";
-    String       JETBRAINS_UPLOAD_URL         = "https://plugins.jetbrains.com/plugin/uploadPlugin";
-    String       CENTRAL_PUBLISHER_API_URL    = "https://central.sonatype.com/api/v1/publisher";
-    String       MVG_MAVEN_REPO_BASE_URL      = "https://maven.pkg.github.com/" + MODELING_VALUE_GROUP + "/";
-    String       MVG_REPO_BASE_URL            = "https://github.com/" + MODELING_VALUE_GROUP + "/";
-    String       PACKAGES_SNAPSHOTS_REPO_NAME = "packages-snapshots";
-    String       MVG_DEPENDENCIES_REPO_NAME   = "dependencies";
-    String       PACKAGES_SNAPSHOTS_REPO      = MVG_REPO_BASE_URL + PACKAGES_SNAPSHOTS_REPO_NAME + ".git";
-    String       MVG_DEPENDENCIES_REPO        = MVG_REPO_BASE_URL + MVG_DEPENDENCIES_REPO_NAME + ".git";
-    String       HOSTNAME                     = Util.getHostname();
-    boolean      IS_WINDOWS                   = Util.isWindows();
+    String        PLUGIN_META_URL              = "https://plugins.gradle.org/m2/" + MvgPlugin.class.getPackageName().replace('.', '/') + "/" + MvgPlugin.class.getPackageName() + ".gradle.plugin/maven-metadata.xml";
+    String        JETBRAINS_UPLOAD_URL         = "https://plugins.jetbrains.com/plugin/uploadPlugin";
+    String        CENTRAL_PUBLISHER_API_URL    = "https://central.sonatype.com/api/v1/publisher";
+    String        MVG_MAVEN_REPO_BASE_URL      = "https://maven.pkg.github.com/" + MODELING_VALUE_GROUP + "/";
+    String        MVG_REPO_BASE_URL            = "https://github.com/" + MODELING_VALUE_GROUP + "/";
+    String        PACKAGES_SNAPSHOTS_REPO_NAME = "packages-snapshots";
+    String        MVG_DEPENDENCIES_REPO_NAME   = "dependencies";
+    String        PACKAGES_SNAPSHOTS_REPO      = MVG_REPO_BASE_URL + PACKAGES_SNAPSHOTS_REPO_NAME + ".git";
+    String        MVG_DEPENDENCIES_REPO        = MVG_REPO_BASE_URL + MVG_DEPENDENCIES_REPO_NAME + ".git";
+    Lazy<String>  HOSTNAME                     = Lazy.of(Util::getHostname);
+    boolean       IS_WINDOWS                   = Util.isWindows();
 
 }
 
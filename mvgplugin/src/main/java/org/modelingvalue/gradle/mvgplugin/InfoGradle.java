@@ -80,7 +80,7 @@ public class InfoGradle {
     }
 
     public static boolean isMvgCI_orTesting() {
-        return (Info.CI && getMvgRepoName() != null) || Info.TESTING;
+        return (Info.CI.get() && getMvgRepoName() != null) || Info.TESTING.get();
     }
 
     public static boolean isMasterBranch() {
@@ -180,9 +180,9 @@ public class InfoGradle {
             mar.setName(name);
             mar.credentials(c -> {
                 c.setUsername("");
-                c.setPassword(Info.ALLREP_TOKEN);
+                c.setPassword(Info.ALLREP_TOKEN.get());
             });
-            LOGGER.info("+ mvg: REPOMAKER created maven repo: name={} url={} pw={}", name, url, Util.hide(Info.ALLREP_TOKEN));
+            LOGGER.info("+ mvg: REPOMAKER created maven repo: name={} url={} pw={}", name, url, Util.hide(Info.ALLREP_TOKEN.get()));
         };
     }
 }
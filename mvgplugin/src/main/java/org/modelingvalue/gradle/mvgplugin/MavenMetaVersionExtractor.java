@@ -20,11 +20,16 @@
 
 package org.modelingvalue.gradle.mvgplugin;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
 import java.util.HashSet;
 import java.util.Set;
 
-import javax.xml.parsers.SAXParserFactory;
-
 import org.xml.sax.Attributes;
 import org.xml.sax.helpers.DefaultHandler;
 
@@ -40,9 +45,18 @@ class MavenMetaVersionExtractor extends DefaultHandler {
     private              boolean       inVersion;
     private final        StringBuilder b                    = new StringBuilder();
 
-    public MavenMetaVersionExtractor(String url) {
+    /**
+     * @param client  the client to do the request with
+     * @param url     the url of the maven-metadata.xml
+     * @param timeout the maximum time the request may take
+     */
+    public MavenMetaVersionExtractor(HttpClient client, String url, Duration timeout) {
         try {
-            SAXParserFactory.newInstance().newSAXParser().parse(url, this);
+            HttpResponse<byte[]> response = client.send(HttpRequest.newBuilder(URI.create(url)).timeout(timeout).GET().build(), HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() < 200 || 300 <= response.statusCode()) {
+                throw new IOException("HTTP " + response.statusCode() + " for " + url);
+            }
+            SaxParsers.parse(new ByteArrayInputStream(response.body()), this);
         } catch (Exception e) {
             exception = e;
         }
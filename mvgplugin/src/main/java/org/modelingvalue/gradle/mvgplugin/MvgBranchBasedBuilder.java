@@ -76,6 +76,8 @@ public class MvgBranchBasedBuilder {
     public abstract static class BuildFinishService implements BuildService<BuildFinishService.Params>, OperationCompletionListener, AutoCloseable {
         public interface Params extends BuildServiceParameters {
             Property<String> getBuildDirPath();
+
+            Property<MvgHttp.Service> getHttpService();
         }
 
         private final    Set<String> dependenciesToSave = ConcurrentHashMap.newKeySet();
@@ -103,25 +105,26 @@ public class MvgBranchBasedBuilder {
                 LOGGER.info("+ mvg-bbb: skipping dependency repo update because the build failed");
                 return;
             }
-            DependenciesRepoManager dependencyRepoManager = new DependenciesRepoManager(Path.of(getParameters().getBuildDirPath().get()));
+            DependenciesRepoManager dependencyRepoManager = new DependenciesRepoManager(Path.of(getParameters().getBuildDirPath().get()), getParameters().getHttpService().get().getHttp());
             dependencyRepoManager.saveDependencies(dependenciesToSave);
             dependencyRepoManager.trigger(publications);
         }
     }
 
-    public MvgBranchBasedBuilder(Gradle gradle, BuildEventsListenerRegistry eventsListenerRegistry) {
+    public MvgBranchBasedBuilder(Gradle gradle, BuildEventsListenerRegistry eventsListenerRegistry, Provider<MvgHttp.Service> httpService) {
         this.gradle = gradle;
 
         isCI = isMvgCI_orTesting();
-        LOGGER.info("+ mvg-bbb: creating MvgBranchBasedBuilder (CI={} TEST|CI={} master={})", CI, isCI, isMasterBranch());
+        LOGGER.info("+ mvg-bbb: creating MvgBranchBasedBuilder (CI={} TEST|CI={} master={})", CI.get(), isCI, isMasterBranch());
         TRACE.report(gradle);
 
         buildFinishServiceProvider = gradle.getSharedServices().registerIfAbsent(
                 "mvgBuildFinish",
                 BuildFinishService.class,
-                spec -> spec.getParameters().getBuildDirPath().set(
-                        gradle.getRootProject().getLayout().getBuildDirectory().get().getAsFile().toPath().toString()
-                )
+                spec -> {
+                    spec.getParameters().getBuildDirPath().set(gradle.getRootProject().getLayout().getBuildDirectory().get().getAsFile().toPath().toString());
+                    spec.getParameters().getHttpService().set(httpService);
+                }
         );
 
         eventsListenerRegistry.onTaskCompletion(buildFinishServiceProvider);
@@ -287,7 +290,7 @@ public class MvgBranchBasedBuilder {
                 String sanatized = b.replaceFirst("@.*", "").replaceAll("\\W", "_");
                 String part      = sanatized.substring(0, Math.min(sanatized.length(), MAX_BRANCHNAME_PART_LENGTH));
                 if (forPublication) {
-                    return String.format("%s-%08x-%s%s", part, hash, Info.NOW_STAMP, SNAPSHOT_VERSION_POST);
+                    return String.format("%s-%08x-%s%s", part, hash, Info.NOW_STAMP.get(), SNAPSHOT_VERSION_POST);
                 } else {
                     return String.format("%s-%08x+", part, hash);
                 }
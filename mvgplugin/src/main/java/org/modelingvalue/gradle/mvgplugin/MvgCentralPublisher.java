@@ -33,69 +33,143 @@ import static org.modelingvalue.gradle.mvgplugin.InfoGradle.isMasterBranch;
 import static org.modelingvalue.gradle.mvgplugin.InfoGradle.isMvgCI_orTesting;
 
 import java.io.IOException;
-import java.io.OutputStream;
 import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipOutputStream;
 
-import org.apache.http.HttpResponse;
-import org.apache.http.client.HttpClient;
-import org.apache.http.client.methods.HttpPost;
-import org.apache.http.entity.mime.MultipartEntityBuilder;
-import org.apache.http.entity.mime.content.FileBody;
-import org.apache.http.impl.client.HttpClientBuilder;
-import org.apache.http.util.EntityUtils;
 import org.gradle.api.GradleException;
 import org.gradle.api.Project;
 import org.gradle.api.Task;
+import org.gradle.api.execution.TaskExecutionGraph;
 import org.gradle.api.invocation.Gradle;
+import org.gradle.api.provider.Property;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.publish.Publication;
 import org.gradle.api.publish.PublishingExtension;
+import org.gradle.api.publish.maven.MavenArtifact;
 import org.gradle.api.publish.maven.MavenPublication;
+import org.gradle.api.publish.maven.tasks.AbstractPublishToMaven;
+import org.gradle.api.publish.maven.tasks.PublishToMavenRepository;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
 import org.gradle.api.tasks.TaskProvider;
+import org.gradle.plugins.signing.Sign;
 import org.gradle.plugins.signing.SigningExtension;
-
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import org.gradle.plugins.signing.signatory.Signatory;
 
 public class MvgCentralPublisher {
     public static final String       CENTRAL_STAGING_REPO_NAME = "MvgCentralStaging";
     public static final String       CENTRAL_STAGING_DIR       = "central-staging";
     public static final String       CENTRAL_BUNDLE_FILE       = "central-bundle.zip";
+    public static final String       CENTRAL_SIGNATURES_DIR    = "central-signatures";
     public static final long         POLL_TIMEOUT_MS           = 15 * 60 * 1000;
-    public static final long         POLL_INTERVAL_MS          = 10 * 1000;
-    public static final List<String> CHECKSUM_EXTENSIONS       = List.of(".md5", ".sha1", ".sha256", ".sha512");
+    public static final String       AWAIT_SERVICE_NAME        = "mvgCentralAwait";
+
+    private final Gradle                    gradle;
+    private final Extension                 ext;
+    private final Path                      stagingDir;
+    private final Path                      bundleFile;
+    private final Path                      signaturesDir;
+    private final List<MavenPublication>    publications            = new ArrayList<>();
+    private final Set<Publication>          publishedOutsideStaging = new HashSet<>();
+    private final Provider<MvgHttp.Service> httpService;
+    private       Provider<AwaitService>    awaitServiceProvider;
+    private       SigningExtension          signing;
+
+    public abstract static class Extension {
+        public static Extension make(Gradle gradle) {
+            Extension ext = gradle.getRootProject().getExtensions().create(CENTRAL_TASK_NAME, Extension.class);
+            ext.getAwaitInBackground().convention(false);
+            return ext;
+        }
+
+        /**
+         * when true the upload task does not wait for maven central to validate the deployment,
+         * the wait is done in the background and the build only waits for it at its very end.
+         */
+        public abstract Property<Boolean> getAwaitInBackground();
+    }
+
+    /**
+     * waits for maven central deployments in the background; the build service is closed at the end of the build,
+     * and that is where we wait for all deployments and fail the build if one of them failed.
+     */
+    public abstract static class AwaitService implements BuildService<BuildServiceParameters.None>, AutoCloseable {
+        private final List<Thread>    waiters  = new ArrayList<>();
+        private final List<Throwable> failures = new ArrayList<>();
 
-    private final Gradle gradle;
-    private final Path   stagingDir;
-    private final Path   bundleFile;
+        public synchronized void await(DeploymentPoller poller, String deploymentId) {
+            Thread waiter = new Thread(() -> {
+                try {
+                    poller.awaitDone(deploymentId);
+                } catch (Throwable t) {
+                    LOGGER.error("+ mvg-central: deployment {} failed: {}", deploymentId, t.getMessage());
+                    synchronized (this) {
+                        failures.add(t);
+                    }
+                }
+            }, "mvg-central-await-" + deploymentId);
+            waiter.setDaemon(true);
+            waiter.start();
+            waiters.add(waiter);
+        }
 
-    public MvgCentralPublisher(Gradle gradle) {
+        @Override
+        public void close() throws InterruptedException {
+            List<Thread> toJoin;
+            synchronized (this) {
+                toJoin = List.copyOf(waiters);
+            }
+            if (!toJoin.isEmpty()) {
+                LOGGER.info("+ mvg-central: waiting for {} maven central deployment(s) to be validated", toJoin.size());
+            }
+            for (Thread waiter : toJoin) {
+                waiter.join();
+            }
+            synchronized (this) {
+                if (!failures.isEmpty()) {
+                    GradleException e = new GradleException("maven central deployment failed: " + failures.get(0).getMessage(), failures.get(0));
+                    failures.stream().skip(1).forEach(e::addSuppressed);
+                    throw e;
+                }
+            }
+        }
+    }
+
+    public MvgCentralPublisher(Gradle gradle, Provider<MvgHttp.Service> httpService) {
         this.gradle = gradle;
+        this.httpService = httpService;
+        this.ext = Extension.make(gradle);
         Path buildDir = gradle.getRootProject().getLayout().getBuildDirectory().get().getAsFile().toPath();
         stagingDir = buildDir.resolve(CENTRAL_STAGING_DIR);
         bundleFile = buildDir.resolve(CENTRAL_BUNDLE_FILE);
+        signaturesDir = buildDir.resolve(CENTRAL_SIGNATURES_DIR);
 
         boolean shouldPublish = isMvgCI_orTesting() && isMasterBranch();
-        boolean haveCreds     = CENTRAL_USERNAME != null && CENTRAL_PASSWORD != null && MVG_SIGNING_KEY != null && MVG_SIGNING_PASSPHRASE != null;
+        boolean haveCreds     = CENTRAL_USERNAME.get() != null && CENTRAL_PASSWORD.get() != null && MVG_SIGNING_KEY.get() != null && MVG_SIGNING_PASSPHRASE.get() != null;
         LOGGER.info("+ mvg-central: creating MvgCentralPublisher (CI={} master={} creds={})", isMvgCI_orTesting(), isMasterBranch(), haveCreds);
         if (shouldPublish && !haveCreds) {
             LOGGER.warn("+ mvg-central: maven central publishing SKIPPED, missing: {}", missingCredNames());
         }
         if (shouldPublish && haveCreds) {
-            deleteStagingDir(); // a stale tree from an earlier run would end up in the bundle and be rejected as duplicate
+            awaitServiceProvider = gradle.getSharedServices().registerIfAbsent(AWAIT_SERVICE_NAME, AwaitService.class, spec -> {});
+            setupSigning();
+            gradle.getTaskGraph().whenReady(this::collectPublishedOutsideStaging);
             TaskProvider<Task> centralTask = gradle.getRootProject().getTasks().register(CENTRAL_TASK_NAME, this::setup);
             gradle.afterProject(p -> {
                 PublishingExtension publishing = (PublishingExtension) p.getExtensions().findByName("publishing");
                 if (publishing != null && !publishing.getPublications().isEmpty()) {
+                    publishing.getPublications().withType(MavenPublication.class).all(publications::add);
                     signPublications(p, publishing);
                     completePoms(p, publishing);
                     addStagingRepo(publishing);
@@ -105,36 +179,46 @@ public class MvgCentralPublisher {
         }
     }
 
-    private void deleteStagingDir() {
-        if (Files.isDirectory(stagingDir)) {
-            LOGGER.info("+ mvg-central: deleting stale staging dir {}", stagingDir);
-            try (Stream<Path> stream = Files.walk(stagingDir)) {
-                stream.sorted(java.util.Comparator.reverseOrder()).forEach(f -> f.toFile().delete());
-            } catch (IOException e) {
-                throw new GradleException("can not delete staging dir " + stagingDir, e);
-            }
-        }
-    }
-
     private static String missingCredNames() {
         return Stream.of(
-                CENTRAL_USERNAME == null ? Info.PROP_NAME_CENTRAL_USERNAME : null,
-                CENTRAL_PASSWORD == null ? Info.PROP_NAME_CENTRAL_PASSWORD : null,
-                MVG_SIGNING_KEY == null ? Info.PROP_NAME_SIGNING_KEY : null,
-                MVG_SIGNING_PASSPHRASE == null ? Info.PROP_NAME_SIGNING_PASSPHRASE : null
+                CENTRAL_USERNAME.get() == null ? Info.PROP_NAME_CENTRAL_USERNAME : null,
+                CENTRAL_PASSWORD.get() == null ? Info.PROP_NAME_CENTRAL_PASSWORD : null,
+                MVG_SIGNING_KEY.get() == null ? Info.PROP_NAME_SIGNING_KEY : null,
+                MVG_SIGNING_PASSPHRASE.get() == null ? Info.PROP_NAME_SIGNING_PASSPHRASE : null
         ).filter(n -> n != null).collect(Collectors.joining(", "));
     }
 
+    // the signatory of the root project signs the staged artifacts of all projects in one go when the bundle is made
+    // (see CentralSigner)
+    private void setupSigning() {
+        Project root = gradle.getRootProject();
+        root.getPluginManager().apply("signing");
+        signing = root.getExtensions().getByType(SigningExtension.class);
+        signing.useInMemoryPgpKeys(MVG_SIGNING_KEY.get(), MVG_SIGNING_PASSPHRASE.get());
+    }
+
+    // publications stay signed for every other repo they are published to, but when a maven publication only goes to
+    // the staging repo its sign tasks are skipped (and its signatures not published) because CentralSigner does that job
     private void signPublications(Project p, PublishingExtension publishing) {
         p.getPluginManager().apply("signing");
-        SigningExtension signing = p.getExtensions().getByType(SigningExtension.class);
-        signing.useInMemoryPgpKeys(MVG_SIGNING_KEY, MVG_SIGNING_PASSPHRASE);
+        SigningExtension projectSigning = p.getExtensions().getByType(SigningExtension.class);
+        projectSigning.useInMemoryPgpKeys(MVG_SIGNING_KEY.get(), MVG_SIGNING_PASSPHRASE.get());
         publishing.getPublications().all(pub -> {
             LOGGER.info("+ mvg-central: signing publication {} of project {}", pub.getName(), p.getName());
-            signing.sign(pub);
+            List<Sign> signTasks = projectSigning.sign(pub);
+            if (pub instanceof MavenPublication) {
+                signTasks.forEach(t -> t.onlyIf("published outside " + CENTRAL_STAGING_REPO_NAME, x -> publishedOutsideStaging.contains(pub)));
+            }
         });
     }
 
+    private void collectPublishedOutsideStaging(TaskExecutionGraph graph) {
+        graph.getAllTasks().stream()
+                .filter(t -> t instanceof AbstractPublishToMaven)
+                .filter(t -> !(t instanceof PublishToMavenRepository publish && publish.getRepository().getName().equals(CENTRAL_STAGING_REPO_NAME)))
+                .forEach(t -> publishedOutsideStaging.add(((AbstractPublishToMaven) t).getPublication()));
+    }
+
     // maven central refuses poms without name/description/url/license/developers/scm, so complete them
     // here; name/description/url are conventions (a build script can override), the rest is fixed MVG info
     private void completePoms(Project p, PublishingExtension publishing) {
@@ -174,6 +258,8 @@ public class MvgCentralPublisher {
     private void setup(Task task) {
         task.setGroup(MODELING_VALUE_GROUP);
         task.setDescription("bundle the staged publications and upload them to maven central");
+        task.usesService(awaitServiceProvider);
+        task.usesService(httpService);
         task.doLast(s -> execute());
     }
 
@@ -188,75 +274,52 @@ public class MvgCentralPublisher {
             return;
         }
         try {
-            createBundle(stagingDir, bundleFile);
+            // a stale tree from an earlier run would end up in the bundle and be rejected as duplicate
+            CentralBundler.prune(stagingDir, producedArtifacts());
+            Signatory signatory = signing.getSignatory();
+            if (signatory == null) {
+                throw new GradleException("maven central publish failed: no signatory could be made from " + Info.PROP_NAME_SIGNING_KEY);
+            }
+            MvgHttp    http    = httpService.get().getHttp();
+            MvgMetrics metrics = http.metrics();
+            try (MvgMetrics.Span ignored = metrics.span("central.sign")) {
+                new CentralSigner(signatory, signaturesDir).signAll(stagingDir);
+            }
+            try (MvgMetrics.Span ignored = metrics.span("central.bundle")) {
+                createBundle(stagingDir, bundleFile);
+            }
             String deploymentName = gradle.getRootProject().getName() + "-" + gradle.getRootProject().getVersion();
-            String deploymentId   = upload(deploymentName, bundleFile);
-            pollUntilDone(deploymentId);
+            String deploymentId;
+            try (MvgMetrics.Span ignored = metrics.span("central.upload")) {
+                deploymentId = upload(http, deploymentName, bundleFile);
+            }
+            DeploymentPoller poller = new DeploymentPoller(http, CENTRAL_PUBLISHER_API_URL, authHeader(), DeploymentPoller.DEFAULT_SCHEDULE, POLL_TIMEOUT_MS);
+            if (ext.getAwaitInBackground().get()) {
+                LOGGER.info("+ mvg-central: deployment {} will be awaited in the background", deploymentId);
+                awaitServiceProvider.get().await(poller, deploymentId);
+            } else {
+                try (MvgMetrics.Span ignored = metrics.span("central.await")) {
+                    poller.awaitDone(deploymentId);
+                }
+            }
         } catch (IOException e) {
             throw new GradleException("maven central publish failed", e);
         }
     }
 
-    // zips the staged maven tree into a central-portal bundle: maven-metadata files are not part of a
-    // bundle, and every artifact needs md5+sha1 checksums (generated here when gradle did not write them)
+    // zips the staged maven tree into a central-portal bundle, see CentralBundler
     public static void createBundle(Path stagingDir, Path bundleFile) throws IOException {
-        List<Path> files;
-        try (Stream<Path> stream = Files.walk(stagingDir)) {
-            files = stream.filter(Files::isRegularFile)
-                    .filter(f -> !f.getFileName().toString().startsWith("maven-metadata"))
-                    .sorted()
-                    .collect(Collectors.toList());
-        }
-        for (Path f : List.copyOf(files)) {
-            if (isArtifact(f)) {
-                for (String algo : List.of("MD5", "SHA-1")) {
-                    Path checksumFile = f.resolveSibling(f.getFileName() + (algo.equals("MD5") ? ".md5" : ".sha1"));
-                    if (!Files.isRegularFile(checksumFile)) {
-                        Files.writeString(checksumFile, checksum(f, algo));
-                        files.add(checksumFile);
-                    }
-                }
-            }
-        }
-        Files.createDirectories(bundleFile.getParent());
-        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(bundleFile))) {
-            for (Path f : files.stream().sorted().collect(Collectors.toList())) {
-                zip.putNextEntry(new ZipEntry(stagingDir.relativize(f).toString().replace('\\', '/')));
-                Files.copy(f, zip);
-                zip.closeEntry();
-            }
-        }
-        LOGGER.info("+ mvg-central: created bundle {} with {} files", bundleFile, files.size());
+        new CentralBundler(stagingDir, bundleFile).create();
     }
 
-    private static boolean isArtifact(Path f) {
-        String name = f.getFileName().toString();
-        return !name.endsWith(".asc") && CHECKSUM_EXTENSIONS.stream().noneMatch(name::endsWith);
-    }
+    private String upload(MvgHttp http, String deploymentName, Path bundle) throws IOException {
+        String              url       = CENTRAL_PUBLISHER_API_URL + "/upload?publishingType=AUTOMATIC&name=" + URLEncoder.encode(deploymentName, StandardCharsets.UTF_8);
+        HttpRequest.Builder request   = http.request(url).header("Authorization", authHeader());
+        MvgHttp.Multipart   multipart = new MvgHttp.Multipart().addFile("bundle", bundle);
 
-    public static String checksum(Path f, String algo) throws IOException {
-        try {
-            MessageDigest digest = MessageDigest.getInstance(algo);
-            digest.update(Files.readAllBytes(f));
-            StringBuilder b = new StringBuilder();
-            for (byte x : digest.digest()) {
-                b.append(String.format("%02x", x));
-            }
-            return b.toString();
-        } catch (NoSuchAlgorithmException e) {
-            throw new IOException("checksum algorithm missing: " + algo, e);
-        }
-    }
-
-    private String upload(String deploymentName, Path bundle) throws IOException {
-        String   url      = CENTRAL_PUBLISHER_API_URL + "/upload?publishingType=AUTOMATIC&name=" + URLEncoder.encode(deploymentName, StandardCharsets.UTF_8);
-        HttpPost request  = new HttpPost(url);
-        request.setHeader("Authorization", authHeader());
-        request.setEntity(MultipartEntityBuilder.create().addPart("bundle", new FileBody(bundle.toFile())).build());
-
-        HttpResponse response = httpClient().execute(request);
-        int          status   = response.getStatusLine().getStatusCode();
-        String       answer   = EntityUtils.toString(response.getEntity()).trim();
+        HttpResponse<String> response = new HttpUpload(http, HttpUpload.DEFAULT_BACKOFF, "central bundle " + deploymentName).post(request, multipart, () -> isAlreadyAtCentral(http));
+        int                  status   = response.statusCode();
+        String               answer   = response.body().trim();
         LOGGER.info("+ mvg-central: bundle upload of {} returned: HTTP {} {}", deploymentName, status, answer);
         if (status < 200 || 300 <= status) {
             throw new GradleException("maven central bundle upload failed (HTTP " + status + "): " + answer);
@@ -264,42 +327,40 @@ public class MvgCentralPublisher {
         return answer;
     }
 
-    private void pollUntilDone(String deploymentId) throws IOException {
-        long deadline = System.currentTimeMillis() + POLL_TIMEOUT_MS;
-        while (System.currentTimeMillis() < deadline) {
-            HttpPost request = new HttpPost(CENTRAL_PUBLISHER_API_URL + "/status?id=" + URLEncoder.encode(deploymentId, StandardCharsets.UTF_8));
-            request.setHeader("Authorization", authHeader());
-            HttpResponse response = httpClient().execute(request);
-            int          status   = response.getStatusLine().getStatusCode();
-            String       answer   = EntityUtils.toString(response.getEntity());
-            if (status < 200 || 300 <= status) {
-                throw new GradleException("maven central status check failed (HTTP " + status + "): " + answer);
-            }
-            JsonNode json  = new ObjectMapper().readTree(answer);
-            String   state = json.path("deploymentState").asText();
-            LOGGER.info("+ mvg-central: deployment {} state: {}", deploymentId, state);
-            if (state.equals("PUBLISHING") || state.equals("PUBLISHED")) {
-                LOGGER.info("+ mvg-central: deployment {} accepted by maven central", deploymentId);
-                return;
-            }
-            if (state.equals("FAILED")) {
-                throw new GradleException("maven central rejected the deployment: " + json.path("errors").toString());
-            }
-            try {
-                Thread.sleep(POLL_INTERVAL_MS);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                throw new GradleException("interrupted while waiting for maven central validation", e);
+    // the files the publications write in the staging dir, next to their checksums and signatures
+    // (the gradle module metadata is expected for every publication: an expected file that is not there is harmless)
+    private Set<Path> producedArtifacts() {
+        Set<Path> artifacts = new HashSet<>();
+        for (MavenPublication pub : publications) {
+            Path   dir  = Path.of(pub.getGroupId().replace('.', '/'), pub.getArtifactId(), pub.getVersion());
+            String base = pub.getArtifactId() + "-" + pub.getVersion();
+            artifacts.add(dir.resolve(base + ".pom"));
+            artifacts.add(dir.resolve(base + ".module"));
+            for (MavenArtifact a : pub.getArtifacts()) {
+                String classifier = a.getClassifier() == null || a.getClassifier().isEmpty() ? "" : "-" + a.getClassifier();
+                artifacts.add(dir.resolve(base + classifier + "." + a.getExtension()));
             }
         }
-        throw new GradleException("maven central validation timed out for deployment " + deploymentId);
+        return artifacts;
     }
 
-    private static String authHeader() {
-        return "Bearer " + Base64.getEncoder().encodeToString((CENTRAL_USERNAME + ":" + CENTRAL_PASSWORD).getBytes(StandardCharsets.UTF_8));
+    // asked before an upload is retried: a bundle that did arrive must not be deployed a second time
+    // (the portal api only tells about published components, so the versions of all publications are asked for)
+    private boolean isAlreadyAtCentral(MvgHttp http) throws IOException {
+        for (MavenPublication pub : publications) {
+            String url = CENTRAL_PUBLISHER_API_URL + "/published?namespace=" + URLEncoder.encode(pub.getGroupId(), StandardCharsets.UTF_8)
+                    + "&name=" + URLEncoder.encode(pub.getArtifactId(), StandardCharsets.UTF_8)
+                    + "&version=" + URLEncoder.encode(pub.getVersion(), StandardCharsets.UTF_8);
+            HttpResponse<String> response = http.send(http.request(url).header("Authorization", authHeader()).GET().build(), HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+            if (response.statusCode() == 200 && response.body().matches("(?s).*\"published\"\\s*:\\s*true.*")) {
+                LOGGER.warn("+ mvg-central: {}:{}:{} is already known at maven central", pub.getGroupId(), pub.getArtifactId(), pub.getVersion());
+                return true;
+            }
+        }
+        return false;
     }
 
-    private static HttpClient httpClient() {
-        return HttpClientBuilder.create().build();
+    private static String authHeader() {
+        return "Bearer " + Base64.getEncoder().encodeToString((CENTRAL_USERNAME.get() + ":" + CENTRAL_PASSWORD.get()).getBytes(StandardCharsets.UTF_8));
     }
 }
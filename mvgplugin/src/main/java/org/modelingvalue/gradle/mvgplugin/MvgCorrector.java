@@ -32,18 +32,20 @@ import java.nio.file.Path;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.regex.Pattern;
-import java.util.stream.Stream;
 
 import org.gradle.api.GradleException;
 import org.gradle.api.Task;
 import org.gradle.api.invocation.Gradle;
 import org.gradle.api.plugins.HelpTasksPlugin;
+import org.gradle.api.provider.Provider;
 import org.gradle.api.tasks.TaskProvider;
 import org.gradle.language.base.plugins.LifecycleBasePlugin;
 
 class MvgCorrector {
-    private static final List<Pattern> NOT_BEFORE_PATTERNS = Stream.of(
+    // tasks that I should not be before, all names in one precompiled pattern:
+    private static final Pattern NOT_BEFORE_NAMES  = Pattern.compile("^(?i)(" + String.join("|",
             ".*jar",
             ".*kotlin.*",
             "buildEnvironment",
@@ -65,13 +67,23 @@ class MvgCorrector {
             "test",
             "wrapper",
             quote(LifecycleBasePlugin.CLEAN_TASK_NAME) + ".*"
-    ).map(s -> Pattern.compile("^(?i)" + s + "$")).toList();
-
-    private final MvgCorrectorExtension ext;
-    private final VersionCorrector     versionCorrector;
-
-    public MvgCorrector(Gradle gradle) {
+    ) + ")$");
+    // task groups that I should not be before:
+    private static final Pattern NOT_BEFORE_GROUPS = Pattern.compile("^(?i)(" + String.join("|",
+            quote(HelpTasksPlugin.HELP_GROUP),
+            "build setup",
+            "gradle enterprise"
+    ) + ")$");
+
+    private final MvgCorrectorExtension        ext;
+    private final VersionCorrector             versionCorrector;
+    private final Provider<MvgHttp.Service>    httpService;
+    private final Provider<MvgMetrics.Service> metricsService;
+
+    public MvgCorrector(Gradle gradle, Provider<MvgHttp.Service> httpService, Provider<MvgMetrics.Service> metricsService) {
         ext = MvgCorrectorExtension.make(gradle);
+        this.httpService = httpService;
+        this.metricsService = metricsService;
 
         // Compute and apply version at configuration time so that Gradle's configuration
         // resolution (which freezes artifact file paths) sees the correct version.
@@ -83,48 +95,57 @@ class MvgCorrector {
         TaskProvider<Task> tp = gradle.getRootProject().getTasks().register(CORRECTOR_TASK_NAME, this::setup);
 
         // let all tasks depend on me...
-        gradle.allprojects(p -> p.getTasks().configureEach(t -> {
-            String name  = t.getName();
-            String group = "" + t.getGroup(); // may return null
-            LOGGER.debug("++ mvg: checking if task '{}' should be before '{}' (group '{}'", tp.getName(), name, group);
-            if (!name.equals(tp.getName())                                                  // ... not myself (duh)
-                    && isANotBeforeTask(name)                                               // ... not a task that needs to be excluded
-                    && !group.matches("(?i)" + quote(HelpTasksPlugin.HELP_GROUP))     // ... not the help group tasks
-                    && !group.matches("(?i)build setup")                              // ... not the build setup group tasks
-                    && !group.matches("(?i)gradle enterprise")                        // ... not the gradle enterprise group tasks
-            ) {
-                LOGGER.info("+ mvg: adding task dependency: {} before {} (group {})", tp.getName(), name, t.getGroup());
-                t.dependsOn(tp);
+        //   - the name filter runs on the names only, so no task is realised for it
+        //   - the group is only known when the task graph is built, so it is checked then (lazily)
+        String myName = tp.getName();
+        gradle.allprojects(p -> p.getTasks().named(name -> !name.equals(myName) && isANotBeforeTask(name)).configureEach(t -> t.dependsOn((Callable<Object>) () -> {
+            String group = t.getGroup();
+            if (group != null && NOT_BEFORE_GROUPS.matcher(group).matches()) {
+                LOGGER.debug("++ mvg: not adding task dependency: {} before {} (group {})", myName, t.getName(), group);
+                return List.of();
             }
-        }));
+            LOGGER.info("+ mvg: adding task dependency: {} before {} (group {})", myName, t.getName(), group);
+            return tp;
+        })));
     }
 
-    private boolean isANotBeforeTask(String name) {
-        return NOT_BEFORE_PATTERNS.stream().noneMatch(pat -> pat.matcher(name).matches());
+    private static boolean isANotBeforeTask(String name) {
+        return !NOT_BEFORE_NAMES.matcher(name).matches();
     }
 
     private void setup(Task task) {
         task.setGroup(MODELING_VALUE_GROUP);
         task.setDescription("correct various sources (version, headers, eols) and push to git");
+        task.usesService(httpService);
+        task.usesService(metricsService);
         task.doLast(s -> execute());
     }
 
     private void execute() {
         LOGGER.info("+ mvg: execute {} task", CORRECTOR_TASK_NAME);
         try {
-            Set<Path> changes = new HashSet<>();
+            Set<Path>  changes = new HashSet<>();
+            MvgMetrics metrics = metricsService.get().getMetrics();
 
             if (doCorrector(ext.getForceDependabotCorrection().get(), "Dependabot file")) {
-                changes.addAll(new DependabotCorrector(ext).generate().getChangedFiles());
+                try (MvgMetrics.Span ignored = metrics.span("corrector.dependabot")) {
+                    changes.addAll(new DependabotCorrector(ext, metrics).generate().getChangedFiles());
+                }
             }
             if (doCorrector(ext.getForceBashCorrection().get(), "with bash scripts")) {
-                changes.addAll(new BashCorrector(ext).generate().getChangedFiles());
+                try (MvgMetrics.Span ignored = metrics.span("corrector.bash")) {
+                    changes.addAll(new BashCorrector(ext, metrics).generate().getChangedFiles());
+                }
             }
             if (doCorrector(ext.getForceEolCorrection().get(), "EOLs")) {
-                changes.addAll(new EolCorrector(ext).generate().getChangedFiles());
+                try (MvgMetrics.Span ignored = metrics.span("corrector.eol")) {
+                    changes.addAll(new EolCorrector(ext, metrics).generate().getChangedFiles());
+                }
             }
             if (doCorrector(ext.getForceHeaderCorrection().get(), "headers")) {
-                changes.addAll(new HeaderCorrector(ext).generate().getChangedFiles());
+                try (MvgMetrics.Span ignored = metrics.span("corrector.header")) {
+                    changes.addAll(new HeaderCorrector(ext, httpService.get().getHttp()).generate().getChangedFiles());
+                }
             }
             // version is computed and set at configuration time by versionCorrector.computeAndSetVersion()
             // and tagged after publishing by mvgtagger — no file changes needed here
@@ -137,14 +158,14 @@ class MvgCorrector {
             LOGGER.info("+ mvg: changed {} files", changes.size());
 
             if (!changes.isEmpty() && isMvgCI_orTesting()) {
-                if (Info.CI && !Info.TESTING && InfoGradle.isMasterBranch()) {
+                if (Info.CI.get() && !Info.TESTING.get() && InfoGradle.isMasterBranch()) {
                     Path firstFile = changes.iterator().next();
                     String diff = GitUtil.diff(ext.getRoot(), firstFile);
                     throw new GradleException("master branch has " + changes.size() + " file(s) that need corrections: " + changes
                             + ". Fix these on a development branch before merging to master.\n\nDiff of " + firstFile + ":\n" + diff);
                 }
-                if (ALLREP_TOKEN != null) {
-                    GitUtil.stageCommitPush(ext.getRoot(), GitUtil.NO_CI_COMMIT_MARKER + " updated by mvgplugin", changes);
+                if (ALLREP_TOKEN.get() != null) {
+                    GitUtil.stageCommitPush(metrics, ext.getRoot(), GitUtil.NO_CI_COMMIT_MARKER + " updated by mvgplugin", changes);
                 }
             }
         } catch (IOException e) {
@@ -153,9 +174,9 @@ class MvgCorrector {
     }
 
     private boolean doCorrector(boolean force, String name) {
-        boolean b = Info.CI || force;
+        boolean b = Info.CI.get() || force;
         if (!b) {
-            LOGGER.info("+ mvg: NOT correcting {} (CI={}, force={})", name, Info.CI, force);
+            LOGGER.info("+ mvg: NOT correcting {} (CI={}, force={})", name, Info.CI.get(), force);
         }
         return b;
     }
@@ -0,0 +1,232 @@
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+//  (C) Copyright 2018-2026 Modeling Value Group B.V. (http://modelingvalue.org)                                         ~
+//                                                                                                                       ~
+//  Licensed under the GNU Lesser General Public License v3.0 (the 'License'). You may not use this file except in       ~
+//  compliance with the License. You may obtain a copy of the License at: https://choosealicense.com/licenses/lgpl-3.0   ~
+//  Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on  ~
+//  an 'AS IS' BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the   ~
+//  specific language governing permissions and limitations under the License.                                           ~
+//                                                                                                                       ~
+//  Maintainers:                                                                                                         ~
+//      Wim Bast, Tom Brus                                                                                               ~
+//                                                                                                                       ~
+//  Contributors:                                                                                                        ~
+//      Ronald Krijgsheld ✝, Arjan Kok, Carel Bast                                                                       ~
+// --------------------------------------------------------------------------------------------------------------------- ~
+//  In Memory of Ronald Krijgsheld, 1972 - 2023                                                                          ~
+//      Ronald was suddenly and unexpectedly taken from us. He was not only our long-term colleague and team member      ~
+//      but also our friend. "He will live on in many of the lines of code you see below."                               ~
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+package org.modelingvalue.gradle.mvgplugin;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.modelingvalue.gradle.mvgplugin.Info.LOGGER;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublisher;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandler;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.gradle.api.invocation.Gradle;
+import org.gradle.api.provider.Property;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+
+/**
+ * the one http layer for all network traffic of the plugin.
+ * <p>
+ * All calls go over one {@link HttpClient} so connections (and their TLS sessions) to the same host are pooled and kept alive
+ * for the whole build. The client lives in a shared {@link Service} so it is closed, and its metrics are logged, at the end of the build.
+ * There is no global lookup: the tasks that use the network declare the service ({@link org.gradle.api.Task#usesService})
+ * and hand the {@link MvgHttp} of the service to the code that does the calls. Outside a gradle build (e.g. in tests)
+ * an {@link MvgHttp} is just constructed.
+ */
+public class MvgHttp {
+    public static final  int                      DEFAULT_CONNECT_TIMEOUT_SECONDS = 10;
+    public static final  int                      DEFAULT_READ_TIMEOUT_SECONDS    = 60;
+    private static final String                   SERVICE_NAME                    = "mvgHttp";
+    //
+    private final        HttpClient               client;
+    private final        Duration                 readTimeout;
+    private final        Map<String, HostMetrics> metrics                         = new TreeMap<>();
+    private final        MvgMetrics               buildMetrics;
+
+    public abstract static class Service implements BuildService<Service.Params>, AutoCloseable {
+        public interface Params extends BuildServiceParameters {
+            Property<Integer> getConnectTimeoutSeconds();
+
+            Property<Integer> getReadTimeoutSeconds();
+
+            Property<MvgMetrics.Service> getMetricsService();
+        }
+
+        private MvgHttp http;
+
+        public synchronized MvgHttp getHttp() {
+            if (http == null) {
+                http = new MvgHttp(Duration.ofSeconds(getParameters().getConnectTimeoutSeconds().get()), Duration.ofSeconds(getParameters().getReadTimeoutSeconds().get()), getParameters().getMetricsService().get().getMetrics());
+            }
+            return http;
+        }
+
+        @Override
+        public synchronized void close() {
+            if (http != null) {
+                http.logMetrics();
+                http.client.shutdown();
+                http = null;
+            }
+        }
+    }
+
+    private static class HostMetrics {
+        private final AtomicLong requests = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private final AtomicLong millis   = new AtomicLong();
+    }
+
+    /**
+     * @return the provider of the http service of this build, to be declared by the tasks that use it
+     */
+    public static Provider<Service> register(Gradle gradle, MvgPlugin.Extension ext, Provider<MvgMetrics.Service> metricsService) {
+        return gradle.getSharedServices().registerIfAbsent(SERVICE_NAME, Service.class, spec -> {
+            spec.getParameters().getConnectTimeoutSeconds().set(ext.getHttpConnectTimeoutSeconds());
+            spec.getParameters().getReadTimeoutSeconds().set(ext.getHttpReadTimeoutSeconds());
+            spec.getParameters().getMetricsService().set(metricsService);
+        });
+    }
+
+    public MvgHttp(Duration connectTimeout, Duration readTimeout) {
+        this(connectTimeout, readTimeout, new MvgMetrics());
+    }
+
+    public MvgHttp(Duration connectTimeout, Duration readTimeout, MvgMetrics buildMetrics) {
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(connectTimeout)
+                .build();
+        this.readTimeout = readTimeout;
+        this.buildMetrics = buildMetrics;
+    }
+
+    public HttpClient client() {
+        return client;
+    }
+
+    /**
+     * @return the build metrics the calls of this http layer are counted in
+     */
+    public MvgMetrics metrics() {
+        return buildMetrics;
+    }
+
+    /**
+     * @return the time a request may take until the response headers arrive, sending the body included
+     */
+    public Duration readTimeout() {
+        return readTimeout;
+    }
+
+    /**
+     * @param url the url to address
+     * @return a request builder with the read timeout of this http layer already filled in
+     * (an {@link HttpUpload} widens it to the size of the body it sends)
+     */
+    public HttpRequest.Builder request(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).timeout(readTimeout);
+    }
+
+    /**
+     * Send a request and keep the metrics for it.
+     * An interrupt is turned into an {@link InterruptedIOException} so callers only have to deal with {@link IOException}.
+     */
+    public <T> HttpResponse<T> send(HttpRequest request, BodyHandler<T> handler) throws IOException {
+        HostMetrics m  = metricsFor(request.uri());
+        long        t0 = System.currentTimeMillis();
+        m.requests.incrementAndGet();
+        buildMetrics.count(MvgMetrics.HTTP_CALLS);
+        try {
+            HttpResponse<T> response = client.send(request, handler);
+            if (400 <= response.statusCode()) {
+                m.failures.incrementAndGet();
+                buildMetrics.count(MvgMetrics.HTTP_FAILURES);
+            }
+            return response;
+        } catch (IOException e) {
+            m.failures.incrementAndGet();
+            buildMetrics.count(MvgMetrics.HTTP_FAILURES);
+            throw e;
+        } catch (InterruptedException e) {
+            m.failures.incrementAndGet();
+            buildMetrics.count(MvgMetrics.HTTP_FAILURES);
+            Thread.currentThread().interrupt();
+            throw (IOException) new InterruptedIOException("interrupted while waiting for " + request.uri()).initCause(e);
+        } finally {
+            m.millis.addAndGet(System.currentTimeMillis() - t0);
+        }
+    }
+
+    public HttpResponse<String> getString(String url) throws IOException {
+        return send(request(url).GET().build(), HttpResponse.BodyHandlers.ofString(UTF_8));
+    }
+
+    private synchronized HostMetrics metricsFor(URI uri) {
+        return metrics.computeIfAbsent(uri.getHost(), h -> new HostMetrics());
+    }
+
+    public synchronized void logMetrics() {
+        metrics.forEach((host, m) -> LOGGER.info("+ mvg-http: {}: {} requests, {} failed, {} ms", host, m.requests.get(), m.failures.get(), m.millis.get()));
+    }
+
+    /**
+     * a multipart/form-data body that streams its file parts from disk instead of loading them in memory.
+     */
+    public static class Multipart {
+        private final String              boundary = "mvg-" + UUID.randomUUID();
+        private final List<BodyPublisher> parts    = new ArrayList<>();
+
+        public Multipart addText(String name, String value) {
+            parts.add(BodyPublishers.ofString("--" + boundary + "\r\n"
+                    + "Content-Disposition: form-data; name=\"" + name + "\"\r\n"
+                    + "Content-Type: text/plain; charset=UTF-8\r\n\r\n"
+                    + value + "\r\n", UTF_8));
+            return this;
+        }
+
+        public Multipart addFile(String name, Path file) throws FileNotFoundException {
+            parts.add(BodyPublishers.ofString("--" + boundary + "\r\n"
+                    + "Content-Disposition: form-data; name=\"" + name + "\"; filename=\"" + file.getFileName() + "\"\r\n"
+                    + "Content-Type: application/octet-stream\r\n\r\n", UTF_8));
+            parts.add(BodyPublishers.ofFile(file));
+            parts.add(BodyPublishers.ofString("\r\n", UTF_8));
+            return this;
+        }
+
+        public String contentType() {
+            return "multipart/form-data; boundary=" + boundary;
+        }
+
+        public BodyPublisher publisher() {
+            List<BodyPublisher> all = new ArrayList<>(parts);
+            all.add(BodyPublishers.ofString("--" + boundary + "--\r\n", UTF_8));
+            return BodyPublishers.concat(all.toArray(BodyPublisher[]::new));
+        }
+    }
+}
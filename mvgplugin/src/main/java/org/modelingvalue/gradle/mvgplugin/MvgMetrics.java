@@ -0,0 +1,185 @@
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+//  (C) Copyright 2018-2026 Modeling Value Group B.V. (http://modelingvalue.org)                                         ~
+//                                                                                                                       ~
+//  Licensed under the GNU Lesser General Public License v3.0 (the 'License'). You may not use this file except in       ~
+//  compliance with the License. You may obtain a copy of the License at: https://choosealicense.com/licenses/lgpl-3.0   ~
+//  Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on  ~
+//  an 'AS IS' BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the   ~
+//  specific language governing permissions and limitations under the License.                                           ~
+//                                                                                                                       ~
+//  Maintainers:                                                                                                         ~
+//      Wim Bast, Tom Brus                                                                                               ~
+//                                                                                                                       ~
+//  Contributors:                                                                                                        ~
+//      Ronald Krijgsheld ✝, Arjan Kok, Carel Bast                                                                       ~
+// --------------------------------------------------------------------------------------------------------------------- ~
+//  In Memory of Ronald Krijgsheld, 1972 - 2023                                                                          ~
+//      Ronald was suddenly and unexpectedly taken from us. He was not only our long-term colleague and team member      ~
+//      but also our friend. "He will live on in many of the lines of code you see below."                               ~
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+package org.modelingvalue.gradle.mvgplugin;
+
+import static org.modelingvalue.gradle.mvgplugin.Info.LOGGER;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.gradle.api.invocation.Gradle;
+import org.gradle.api.provider.Property;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * build scoped timing (named spans) and counters of the work this plugin does.
+ * <p>
+ * At the end of the build a report is written to {@value #REPORT_FILE_NAME} in the build dir of the root project,
+ * so the time spent per phase can be compared from run to run.
+ * The tasks that measure declare the {@link Service} and hand its instance to the code doing the work;
+ * outside a gradle build (e.g. in tests) an instance is just constructed and never reported.
+ */
+public class MvgMetrics {
+    public static final  String                  REPORT_FILE_NAME = "mvg-metrics.json";
+    //
+    public static final  String                  FILES_SCANNED    = "files.scanned";
+    public static final  String                  FILES_REWRITTEN  = "files.rewritten";
+    public static final  String                  BYTES_READ       = "bytes.read";
+    public static final  String                  HTTP_CALLS       = "http.calls";
+    public static final  String                  HTTP_FAILURES    = "http.failures";
+    public static final  String                  RETRIES          = "retries";
+    //
+    private static final String                  SERVICE_NAME     = "mvgMetrics";
+    private static final ObjectMapper            MAPPER           = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    //
+    private final        long                    t0               = System.currentTimeMillis();
+    private final        Map<String, SpanStats>  spans            = new ConcurrentHashMap<>();
+    private final        Map<String, AtomicLong> counters         = new ConcurrentHashMap<>();
+
+    public abstract static class Service implements BuildService<Service.Params>, AutoCloseable {
+        public interface Params extends BuildServiceParameters {
+            Property<String> getBuildDirPath();
+        }
+
+        private final MvgMetrics metrics = new MvgMetrics();
+
+        public MvgMetrics getMetrics() {
+            return metrics;
+        }
+
+        @Override
+        public void close() {
+            metrics.logMetrics();
+            metrics.writeReport(Path.of(getParameters().getBuildDirPath().get()).resolve(REPORT_FILE_NAME));
+        }
+    }
+
+    private static class SpanStats {
+        private final AtomicLong count  = new AtomicLong();
+        private final AtomicLong millis = new AtomicLong();
+        private final AtomicLong max    = new AtomicLong();
+
+        private void add(long ms) {
+            count.incrementAndGet();
+            millis.addAndGet(ms);
+            max.accumulateAndGet(ms, Math::max);
+        }
+    }
+
+    /**
+     * a running span, to be used in a try-with-resources: the time until {@link #close()} is added to the span's stats.
+     */
+    public class Span implements AutoCloseable {
+        private final String name;
+        private final long   start = System.currentTimeMillis();
+
+        private Span(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void close() {
+            spans.computeIfAbsent(name, n -> new SpanStats()).add(System.currentTimeMillis() - start);
+        }
+    }
+
+    /**
+     * @return the provider of the metrics service of this build, to be declared by the tasks that use it
+     */
+    public static Provider<Service> register(Gradle gradle) {
+        return gradle.getSharedServices().registerIfAbsent(SERVICE_NAME, Service.class, spec ->
+                spec.getParameters().getBuildDirPath().set(gradle.getRootProject().getLayout().getBuildDirectory().map(d -> d.getAsFile().toPath().toString()))
+        );
+    }
+
+    /**
+     * @param name the name of the span, dotted by area (e.g. 'mps.download', 'git.push')
+     * @return a span that stops when closed
+     */
+    public Span span(String name) {
+        return new Span(name);
+    }
+
+    public void count(String name) {
+        count(name, 1);
+    }
+
+    public void count(String name, long delta) {
+        counters.computeIfAbsent(name, n -> new AtomicLong()).addAndGet(delta);
+    }
+
+    public long getCount(String name) {
+        AtomicLong c = counters.get(name);
+        return c == null ? 0 : c.get();
+    }
+
+    public long getSpanCount(String name) {
+        SpanStats s = spans.get(name);
+        return s == null ? 0 : s.count.get();
+    }
+
+    public void logMetrics() {
+        new TreeMap<>(spans).forEach((name, s) -> LOGGER.info("+ mvg-metrics: span    {}: {}x, {} ms (max {} ms)", String.format("%-30s", name), s.count.get(), s.millis.get(), s.max.get()));
+        new TreeMap<>(counters).forEach((name, c) -> LOGGER.info("+ mvg-metrics: counter {}: {}", String.format("%-30s", name), c.get()));
+    }
+
+    Map<String, Object> report() {
+        Map<String, Object> spanReport = new LinkedHashMap<>();
+        new TreeMap<>(spans).forEach((name, s) -> spanReport.put(name, Map.of("count", s.count.get(), "totalMs", s.millis.get(), "maxMs", s.max.get())));
+        Map<String, Object> counterReport = new LinkedHashMap<>();
+        new TreeMap<>(counters).forEach((name, c) -> counterReport.put(name, c.get()));
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("plugin", Info.PLUGIN_NAME);
+        report.put("stamp", Info.NOW_STAMP.get());
+        report.put("ci", Info.CI.get());
+        report.put("wallMs", System.currentTimeMillis() - t0);
+        report.put("spans", spanReport);
+        report.put("counters", counterReport);
+        return report;
+    }
+
+    public void writeReport(Path file) {
+        if (spans.isEmpty() && counters.isEmpty()) {
+            return;
+        }
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp-" + ProcessHandle.current().pid());
+        try {
+            Files.createDirectories(file.getParent());
+            MAPPER.writeValue(tmp.toFile(), report());
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            LOGGER.info("+ mvg-metrics: report written to {}", file);
+        } catch (IOException e) {
+            LOGGER.info("+ mvg-metrics: could not write metrics report {} ({})", file, e.getMessage());
+        }
+    }
+}
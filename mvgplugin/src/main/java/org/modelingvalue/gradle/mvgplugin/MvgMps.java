@@ -23,16 +23,11 @@ package org.modelingvalue.gradle.mvgplugin;
 import static org.modelingvalue.gradle.mvgplugin.Info.LOGGER;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
-import java.net.HttpURLConnection;
-import java.net.URLConnection;
-import java.nio.channels.Channels;
+import java.net.http.HttpResponse;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -42,30 +37,41 @@ import java.util.Properties;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
 
 import org.gradle.api.GradleException;
 import org.gradle.api.invocation.Gradle;
+import org.gradle.api.provider.Provider;
 import org.jetbrains.annotations.NotNull;
 
 public class MvgMps {
-    private final static int    MAX_REDIRECTS = 10;
-    private final static Object LOAD_LOCK     = new Object();
-
-    private final MvgMpsExtension         ext;
-    private       boolean                 mpsHasBeenLoaded;
-    private       Path                    rootPath;
-    private final Map<String, Path>       jarIndex       = new HashMap<>();
-    private final Map<String, List<Path>> ambiguousIndex = new HashMap<>();
-    private final Set<String>             loggedDeps     = new HashSet<>();
-    private       Properties              mpsBuildProps;
-    private       Version                 mpsBuildNumber;
-
-    public MvgMps(Gradle gradle) {
+    private final static Object LOAD_LOCK           = new Object();
+    private final static String JAR_INDEX_EXTENSION = ".jarindex";
+
+    private final Gradle                        gradle;
+    private final MvgMpsExtension               ext;
+    private final Provider<MvgHttp.Service>     httpService;
+    private final Provider<ZipJarCache.Service> zipJarCacheService;
+    private       boolean                       mpsHasBeenLoaded;
+    private       Path                          rootPath;
+    private       ZipJarCache                   zipJars;
+    private final Map<String, Path>             jarIndex       = new HashMap<>();
+    private final Map<String, List<Path>>       ambiguousIndex = new HashMap<>();
+    private final Set<String>                   loggedDeps     = new HashSet<>();
+    private       Properties                    mpsBuildProps;
+    private       Version                       mpsBuildNumber;
+
+    public MvgMps(Gradle gradle, Provider<MvgHttp.Service> httpService, Provider<ZipJarCache.Service> zipJarCacheService) {
+        this.gradle = gradle;
+        this.httpService = httpService;
+        this.zipJarCacheService = zipJarCacheService;
         ext = MvgMpsExtension.make(gradle);
     }
 
+    // MPS is loaded when a dependency is resolved, not in a task of its own: the service is looked up then
+    private MvgHttp http() {
+        return httpService.get().getHttp();
+    }
+
     public File resolveMpsDependency(String dep) {
         Path jar = getJarIndex().get(dep);
         if (jar == null) {
@@ -76,10 +82,23 @@ public class MvgMps {
                 throw new GradleException("no jar found for '" + dep + "' in " + ext.getMpsInstallDir());
             }
         }
+        Path file = locate(jar);
         if (loggedDeps.add(dep)) {
-            LOGGER.info("+ mvg-mps: dependency replaced: {} => {}", dep, jar);
+            LOGGER.info("+ mvg-mps: dependency replaced: {} => {}", dep, file);
+        }
+        return file.toFile();
+    }
+
+    // the jar index has relative paths: in the unzipped install or in the zip itself
+    private Path locate(Path rel) {
+        if (zipJars == null) {
+            return rootPath.resolve(rel);
+        }
+        try {
+            return zipJars.extract(rel);
+        } catch (IOException e) {
+            throw new GradleException("could not extract " + rel + " from the MPS zip " + ext.getMpsCacheFile(), e);
         }
-        return jar.toFile();
     }
 
     private Map<String, Path> getJarIndex() {
@@ -95,11 +114,14 @@ public class MvgMps {
                 assert mpsBuildProps == null;
                 assert mpsBuildNumber == null;
 
-                downloadAndUnzip(ext);
-
                 rootPath = ext.getMpsInstallDir().toPath();
-                makeJarIndex();
-                mpsBuildProps = readMpsBuildProps();
+                if (ext.isLazyJars()) {
+                    loadFromZip();
+                } else {
+                    downloadAndUnzip(ext);
+                    loadOrMakeJarIndex();
+                    mpsBuildProps = readMpsBuildProps();
+                }
                 mpsBuildNumber = getBuildNumber();
                 checkAntFilesAgainstMpsBuildNumber();
 
@@ -113,12 +135,27 @@ public class MvgMps {
         }
     }
 
+    private void loadFromZip() {
+        Path mpsCacheFile = ext.getMpsCacheFile();
+        try {
+            // the same lock as for an unzipped install: another build may be downloading the same zip
+            SharedInstall.withLock(ext.getMpsDownloadDir().toPath(), () -> {
+                ensureMpsZip(ext, mpsCacheFile);
+                return null;
+            });
+            try (MvgMetrics.Span ignored = http().metrics().span("mps.index")) {
+                zipJars = zipJarCacheService.get().open(mpsCacheFile, rootPath.getFileName().toString(), ext.getMpsJarCacheDir());
+                makeJarIndex(zipJars.getJars());
+            }
+            mpsBuildProps = zipJars.readProperties("build.properties");
+        } catch (IOException e) {
+            throw new GradleException("could not index the MPS zip at " + mpsCacheFile, e);
+        }
+    }
+
     private void checkAntFilesAgainstMpsBuildNumber() {
-        try (Stream<Path> pathStream = Files.walk(InfoGradle.getAbsProjectDir())) {
-            pathStream
-                    .filter(p -> p.getFileName().toString().endsWith(".xml"))
-                    .map(AntFileMpsVersionsExtractor::new)
-                    .filter(AntFileMpsVersionsExtractor::isAntFile)
+        try (MvgMetrics.Span ignored = http().metrics().span("mps.antFileScan")) {
+            new AntFileScanner(InfoGradle.getAbsProjectDir(), getAntFileExcludes(), AntFileScanner.DEFAULT_CACHE_FILE).scan().stream()
                     .filter(AntFileMpsVersionsExtractor::hasRange)
                     .forEach(a -> {
                         if (a.getSince() != null && mpsBuildNumber.compareTo(a.getSince()) < 0) {
@@ -134,6 +171,12 @@ public class MvgMps {
         }
     }
 
+    // the dirs that the corrector skips (build output, generated code, ...) do not contain ant files that matter:
+    private Set<String> getAntFileExcludes() {
+        MvgCorrectorExtension correctorExt = gradle.getRootProject().getExtensions().findByType(MvgCorrectorExtension.class);
+        return correctorExt == null ? Set.of() : correctorExt.getEolFileExcludes();
+    }
+
     private Properties readMpsBuildProps() {
         Path propFile = ext.getMpsInstallDir().toPath().resolve("build.properties");
         if (!Files.isRegularFile(propFile)) {
@@ -150,11 +193,23 @@ public class MvgMps {
         return new Version(o == null ? "0.0.0" : o.toString().replaceFirst("MPS-", ""));
     }
 
-    private static void downloadAndUnzip(MvgMpsExtension ext) {
+    private void downloadAndUnzip(MvgMpsExtension ext) {
         Path mpsCacheFile   = ext.getMpsCacheFile();
         Path mpsDownloadDir = ext.getMpsDownloadDir().toPath();
-        Path mpsInstallDir  = ext.getMpsInstallDir().toPath();
+        try {
+            boolean installed = SharedInstall.install(mpsDownloadDir, tmpDir -> {
+                ensureMpsZip(ext, mpsCacheFile);
+                unzip(ext, mpsCacheFile, tmpDir);
+            });
+            if (!installed) {
+                LOGGER.info("+ mvg-mps: using shared MPS install at {}", mpsDownloadDir);
+            }
+        } catch (IOException e) {
+            throw new GradleException("could not install MPS " + ext.getVersion() + " in " + mpsDownloadDir, e);
+        }
+    }
 
+    private void ensureMpsZip(MvgMpsExtension ext, Path mpsCacheFile) {
         if (!Files.isRegularFile(mpsCacheFile)) {
             LOGGER.info("+ mvg-mps: cached MPS zip is absent, downloading...");
             downloadMps(ext, mpsCacheFile);
@@ -164,160 +219,194 @@ public class MvgMps {
         } else {
             LOGGER.info("+ mvg-mps: cached MPS zip is ok, using cache: {}", mpsCacheFile);
         }
-        if (!Files.isDirectory(mpsInstallDir)) {
-            unzip(ext, mpsCacheFile, mpsDownloadDir);
-        }
     }
 
-    private static boolean isCacheValid(MvgMpsExtension ext, Path mpsCacheFile) {
+    private boolean isCacheValid(MvgMpsExtension ext, Path mpsCacheFile) {
+        String       url  = ext.getMpsDownloadUrl();
+        DownloadMeta meta = DownloadMeta.read(mpsCacheFile);
         try {
             long cachedSize = Files.size(mpsCacheFile);
-            long remoteSize = getRemoteFileSize(ext.getMpsDownloadUrl());
-            if (remoteSize <= 0) {
-                LOGGER.info("+ mvg-mps: could not determine remote file size, trusting cached file");
+            if (meta != null && meta.isFresh(url, cachedSize, ext.getCacheRevalidationTtl())) {
+                LOGGER.info("+ mvg-mps: cached MPS zip was verified at {}, no remote check needed", meta.verifiedAt());
                 return true;
             }
-            if (remoteSize == cachedSize) {
+            RangeDownloader.Remote remote = new RangeDownloader(http()).probe(url);
+            if (remote.length() <= 0) {
+                LOGGER.info("+ mvg-mps: could not determine remote file size, trusting cached file");
                 return true;
             }
-            LOGGER.info("+ mvg-mps: cache size mismatch: cached={}, remote={}", cachedSize, remoteSize);
-            return false;
+            if (remote.length() != cachedSize) {
+                LOGGER.info("+ mvg-mps: cache size mismatch: cached={}, remote={}", cachedSize, remote.length());
+                return false;
+            }
+            if (meta != null && !meta.etag().isEmpty() && !remote.etag().isEmpty() && !meta.etag().equals(remote.etag())) {
+                LOGGER.info("+ mvg-mps: cache etag mismatch: cached={}, remote={}", meta.etag(), remote.etag());
+                return false;
+            }
+            DownloadMeta.verifiedNow(url, cachedSize, remote.etag()).write(mpsCacheFile);
+            return true;
         } catch (IOException e) {
             LOGGER.info("+ mvg-mps: could not verify cache ({}), trusting cached file", e.getMessage());
             return true;
         }
     }
 
-    private static long getRemoteFileSize(String url) throws IOException {
-        HttpURLConnection conn = (HttpURLConnection) Util.getUrl(url).openConnection();
-        conn.setRequestMethod("HEAD");
-        conn.setInstanceFollowRedirects(true);
-        for (int i = 0; i < MAX_REDIRECTS; i++) {
-            int code = conn.getResponseCode();
-            if (code >= 300 && code < 400) {
-                String redirect = conn.getHeaderField("Location");
-                if (redirect == null) {
-                    break;
-                }
-                LOGGER.info("+ mvg-mps: HEAD redirect => {}", redirect);
-                conn.disconnect();
-                conn = (HttpURLConnection) Util.getUrl(redirect).openConnection();
-                conn.setRequestMethod("HEAD");
-                conn.setInstanceFollowRedirects(true);
-            } else {
-                break;
-            }
+    private void downloadMps(MvgMpsExtension ext, Path mpsZip) {
+        long   t0  = System.currentTimeMillis();
+        String url = ext.getMpsDownloadUrl();
+        try (MvgMetrics.Span ignored = http().metrics().span("mps.download")) {
+            RangeDownloader.Remote remote = new RangeDownloader(http()).download(url, mpsZip, getPublishedSha256(url));
+            DownloadMeta.verifiedNow(url, Files.size(mpsZip), remote.etag()).write(mpsZip);
+            http().metrics().count(MvgMetrics.BYTES_READ, Files.size(mpsZip));
+        } catch (IOException e) {
+            throw new GradleException("could not download MPS " + ext.getVersion() + " from " + url + " (" + e.getMessage() + ")", e);
         }
-        long size = conn.getContentLengthLong();
-        conn.disconnect();
-        return size;
+        LOGGER.info("+ mvg-mps: downloading MPS {} took {} ms", ext.getVersion(), System.currentTimeMillis() - t0);
     }
 
-    private static void downloadMps(MvgMpsExtension ext, Path mpsZip) {
-        long   t0  = System.currentTimeMillis();
-        String url = ext.getMpsDownloadUrl();
+    // jetbrains publishes a '<zip>.sha256' file next to every download: "<hex> *<filename>"
+    private String getPublishedSha256(String url) {
         try {
-            Files.createDirectories(mpsZip.getParent());
-            URLConnection urlConnection = Util.getUrl(url).openConnection();
-            for (int i = 0; i < MAX_REDIRECTS; i++) {
-                String redirect = urlConnection.getHeaderField("Location");
-                if (redirect == null) {
-                    break;
-                }
-                LOGGER.info("+ mvg-mps: MPS download redirect => {}", redirect);
-                urlConnection = Util.getUrl(redirect).openConnection();
-            }
-            try (InputStream is = urlConnection.getInputStream(); FileOutputStream fos = new FileOutputStream(mpsZip.toFile())) {
-                long len = fos.getChannel().transferFrom(Channels.newChannel(is), 0, Long.MAX_VALUE);
-                if (len == 0) {
-                    Files.deleteIfExists(mpsZip);
-                    throw new GradleException("could not download MPS " + ext.getVersion() + " from " + url + " (got empty file)");
-                }
-                LOGGER.info("+ mvg-mps: read {} bytes of zip file", len);
+            HttpResponse<String> response = http().getString(url + ".sha256");
+            if (200 <= response.statusCode() && response.statusCode() < 300 && response.body().matches("(?s)\\s*[0-9a-fA-F]{64}\\b.*")) {
+                return response.body().trim().split("\\s+")[0];
             }
+            LOGGER.info("+ mvg-mps: no sha256 published for {} (HTTP {}), download can not be verified", url, response.statusCode());
         } catch (IOException e) {
-            throw new GradleException("could not download MPS " + ext.getVersion() + " from " + url + " (" + e.getMessage() + ")", e);
+            LOGGER.info("+ mvg-mps: no sha256 published for {} ({}), download can not be verified", url, e.getMessage());
         }
-        LOGGER.info("+ mvg-mps: downloading MPS {} took {} ms", ext.getVersion(), System.currentTimeMillis() - t0);
+        return null;
     }
 
-    private static void unzip(MvgMpsExtension ext, Path fileZip, Path destDir) {
-        try (ZipInputStream zis = new ZipInputStream(new FileInputStream(fileZip.toFile()))) {
-            long   t0     = System.currentTimeMillis();
-            byte[] buffer = new byte[1024 * 1024];
-            for (ZipEntry zipEntry = zis.getNextEntry(); zipEntry != null; zipEntry = zis.getNextEntry()) {
-                Path newFile = destDir.resolve(zipEntry.getName());
-                if (!newFile.toFile().getCanonicalPath().startsWith(destDir.toFile().getCanonicalPath() + File.separator)) {
-                    throw new IOException("Entry is outside of the target dir: " + zipEntry.getName());
-                }
-                if (zipEntry.isDirectory()) {
-                    Files.createDirectories(newFile);
-                } else {
-                    // fix for Windows-created archives
-                    Files.createDirectories(newFile.getParent());
+    private void unzip(MvgMpsExtension ext, Path fileZip, Path destDir) throws IOException {
+        long                    t0     = System.currentTimeMillis();
+        ParallelUnzipper.Result result;
+        try (MvgMetrics.Span ignored = http().metrics().span("mps.unzip")) {
+            result = new ParallelUnzipper().unzip(fileZip, destDir, ext.isIndexOnly() ? MvgMps::isNeededForIndex : name -> true);
+        }
+        http().metrics().count("mps.unzip.files", result.numFiles());
+        http().metrics().count("mps.unzip.bytes", result.numBytes());
+        LOGGER.info("+ mvg-mps: unzipping MPS {} gave {} files ({} bytes, {} skipped), took {} ms", ext.getVersion(), result.numFiles(), result.numBytes(), result.numSkipped(), System.currentTimeMillis() - t0);
+    }
 
-                    // write file content
-                    try (OutputStream os = Files.newOutputStream(newFile)) {
-                        for (int len; (len = zis.read(buffer)) > 0; ) {
-                            os.write(buffer, 0, len);
-                        }
-                    }
-                }
+    // only the jars (for the jar index) and the build.properties (for the build number) are used by this plugin:
+    private static boolean isNeededForIndex(String name) {
+        return name.endsWith(".jar") || name.matches("[^/]+/build[.]properties");
+    }
+
+    // the install dir never changes, so the index is only made once per install and read back by every later build:
+    private void loadOrMakeJarIndex() {
+        Path   indexFile = ext.getMpsDownloadDir().toPath().resolveSibling(ext.getMpsDownloadDir().getName() + JAR_INDEX_EXTENSION);
+        String stamp     = getInstallStamp();
+        try (MvgMetrics.Span ignored = http().metrics().span("mps.index")) {
+            if (!readJarIndex(indexFile, stamp)) {
+                makeJarIndex(listJars());
+                writeJarIndex(indexFile, stamp);
             }
-            zis.closeEntry();
-            try (Stream<Path> pathStream = Files.walk(destDir)) {
-                long numFiles = pathStream.filter(Files::isRegularFile).count();
-                LOGGER.info("+ mvg-mps: unzipping MPS {} gave {} files, took {} ms, at {}", ext.getVersion(), numFiles, System.currentTimeMillis() - t0, destDir);
+        }
+    }
+
+    private String getInstallStamp() {
+        try {
+            return ext.getVersion() + "@" + Files.getLastModifiedTime(rootPath).toMillis();
+        } catch (IOException e) {
+            throw new GradleException("could not stat the MPS install dir at " + rootPath, e);
+        }
+    }
+
+    private boolean readJarIndex(Path indexFile, String stamp) {
+        if (!Files.isRegularFile(indexFile)) {
+            return false;
+        }
+        List<String> lines = Util.readAllLines(indexFile);
+        if (lines.isEmpty() || !lines.getFirst().equals("stamp\t" + stamp)) {
+            LOGGER.info("+ mvg-mps: jar index {} is from another install, indexing again", indexFile);
+            return false;
+        }
+        for (String line : lines.subList(1, lines.size())) {
+            String[] parts = line.split("\t");
+            if (parts.length < 3 || !(parts[0].equals("j") || parts[0].equals("a"))) {
+                LOGGER.info("+ mvg-mps: jar index {} is corrupt, indexing again", indexFile);
+                jarIndex.clear();
+                ambiguousIndex.clear();
+                return false;
+            }
+            if (parts[0].equals("j")) {
+                jarIndex.put(parts[1], Path.of(parts[2]));
+            } else {
+                ambiguousIndex.put(parts[1], Stream.of(parts).skip(2).map(Path::of).collect(Collectors.toList()));
             }
+        }
+        LOGGER.info("+ mvg-mps: read jar index from {}", indexFile);
+        return !jarIndex.isEmpty();
+    }
+
+    private void writeJarIndex(Path indexFile, String stamp) {
+        List<String> lines = new ArrayList<>();
+        lines.add("stamp\t" + stamp);
+        jarIndex.forEach((key, path) -> lines.add("j\t" + key + "\t" + path));
+        ambiguousIndex.forEach((key, paths) -> lines.add("a\t" + key + "\t" + paths.stream().map(Path::toString).collect(Collectors.joining("\t"))));
+        Path tmp = indexFile.resolveSibling(indexFile.getFileName() + ".tmp-" + ProcessHandle.current().pid());
+        try {
+            Files.write(tmp, lines);
+            Files.move(tmp, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
         } catch (IOException e) {
-            throw new GradleException("could not unzip MPS zip: " + fileZip, e);
+            // without a persisted index the next build just indexes again
+            LOGGER.info("+ mvg-mps: could not write the jar index {} ({})", indexFile, e.getMessage());
         }
     }
 
-    private void makeJarIndex() {
+    private List<Path> listJars() {
         try (Stream<Path> pathStream = Files.walk(rootPath)) {
-            // determine the jars and index them by their code name:
-            Map<String, List<Path>> coreNameToPathMap = pathStream
+            return pathStream
                     .filter(p -> p.getFileName().toString().endsWith(".jar"))
-                    .collect(Collectors.groupingBy(p -> p.getFileName().toString().replaceAll("[.]jar$", "")));
-
-            // find coreNames that have just one entry under 'lib', replace them unambigously when found:
-            new ArrayList<>(coreNameToPathMap.keySet()).forEach(coreName -> {
-                List<Path> paths = coreNameToPathMap.get(coreName);
-                if (paths.size() > 1) {
-                    Map<String, List<Path>> subtreeMap = paths.stream().collect(Collectors.groupingBy(path -> rel(path).getName(0).toString()));
-                    List<Path>              inLibs     = subtreeMap.get("lib");
-                    if (inLibs != null && inLibs.size() == 1) {
-                        if (LOGGER.isInfoEnabled()) {
-                            Path       inLibRel  = rel(inLibs.getFirst());
-                            List<Path> othersRel = paths.stream().map(this::rel).filter(p -> !p.equals(inLibRel)).collect(Collectors.toList());
-                            LOGGER.info("+ mvg-mps: ambiguous jar-name resolved: [{}]={} (ignoring: {})", coreName, inLibRel, othersRel);
-                        }
-                        // overrule this one with just the lib entry:
-                        coreNameToPathMap.put(coreName, inLibs);
+                    .map(this::rel)
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new GradleException("could not index the MPS install dir at " + rootPath, e);
+        }
+    }
+
+    // the jars are relative to the MPS root dir:
+    private void makeJarIndex(List<Path> jars) {
+        // determine the jars and index them by their code name:
+        Map<String, List<Path>> coreNameToPathMap = jars.stream()
+                .collect(Collectors.groupingBy(p -> p.getFileName().toString().replaceAll("[.]jar$", "")));
+
+        // find coreNames that have just one entry under 'lib', replace them unambigously when found:
+        new ArrayList<>(coreNameToPathMap.keySet()).forEach(coreName -> {
+            List<Path> paths = coreNameToPathMap.get(coreName);
+            if (paths.size() > 1) {
+                Map<String, List<Path>> subtreeMap = paths.stream().collect(Collectors.groupingBy(path -> path.getName(0).toString()));
+                List<Path>              inLibs     = subtreeMap.get("lib");
+                if (inLibs != null && inLibs.size() == 1) {
+                    if (LOGGER.isInfoEnabled()) {
+                        Path       inLibRel  = inLibs.getFirst();
+                        List<Path> othersRel = paths.stream().filter(p -> !p.equals(inLibRel)).collect(Collectors.toList());
+                        LOGGER.info("+ mvg-mps: ambiguous jar-name resolved: [{}]={} (ignoring: {})", coreName, inLibRel, othersRel);
                     }
+                    // overrule this one with just the lib entry:
+                    coreNameToPathMap.put(coreName, inLibs);
                 }
-            });
+            }
+        });
 
-            // fill the 'jarIndex' and 'ambiguousIndex' index mapss according to what we found:
-            coreNameToPathMap.forEach((coreName, paths) -> {
-                boolean ambigous = 1 < paths.size();
-                paths.forEach(path -> {
-                    jarIndex.put(rel(path).toString(), path);
-                    if (!ambigous) {
-                        jarIndex.put(coreName, path);
-                        jarIndex.put(coreName + ".jar", path);
-                    }
-                });
-                if (ambigous) {
-                    LOGGER.info("+ mvg-mps: ambiguous jar-names found: {}", paths);
-                    ambiguousIndex.put(coreName, paths);
-                    ambiguousIndex.put(coreName + ".jar", paths);
+        // fill the 'jarIndex' and 'ambiguousIndex' index mapss according to what we found:
+        coreNameToPathMap.forEach((coreName, paths) -> {
+            boolean ambigous = 1 < paths.size();
+            paths.forEach(path -> {
+                jarIndex.put(path.toString(), path);
+                if (!ambigous) {
+                    jarIndex.put(coreName, path);
+                    jarIndex.put(coreName + ".jar", path);
                 }
             });
-        } catch (IOException e) {
-            throw new GradleException("could not index the MPS install dir at " + rootPath, e);
-        }
+            if (ambigous) {
+                LOGGER.info("+ mvg-mps: ambiguous jar-names found: {}", paths);
+                ambiguousIndex.put(coreName, paths);
+                ambiguousIndex.put(coreName + ".jar", paths);
+            }
+        });
     }
 
     @NotNull
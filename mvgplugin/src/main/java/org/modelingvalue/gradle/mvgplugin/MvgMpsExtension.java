@@ -29,6 +29,7 @@ import static org.modelingvalue.gradle.mvgplugin.InfoGradle.selectMasterDevelopE
 
 import java.io.File;
 import java.nio.file.Path;
+import java.time.Duration;
 
 import org.gradle.api.GradleException;
 import org.gradle.api.invocation.Gradle;
@@ -36,18 +37,25 @@ import org.jetbrains.annotations.NotNull;
 
 @SuppressWarnings("unused")
 public class MvgMpsExtension {
-    private final static String MPS_DOWNLOAD_URL_TEMPLATE = "https://download.jetbrains.com/mps/%s/MPS-%s.zip";
-    private final static String MPS_ROOT_DIR_TEMPLATE     = "MPS %s"; // this name is dictated by JetBrains in their zip file setup
-    private final static String MPS_DOWNLOAD_DIR_TEMPLATE = "MPS-%s";
-    private final static Path   MPS_CACHE_DIR             = Path.of(System.getProperty("user.home"), ".gradle", "caches", "mps-downloads");
+    public final static  Duration DEFAULT_CACHE_REVALIDATION_TTL = Duration.ofHours(24);
+    private final static String   MPS_DOWNLOAD_URL_TEMPLATE      = "https://download.jetbrains.com/mps/%s/MPS-%s.zip";
+    private final static String   MPS_ROOT_DIR_TEMPLATE          = "MPS %s"; // this name is dictated by JetBrains in their zip file setup
+    private final static String   MPS_DOWNLOAD_DIR_TEMPLATE      = "MPS-%s";
+    private final static String   MPS_INDEX_ONLY_SUFFIX          = "-index";
+    private final static Path     MPS_CACHE_DIR                  = Path.of(System.getProperty("user.home"), ".gradle", "caches", "mps-downloads");
+    private final static Path     MPS_INSTALL_DIR                = Path.of(System.getProperty("user.home"), ".gradle", "caches", "mps-installs");
+    private final static Path     MPS_JAR_CACHE_DIR              = Path.of(System.getProperty("user.home"), ".gradle", "caches", "mps-jars-v2");
 
     public static MvgMpsExtension make(Gradle gradle) {
         return gradle.getRootProject().getExtensions().create(MPS_TASK_NAME, MvgMpsExtension.class, gradle);
     }
 
-    private final Gradle  gradle;
-    private       boolean mpsVersionSet;
-    private       String  mpsVersion;
+    private final Gradle   gradle;
+    private       boolean  mpsVersionSet;
+    private       String   mpsVersion;
+    private       Duration cacheRevalidationTtl = DEFAULT_CACHE_REVALIDATION_TTL;
+    private       boolean  indexOnly;
+    private       boolean  lazyJars;
 
     public MvgMpsExtension(Gradle gradle) {
         this.gradle = gradle;
@@ -66,11 +74,14 @@ public class MvgMpsExtension {
     }
 
     public String getVersionStamp() {
-        return selectMasterDevelopElse("", NOW_STAMP, NOW_STAMP);
+        return selectMasterDevelopElse("", NOW_STAMP.get(), NOW_STAMP.get());
     }
 
+    /**
+     * @return the shared, read-only dir that MPS is unzipped in, one per MPS version for all projects on this machine
+     */
     public File getMpsDownloadDir() {
-        return new File(gradle.getRootProject().getLayout().getBuildDirectory().get().getAsFile(), String.format(MPS_DOWNLOAD_DIR_TEMPLATE, getVersion()));
+        return MPS_INSTALL_DIR.resolve(String.format(MPS_DOWNLOAD_DIR_TEMPLATE, getVersion()) + (indexOnly ? MPS_INDEX_ONLY_SUFFIX : "")).toFile();
     }
 
     public String getMpsDownloadUrl() {
@@ -85,6 +96,52 @@ public class MvgMpsExtension {
         return MPS_CACHE_DIR.resolve(String.format("MPS-%s.zip", getVersion()));
     }
 
+    public Path getMpsJarCacheDir() {
+        return MPS_JAR_CACHE_DIR;
+    }
+
+    /**
+     * @return how long a verified MPS download is used from the cache without checking it against the server again
+     */
+    public Duration getCacheRevalidationTtl() {
+        return cacheRevalidationTtl;
+    }
+
+    /**
+     * @param ttl how long a verified MPS download is used from the cache without checking it against the server again (zero means: check every build)
+     */
+    public void setCacheRevalidationTtl(Duration ttl) {
+        cacheRevalidationTtl = ttl;
+    }
+
+    /**
+     * @return true if only the parts of MPS that this plugin needs (the jars and the build.properties) are unzipped
+     */
+    public boolean isIndexOnly() {
+        return indexOnly;
+    }
+
+    /**
+     * @param indexOnly unzip only the jars and the build.properties of MPS, enough to resolve MPS dependencies but not to run MPS
+     */
+    public void setIndexOnly(boolean indexOnly) {
+        this.indexOnly = indexOnly;
+    }
+
+    /**
+     * @return true if MPS is not unzipped at all and only the jars that are resolved are extracted from the MPS zip
+     */
+    public boolean isLazyJars() {
+        return lazyJars;
+    }
+
+    /**
+     * @param lazyJars index the jars from the MPS zip itself and only extract the jars that are resolved (into a shared jar cache)
+     */
+    public void setLazyJars(boolean lazyJars) {
+        this.lazyJars = lazyJars;
+    }
+
     @NotNull
     private String getMajorMpsVersion() {
         String version = getVersion();
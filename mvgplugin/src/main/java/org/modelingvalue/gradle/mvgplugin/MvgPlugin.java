@@ -39,11 +39,14 @@ import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Instant;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.Callable;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.stream.Stream;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.inject.Inject;
 
@@ -54,6 +57,9 @@ import org.gradle.api.Project;
 import org.gradle.api.invocation.Gradle;
 import org.gradle.api.plugins.JavaPluginExtension;
 import org.gradle.api.provider.Property;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
 import org.gradle.api.tasks.TaskCollection;
 import org.gradle.api.tasks.compile.CompileOptions;
 import org.gradle.api.tasks.compile.JavaCompile;
@@ -63,6 +69,13 @@ import org.gradle.build.event.BuildEventsListenerRegistry;
 import org.gradle.external.javadoc.MinimalJavadocOptions;
 import org.gradle.external.javadoc.StandardJavadocDocletOptions;
 import org.gradle.process.CommandLineArgumentProvider;
+import org.gradle.tooling.events.FinishEvent;
+import org.gradle.tooling.events.OperationCompletionListener;
+import org.gradle.tooling.events.task.TaskFailureResult;
+import org.gradle.tooling.events.task.TaskFinishEvent;
+import org.gradle.tooling.events.task.TaskOperationResult;
+import org.gradle.tooling.events.task.TaskSkippedResult;
+import org.gradle.tooling.events.task.TaskSuccessResult;
 import org.jetbrains.annotations.NotNull;
 
 @SuppressWarnings({"unused", "FieldCanBeLocal"})
@@ -79,6 +92,7 @@ public class MvgPlugin implements Plugin<Project> {
     private       MvgMps                      mvgMps;
     private       MvgUploader                 mvgUploader;
     private       MvgCentralPublisher         mvgCentralPublisher;
+    private       Provider<MvgHttp.Service>   httpService;
     private       boolean                     traceHeaderDone;
 
     public abstract static class Extension {
@@ -92,6 +106,8 @@ public class MvgPlugin implements Plugin<Project> {
             ext.getPrepJavadocForEncoding().convention(true);
             ext.getMakeJavadocAndSources().convention(true);
             ext.getAddMvgGithubRepositories().convention(true);
+            ext.getHttpConnectTimeoutSeconds().convention(MvgHttp.DEFAULT_CONNECT_TIMEOUT_SECONDS);
+            ext.getHttpReadTimeoutSeconds().convention(MvgHttp.DEFAULT_READ_TIMEOUT_SECONDS);
             return ext;
         }
 
@@ -110,6 +126,10 @@ public class MvgPlugin implements Plugin<Project> {
         public abstract Property<Boolean> getMakeJavadocAndSources();
 
         public abstract Property<Boolean> getAddMvgGithubRepositories();
+
+        public abstract Property<Integer> getHttpConnectTimeoutSeconds();
+
+        public abstract Property<Integer> getHttpReadTimeoutSeconds();
     }
 
     @Inject
@@ -130,15 +150,17 @@ public class MvgPlugin implements Plugin<Project> {
             //throw new GradleException("the plugin " + getClass().getSimpleName() + " can only be applied to the root project (" + gradle.getRootProject().getName() + ")");
         } else {
             ext = Extension.make(gradle);
+            Provider<MvgMetrics.Service> metricsService = MvgMetrics.register(gradle);
+            httpService = MvgHttp.register(gradle, ext, metricsService);
             BranchParameterNames.init();
 
             LOGGER.info("+ mvg: MvgPlugin.apply to project {}", project.getName());
             LOGGER.info("+ mvg: {}={}, {}={} {}={}, {}={}, {}={}",
-                    PROP_NAME_CI, CI,
+                    PROP_NAME_CI, CI.get(),
                     "MVGCI|TEST", isMvgCI_orTesting(),
                     "master", isMasterBranch(),
                     "develop", isDevelopBranch(),
-                    PROP_NAME_ALLREP_TOKEN, Util.hide(ALLREP_TOKEN));
+                    PROP_NAME_ALLREP_TOKEN, Util.hide(ALLREP_TOKEN.get()));
 
             checkWorkflowFilesForLoopingDanger();
             checkIfWeAreUsingTheLatestPluginVersion();
@@ -153,13 +175,13 @@ public class MvgPlugin implements Plugin<Project> {
             tuneJavaEncoding();
             addMVGRepositories();
 
-            mvgCorrector = new MvgCorrector(gradle);
-            mvgTagger = new MvgTagger(gradle);
-            mvgBranchBasedBuilder = new MvgBranchBasedBuilder(gradle, buildEventsListenerRegistry);
-            mvgMps = new MvgMps(gradle);
-            mvgUploader = new MvgUploader(gradle);
+            mvgCorrector = new MvgCorrector(gradle, httpService, metricsService);
+            mvgTagger = new MvgTagger(gradle, metricsService);
+            mvgBranchBasedBuilder = new MvgBranchBasedBuilder(gradle, buildEventsListenerRegistry, httpService);
+            mvgMps = new MvgMps(gradle, httpService, ZipJarCache.register(gradle));
+            mvgUploader = new MvgUploader(gradle, httpService);
             // after the bbb: its afterProject must run first so the github repo is added before the central staging repo
-            mvgCentralPublisher = new MvgCentralPublisher(gradle);
+            mvgCentralPublisher = new MvgCentralPublisher(gradle, httpService);
         }
     }
 
@@ -172,89 +194,38 @@ public class MvgPlugin implements Plugin<Project> {
         Path workflowsDir = InfoGradle.getWorkflowsDir();
         if (Files.isDirectory(workflowsDir)) {
             try {
-                AtomicBoolean errorsDetected = new AtomicBoolean();
-                try (Stream<Path> stream = Files.list(workflowsDir)) {
-                    stream.filter(f -> Files.isRegularFile(f) && f.getFileName().toString().matches(".*\\.ya?ml"))
-                            .forEach(f -> {
-                                try {
-                                    Map<?, ?> yaml = Util.readYaml(f);
-                                    Map<?, ?> jobs = (Map<?, ?>) yaml.get("jobs");
-                                    if (jobs == null) {
-                                        LOGGER.info("+ mvg: skipping loop guard check for {} (no jobs)", f.getFileName());
-                                    } else if (!canBeTriggeredByBranchPush(yaml)) {
-                                        LOGGER.info("+ mvg: skipping loop guard check for {} (not triggered by branch pushes)", f.getFileName());
-                                    } else {
-                                        jobs.keySet().forEach(jobName -> {
-                                            Map<?, ?> job   = (Map<?, ?>) jobs.get(jobName);
-                                            String    theIf = (String) job.get("if");
-                                            if (theIf == null || !theIf.contains(Info.NO_CI_GUARD)) {
-                                                LOGGER.error("RECURSION DANGER: workflow '{}' job '{}' does not guard against retriggering (found if: \"{}\", expected it to contain \"{}\")", f.getFileName(), jobName, theIf, Info.NO_CI_GUARD);
-                                                errorsDetected.set(true);
-                                            }
-                                        });
-                                    }
-                                } catch (IOException e) {
-                                    e.printStackTrace();
-                                }
-                            });
-                    if (errorsDetected.get()) {
-                        throw new GradleException("BUILD LOOP DANGER in one or more workflow files");
+                boolean           errorsDetected = false;
+                WorkflowLoopGuard guard          = new WorkflowLoopGuard(WorkflowLoopGuard.DEFAULT_CACHE_FILE);
+                for (Path f : WorkflowFiles.list(workflowsDir)) {
+                    try {
+                        WorkflowLoopGuard.Analysis analysis = guard.analyse(f);
+                        if (analysis.skipReason() != null) {
+                            LOGGER.info("+ mvg: skipping loop guard check for {} ({})", f.getFileName(), analysis.skipReason());
+                        }
+                        for (WorkflowLoopGuard.Unguarded u : analysis.unguarded()) {
+                            LOGGER.error("RECURSION DANGER: workflow '{}' job '{}' does not guard against retriggering (found if: \"{}\", expected it to contain \"{}\")", f.getFileName(), u.job(), u.theIf(), Info.NO_CI_GUARD);
+                            errorsDetected = true;
+                        }
+                    } catch (IOException e) {
+                        e.printStackTrace();
                     }
                 }
+                guard.saveCache();
+                if (errorsDetected) {
+                    throw new GradleException("BUILD LOOP DANGER in one or more workflow files");
+                }
             } catch (IOException e) {
                 throw new GradleException("can not scan workflows dir", e);
             }
         }
     }
 
-    @SuppressWarnings("RedundantIfStatement")
-    private static boolean canBeTriggeredByBranchPush(Map<?, ?> yaml) {
-        // Jackson YAML parses 'on' as Boolean.TRUE (YAML 1.1 reserved word)
-        Object onSection = yaml.get(Boolean.TRUE);
-        if (onSection == null) {
-            onSection = yaml.get("on");
-        }
-        if (onSection == null) {
-            return false;
-        }
-        // handle: on: push
-        if (onSection instanceof String s) {
-            return s.equals("push");
-        }
-        // handle: on: [push, ...]
-        if (onSection instanceof List<?> list) {
-            return list.contains("push");
-        }
-        if (onSection instanceof Map<?, ?> onMap) {
-            Object pushSection = onMap.get("push");
-            if (pushSection == null) {
-                return false;
-            }
-            if (pushSection instanceof Map<?, ?> pushMap) {
-                boolean hasTags     = pushMap.containsKey("tags") || pushMap.containsKey("tags-ignore");
-                boolean hasBranches = pushMap.containsKey("branches") || pushMap.containsKey("branches-ignore");
-                if (hasTags && !hasBranches) {
-                    return false;
-                }
-            }
-            return true;
-        }
-        return false;
-    }
-
     private void checkIfWeAreUsingTheLatestPluginVersion() {
         Version v = Util.getMyPluginVersion();
         if (v == null) {
             LOGGER.info("+ mvg: can not determine if using the latest version of mvg plugin: can not determine running version");
         } else {
-            MavenMetaVersionExtractor extractor = new MavenMetaVersionExtractor(Info.PLUGIN_META_URL);
-            if (extractor.error()) {
-                LOGGER.warn("+ mvg: can not determine if using the latest version of mvg plugin: metainfo of myself not readable ({}, msg={})", Info.PLUGIN_META_URL, extractor.getException().getMessage());
-            } else if (!extractor.getLatest().equals(v)) {
-                LOGGER.warn("+ mvg: NOT using the latest mvg plugin version (using {}, latest is {})", v, extractor.getLatest());
-            } else {
-                LOGGER.info("+ mvg: OK: using the latest mvg plugin version ({})", v);
-            }
+            new PluginVersionCheck().check(v);
         }
     }
 
@@ -278,16 +249,57 @@ public class MvgPlugin implements Plugin<Project> {
     }
 
     private void listenForTaskExecution() {
-        // Note: unlike the old TaskExecutionListener, doFirst/doLast only fires for tasks that
-        // actually execute work — not for UP-TO-DATE or SKIPPED tasks.
-        gradle.afterProject(p -> {
-            if (ext.getVerboseTaskExecution().get()) {
-                p.getTasks().configureEach(task -> {
-                    task.doFirst(s -> LOGGER.info("+ mvg: >>>>> {}", task.getName()));
-                    task.doLast(s -> LOGGER.info("+ mvg: <<<<< {}\n", task.getName()));
-                });
+        // one listener for the whole build: no task is realised and no task actions are added,
+        // and unlike doFirst/doLast it also reports UP-TO-DATE, FROM-CACHE, SKIPPED and FAILED tasks
+        Provider<TaskExecutionService> provider = gradle.getSharedServices().registerIfAbsent(
+                "mvgTaskExecution",
+                TaskExecutionService.class,
+                spec -> spec.getParameters().getVerbose().set(ext.getVerboseTaskExecution())
+        );
+        buildEventsListenerRegistry.onTaskCompletion(provider);
+    }
+
+    public abstract static class TaskExecutionService implements BuildService<TaskExecutionService.Params>, OperationCompletionListener, AutoCloseable {
+        public interface Params extends BuildServiceParameters {
+            Property<Boolean> getVerbose();
+        }
+
+        private final Map<String, AtomicInteger> outcomeCounts = new ConcurrentHashMap<>();
+        private final AtomicLong                 totalMillis   = new AtomicLong();
+
+        @Override
+        public void onFinish(FinishEvent event) {
+            if (event instanceof TaskFinishEvent taskFinishEvent) {
+                TaskOperationResult result   = taskFinishEvent.getResult();
+                String              outcome  = outcome(result);
+                long                duration = result.getEndTime() - result.getStartTime();
+                outcomeCounts.computeIfAbsent(outcome, k -> new AtomicInteger()).incrementAndGet();
+                totalMillis.addAndGet(duration);
+                if (getParameters().getVerbose().getOrElse(true)) {
+                    // finish events are the only ones a build service gets, so the start is reported along with the end
+                    LOGGER.info("+ mvg: <<<<< {} {} in {} ms (started {})\n", taskFinishEvent.getDescriptor().getTaskPath(), outcome, duration, Instant.ofEpochMilli(result.getStartTime()));
+                }
             }
-        });
+        }
+
+        @Override
+        public void close() {
+            if (getParameters().getVerbose().getOrElse(true) && !outcomeCounts.isEmpty()) {
+                LOGGER.info("+ mvg: task outcomes: {} (total task time {} ms)", new TreeMap<>(outcomeCounts), totalMillis.get());
+            }
+        }
+
+        private static String outcome(TaskOperationResult result) {
+            if (result instanceof TaskSuccessResult success) {
+                return success.isFromCache() ? "FROM-CACHE" : success.isUpToDate() ? "UP-TO-DATE" : "SUCCESS";
+            } else if (result instanceof TaskSkippedResult skipped) {
+                return "SKIPPED(" + skipped.getSkipMessage() + ")";
+            } else if (result instanceof TaskFailureResult) {
+                return "FAILED";
+            } else {
+                return "UNKNOWN";
+            }
+        }
     }
 
     private void tuneTesting() {
@@ -28,15 +28,18 @@ import static org.modelingvalue.gradle.mvgplugin.Info.TAG_TASK_NAME;
 import org.gradle.api.GradleException;
 import org.gradle.api.Task;
 import org.gradle.api.invocation.Gradle;
+import org.gradle.api.provider.Provider;
 import org.gradle.api.publish.plugins.PublishingPlugin;
 import org.gradle.api.tasks.TaskProvider;
 
 @SuppressWarnings({"unused", "FieldCanBeLocal"})
 class MvgTagger {
-    private final Gradle gradle;
+    private final Gradle                       gradle;
+    private final Provider<MvgMetrics.Service> metricsService;
 
-    public MvgTagger(Gradle gradle) {
+    public MvgTagger(Gradle gradle, Provider<MvgMetrics.Service> metricsService) {
         this.gradle = gradle;
+        this.metricsService = metricsService;
         TaskProvider<Task> tp = gradle.getRootProject().getTasks().register(TAG_TASK_NAME, this::setup);
 
         // let me depend on all publish tasks...
@@ -52,6 +55,7 @@ class MvgTagger {
     private void setup(Task task) {
         task.setGroup(MODELING_VALUE_GROUP);
         task.setDescription("tag the git repo with the current version");
+        task.usesService(metricsService);
         task.doLast(s -> execute());
     }
 
@@ -65,7 +69,7 @@ class MvgTagger {
             LOGGER.info("+ mvg: not tagging the local '{}' version", VersionCorrector.DEV_VERSION);
         } else if (InfoGradle.isMasterBranch()) {
             LOGGER.info("+ mvg: tagging this version with '{}' because this is the master branch", tag);
-            GitUtil.tag(InfoGradle.getAbsProjectDir(), tag);
+            GitUtil.tag(metricsService.get().getMetrics(), InfoGradle.getAbsProjectDir(), tag);
         } else {
             LOGGER.info("+ mvg: not tagging this version with '{}' because this is not the master branch (branch={})", tag, InfoGradle.getBranch());
         }
@@ -20,7 +20,6 @@
 
 package org.modelingvalue.gradle.mvgplugin;
 
-import static org.apache.http.entity.ContentType.TEXT_PLAIN;
 import static org.modelingvalue.gradle.mvgplugin.Info.JETBRAINS_TOKEN;
 import static org.modelingvalue.gradle.mvgplugin.Info.LOGGER;
 import static org.modelingvalue.gradle.mvgplugin.Info.MODELING_VALUE_GROUP;
@@ -28,34 +27,29 @@ import static org.modelingvalue.gradle.mvgplugin.Info.UPLOADER_TASK_NAME;
 import static org.modelingvalue.gradle.mvgplugin.InfoGradle.selectMasterDevelopElse;
 
 import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
 import java.util.stream.Collectors;
 
-import org.apache.http.HttpResponse;
-import org.apache.http.client.HttpClient;
-import org.apache.http.client.config.CookieSpecs;
-import org.apache.http.client.config.RequestConfig;
-import org.apache.http.client.methods.HttpPost;
-import org.apache.http.entity.mime.MultipartEntityBuilder;
-import org.apache.http.entity.mime.content.FileBody;
-import org.apache.http.entity.mime.content.StringBody;
-import org.apache.http.impl.client.HttpClientBuilder;
-import org.apache.http.util.EntityUtils;
 import org.gradle.api.GradleException;
 import org.gradle.api.Project;
 import org.gradle.api.Task;
 import org.gradle.api.invocation.Gradle;
 import org.gradle.api.provider.Property;
+import org.gradle.api.provider.Provider;
 
 public class MvgUploader {
 
-    private final Extension ext;
+    private final Extension                 ext;
+    private final Provider<MvgHttp.Service> httpService;
 
-    public MvgUploader(Gradle gradle) {
+    public MvgUploader(Gradle gradle, Provider<MvgHttp.Service> httpService) {
         ext = Extension.make(gradle);
+        this.httpService = httpService;
         gradle.getRootProject().getTasks().register(UPLOADER_TASK_NAME, this::setup);
     }
 
@@ -66,8 +60,8 @@ public class MvgUploader {
             ext.buildDirPath = project.getLayout().getBuildDirectory().get().getAsFile().toPath();
             String defaultChannel = selectMasterDevelopElse("stable", "EAP", BranchParameterNames.get("channel", "DEV"));
             ext.getChannel().convention(defaultChannel);
-            if (JETBRAINS_TOKEN != null) {
-                ext.getHubToken().convention(JETBRAINS_TOKEN);
+            if (JETBRAINS_TOKEN.get() != null) {
+                ext.getHubToken().convention(JETBRAINS_TOKEN.get());
             }
             LOGGER.info("+ mvg: default channel selected by uploader: {}", defaultChannel);
             return ext;
@@ -116,6 +110,7 @@ public class MvgUploader {
     private void setup(Task task) {
         task.setGroup(MODELING_VALUE_GROUP);
         task.setDescription("upload a plugin to jetbrains");
+        task.usesService(httpService);
         task.doLast(s -> execute());
     }
 
@@ -138,26 +133,21 @@ public class MvgUploader {
         } else if (channel == null || pluginId == null || hubToken == null) {
             LOGGER.warn("+ mvg: no channel/pluginId/hubToken ({}/{}/{}): upload skipped", channel, pluginId, Util.hide(hubToken));
         } else {
-            uploadToJetBrains(channel, hubToken, pluginId, zipFile);
+            uploadToJetBrains(httpService.get().getHttp(), channel, hubToken, pluginId, zipFile);
         }
     }
 
-    public static void uploadToJetBrains(String channel, String hubtoken, String pluginid, Path file) {
+    public static void uploadToJetBrains(MvgHttp http, String channel, String hubtoken, String pluginid, Path file) {
         try {
-            HttpPost request = new HttpPost(Info.JETBRAINS_UPLOAD_URL);
-            request.setHeader("Authorization", "Bearer " + hubtoken);
-            request.setEntity(
-                    MultipartEntityBuilder.create()
-                            .addPart("pluginId", new StringBody(pluginid, TEXT_PLAIN))
-                            .addPart("channel", new StringBody(channel, TEXT_PLAIN))
-                            .addPart("file", new FileBody(file.toFile()))
-                            .build()
-            );
-
-            HttpClient   httpClient = HttpClientBuilder.create().setDefaultRequestConfig(RequestConfig.custom().setCookieSpec(CookieSpecs.STANDARD).build()).build();
-            HttpResponse response   = httpClient.execute(request);
-            int          status     = response.getStatusLine().getStatusCode();
-            String       answer     = EntityUtils.toString(response.getEntity());
+            MvgHttp.Multipart multipart = new MvgHttp.Multipart()
+                    .addText("pluginId", pluginid)
+                    .addText("channel", channel)
+                    .addFile("file", file);
+            HttpRequest.Builder request = http.request(Info.JETBRAINS_UPLOAD_URL).header("Authorization", "Bearer " + hubtoken);
+
+            HttpResponse<String> response = new HttpUpload(http, HttpUpload.DEFAULT_BACKOFF, "plugin " + pluginid).post(request, multipart);
+            int                  status   = response.statusCode();
+            String               answer   = response.body();
 
             LOGGER.info("+ mvg: upload plugin to JetBrains returned: HTTP {} {}", status, answer);
 
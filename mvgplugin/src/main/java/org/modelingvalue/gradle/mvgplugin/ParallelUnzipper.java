@@ -0,0 +1,151 @@
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+//  (C) Copyright 2018-2026 Modeling Value Group B.V. (http://modelingvalue.org)                                         ~
+//                                                                                                                       ~
+//  Licensed under the GNU Lesser General Public License v3.0 (the 'License'). You may not use this file except in       ~
+//  compliance with the License. You may obtain a copy of the License at: https://choosealicense.com/licenses/lgpl-3.0   ~
+//  Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on  ~
+//  an 'AS IS' BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the   ~
+//  specific language governing permissions and limitations under the License.                                           ~
+//                                                                                                                       ~
+//  Maintainers:                                                                                                         ~
+//      Wim Bast, Tom Brus                                                                                               ~
+//                                                                                                                       ~
+//  Contributors:                                                                                                        ~
+//      Ronald Krijgsheld ✝, Arjan Kok, Carel Bast                                                                       ~
+// --------------------------------------------------------------------------------------------------------------------- ~
+//  In Memory of Ronald Krijgsheld, 1972 - 2023                                                                          ~
+//      Ronald was suddenly and unexpectedly taken from us. He was not only our long-term colleague and team member      ~
+//      but also our friend. "He will live on in many of the lines of code you see below."                               ~
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+package org.modelingvalue.gradle.mvgplugin;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * extracts a zip file with multiple threads.
+ * <p>
+ * The central directory of the zip is read once, all needed directories are created up front and then the
+ * entries are inflated in parallel through the random access of {@link ZipFile}, biggest entries first so that
+ * one big entry at the end does not keep the whole extraction waiting. A filter on the entry names makes it
+ * possible to extract only what is really needed.
+ */
+public class ParallelUnzipper {
+    public static final  int DEFAULT_PARALLELISM = Math.max(2, Runtime.getRuntime().availableProcessors());
+    private static final int BUFFER_SIZE         = 256 * 1024;
+
+    private static final ThreadLocal<byte[]> BUFFERS = ThreadLocal.withInitial(() -> new byte[BUFFER_SIZE]);
+
+    public record Result(int numFiles, long numBytes, int numSkipped) {
+    }
+
+    private final int parallelism;
+
+    public ParallelUnzipper(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    public ParallelUnzipper() {
+        this(DEFAULT_PARALLELISM);
+    }
+
+    /**
+     * @param zip     the zip file to extract
+     * @param destDir the dir to extract into
+     * @param filter  selects the entries (by name) that should be extracted
+     * @return what was extracted
+     * @throws IOException when the zip can not be read, an entry points outside the destDir or a file can not be written
+     */
+    public Result unzip(Path zip, Path destDir, Predicate<String> filter) throws IOException {
+        Path root = destDir.toAbsolutePath().normalize();
+        try (ZipFile zipFile = new ZipFile(zip.toFile())) {
+            List<ZipEntry> files   = new ArrayList<>();
+            TreeSet<Path>  dirs    = new TreeSet<>();
+            int            skipped = 0;
+            for (ZipEntry entry : zipFile.stream().toList()) {
+                Path target = root.resolve(entry.getName()).normalize();
+                if (!target.startsWith(root) || target.equals(root)) {
+                    throw new IOException("Entry is outside of the target dir: " + entry.getName());
+                }
+                if (!filter.test(entry.getName())) {
+                    skipped++;
+                } else if (entry.isDirectory()) {
+                    dirs.add(target);
+                } else {
+                    dirs.add(target.getParent()); // fix for Windows-created archives that have no dir entries
+                    files.add(entry);
+                }
+            }
+            for (Path dir : dirs.descendingSet()) {
+                if (!Files.isDirectory(dir)) {
+                    Files.createDirectories(dir);
+                }
+            }
+            files.sort(Comparator.comparingLong(ZipEntry::getSize).reversed());
+            return new Result(files.size(), extract(zipFile, root, files), skipped);
+        }
+    }
+
+    private long extract(ZipFile zipFile, Path root, List<ZipEntry> files) throws IOException {
+        if (files.isEmpty()) {
+            return 0;
+        }
+        AtomicLong      numBytes = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, files.size()), r -> {
+            Thread t = new Thread(r, "mvg-unzip");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (ZipEntry entry : files) {
+                futures.add(executor.submit(() -> {
+                    numBytes.addAndGet(extract(zipFile, entry, root.resolve(entry.getName())));
+                    return null;
+                }));
+            }
+            for (Future<?> f : futures) {
+                f.get();
+            }
+            return numBytes.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException("unzip failed: " + e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted while unzipping " + zipFile.getName(), e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static long extract(ZipFile zipFile, ZipEntry entry, Path target) throws IOException {
+        byte[] buffer = BUFFERS.get();
+        long   total  = 0;
+        try (InputStream in = zipFile.getInputStream(entry); OutputStream out = Files.newOutputStream(target)) {
+            for (int len; 0 < (len = in.readNBytes(buffer, 0, buffer.length)); ) {
+                out.write(buffer, 0, len);
+                total += len;
+            }
+        }
+        return total;
+    }
+}
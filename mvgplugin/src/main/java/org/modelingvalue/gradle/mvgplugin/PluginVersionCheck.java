@@ -0,0 +1,142 @@
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+//  (C) Copyright 2018-2026 Modeling Value Group B.V. (http://modelingvalue.org)                                         ~
+//                                                                                                                       ~
+//  Licensed under the GNU Lesser General Public License v3.0 (the 'License'). You may not use this file except in       ~
+//  compliance with the License. You may obtain a copy of the License at: https://choosealicense.com/licenses/lgpl-3.0   ~
+//  Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on  ~
+//  an 'AS IS' BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the   ~
+//  specific language governing permissions and limitations under the License.                                           ~
+//                                                                                                                       ~
+//  Maintainers:                                                                                                         ~
+//      Wim Bast, Tom Brus                                                                                               ~
+//                                                                                                                       ~
+//  Contributors:                                                                                                        ~
+//      Ronald Krijgsheld ✝, Arjan Kok, Carel Bast                                                                       ~
+// --------------------------------------------------------------------------------------------------------------------- ~
+//  In Memory of Ronald Krijgsheld, 1972 - 2023                                                                          ~
+//      Ronald was suddenly and unexpectedly taken from us. He was not only our long-term colleague and team member      ~
+//      but also our friend. "He will live on in many of the lines of code you see below."                               ~
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+package org.modelingvalue.gradle.mvgplugin;
+
+import static org.modelingvalue.gradle.mvgplugin.Info.LOGGER;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Properties;
+
+/**
+ * checks if the running plugin is the latest published version.
+ * <p>
+ * The latest version is remembered in a cache file for a while so most builds do not go to the network at all.
+ * When the cache is stale the metadata is fetched on a background thread with a short timeout: configuration
+ * never waits for it and an offline build only misses the warning.
+ * The build may well be finished before the answer comes, so the thread does not use any build scoped service
+ * (like {@link MvgHttp}) but its own short-lived http client.
+ */
+public class PluginVersionCheck {
+    public static final  Path     DEFAULT_CACHE_FILE = Path.of(System.getProperty("user.home"), ".gradle", "caches", "mvgplugin", "latest-version.properties");
+    public static final  Duration DEFAULT_TTL        = Duration.ofHours(12);
+    public static final  Duration DEFAULT_TIMEOUT    = Duration.ofSeconds(5);
+    private static final String   LATEST             = "latest";
+    private static final String   CHECKED_AT         = "checkedAt";
+
+    private final String   metaUrl;
+    private final Path     cacheFile;
+    private final Duration ttl;
+    private final Duration timeout;
+
+    public PluginVersionCheck(String metaUrl, Path cacheFile, Duration ttl, Duration timeout) {
+        this.metaUrl = metaUrl;
+        this.cacheFile = cacheFile;
+        this.ttl = ttl;
+        this.timeout = timeout;
+    }
+
+    public PluginVersionCheck() {
+        this(Info.PLUGIN_META_URL, DEFAULT_CACHE_FILE, DEFAULT_TTL, DEFAULT_TIMEOUT);
+    }
+
+    /**
+     * @param running the version of the running plugin
+     * @return the thread that fetches the latest version or null if the cached version was recent enough
+     */
+    public Thread check(Version running) {
+        Properties cached = readCache();
+        if (cached != null && isFresh(cached)) {
+            report(running, new Version(cached.getProperty(LATEST)), "cached");
+            return null;
+        }
+        Thread t = new Thread(() -> {
+            MavenMetaVersionExtractor extractor;
+            try (HttpClient client = HttpClient.newBuilder().connectTimeout(timeout).followRedirects(HttpClient.Redirect.NORMAL).build()) {
+                extractor = new MavenMetaVersionExtractor(client, metaUrl, timeout);
+            }
+            if (!extractor.error() && extractor.getLatest() != null && extractor.getLatest().valid()) {
+                writeCache(extractor.getLatest());
+                report(running, extractor.getLatest(), "fetched");
+            } else if (cached != null) {
+                report(running, new Version(cached.getProperty(LATEST)), "cached, stale");
+            } else {
+                LOGGER.warn("+ mvg: can not determine if using the latest version of mvg plugin: metainfo of myself not readable ({}, msg={})", metaUrl, extractor.error() ? extractor.getException().getMessage() : "no latest version");
+            }
+        }, "mvg-version-check");
+        t.setDaemon(true);
+        t.start();
+        return t;
+    }
+
+    private static void report(Version running, Version latest, String source) {
+        if (!latest.equals(running)) {
+            LOGGER.warn("+ mvg: NOT using the latest mvg plugin version (using {}, latest is {}, {})", running, latest, source);
+        } else {
+            LOGGER.info("+ mvg: OK: using the latest mvg plugin version ({}, {})", running, source);
+        }
+    }
+
+    private boolean isFresh(Properties cached) {
+        try {
+            return new Version(cached.getProperty(LATEST)).valid()
+                    && Instant.now().isBefore(Instant.parse(cached.getProperty(CHECKED_AT)).plus(ttl));
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    private Properties readCache() {
+        if (!Files.isRegularFile(cacheFile)) {
+            return null;
+        }
+        Properties props = new Properties();
+        try (Reader r = Files.newBufferedReader(cacheFile)) {
+            props.load(r);
+            return props.getProperty(LATEST) == null ? null : props;
+        } catch (IOException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private void writeCache(Version latest) {
+        Properties props = new Properties();
+        props.setProperty(LATEST, latest.get());
+        props.setProperty(CHECKED_AT, Instant.now().toString());
+        Path tmp = cacheFile.resolveSibling(cacheFile.getFileName() + ".tmp-" + ProcessHandle.current().pid());
+        try {
+            Files.createDirectories(cacheFile.getParent());
+            try (Writer w = Files.newBufferedWriter(tmp)) {
+                props.store(w, "latest version of " + Info.PLUGIN_NAME);
+            }
+            Files.move(tmp, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOGGER.info("+ mvg: could not write the version cache {} ({})", cacheFile, e.getMessage());
+        }
+    }
+}
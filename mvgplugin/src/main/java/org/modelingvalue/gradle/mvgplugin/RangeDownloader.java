@@ -0,0 +1,297 @@
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+//  (C) Copyright 2018-2026 Modeling Value Group B.V. (http://modelingvalue.org)                                         ~
+//                                                                                                                       ~
+//  Licensed under the GNU Lesser General Public License v3.0 (the 'License'). You may not use this file except in       ~
+//  compliance with the License. You may obtain a copy of the License at: https://choosealicense.com/licenses/lgpl-3.0   ~
+//  Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on  ~
+//  an 'AS IS' BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the   ~
+//  specific language governing permissions and limitations under the License.                                           ~
+//                                                                                                                       ~
+//  Maintainers:                                                                                                         ~
+//      Wim Bast, Tom Brus                                                                                               ~
+//                                                                                                                       ~
+//  Contributors:                                                                                                        ~
+//      Ronald Krijgsheld ✝, Arjan Kok, Carel Bast                                                                       ~
+// --------------------------------------------------------------------------------------------------------------------- ~
+//  In Memory of Ronald Krijgsheld, 1972 - 2023                                                                          ~
+//      Ronald was suddenly and unexpectedly taken from us. He was not only our long-term colleague and team member      ~
+//      but also our friend. "He will live on in many of the lines of code you see below."                               ~
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+package org.modelingvalue.gradle.mvgplugin;
+
+import static org.modelingvalue.gradle.mvgplugin.Info.LOGGER;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * downloads big files with parallel http range requests.
+ * <p>
+ * The file is written into a {@code .part} file next to the target, every range straight to its own position in that file.
+ * The ranges that are completed are administrated in a {@code .part.state} file, so a download that was broken off
+ * (network problem, killed build) is resumed where it was left. Only after the complete file is there (and its sha256 is ok,
+ * if one was given) it is moved atomically to the target, so the target is never a partial or corrupt file.
+ * Servers that do not support ranges get a plain single stream download.
+ */
+public class RangeDownloader {
+    public static final  int     DEFAULT_PARALLELISM = 4;
+    public static final  long    DEFAULT_PART_SIZE   = 32L * 1024 * 1024;
+    public static final  Backoff DEFAULT_BACKOFF     = new Backoff(5, 1_000, 30_000);
+    private static final String  PART_EXTENSION      = ".part";
+    private static final String  STATE_EXTENSION     = ".part.state";
+    private static final int     BLOCK_SIZE          = 256 * 1024;
+
+    private final MvgHttp http;
+    private final int     parallelism;
+    private final long    partSize;
+    private final Backoff backoff;
+
+    /**
+     * what a HEAD request tells about a remote file (url is the url after redirects, length is -1 when unknown).
+     */
+    public record Remote(String url, long length, String etag, boolean ranges) {
+    }
+
+    public RangeDownloader(MvgHttp http, int parallelism, long partSize, Backoff backoff) {
+        this.http = http;
+        this.parallelism = Math.max(1, parallelism);
+        this.partSize = partSize;
+        this.backoff = backoff;
+    }
+
+    public RangeDownloader(MvgHttp http) {
+        this(http, DEFAULT_PARALLELISM, DEFAULT_PART_SIZE, DEFAULT_BACKOFF);
+    }
+
+    /**
+     * @param url            the url to download
+     * @param target         the file to download to, it is only created when the download is complete and correct
+     * @param expectedSha256 the sha256 (hex) the file should have or null if it can not be checked
+     * @return what the server told about the file
+     * @throws IOException when the download failed, the partial download is kept to resume the next time
+     */
+    public Remote download(String url, Path target, String expectedSha256) throws IOException {
+        long   t0     = System.currentTimeMillis();
+        Path   part   = target.resolveSibling(target.getFileName() + PART_EXTENSION);
+        Path   state  = target.resolveSibling(target.getFileName() + STATE_EXTENSION);
+        Remote remote = probe(url);
+        Files.createDirectories(target.getParent());
+        if (remote.ranges && 0 < remote.length) {
+            downloadRanges(remote, part, state);
+        } else {
+            LOGGER.info("+ mvg-download: {} does not support range requests, downloading in one stream", url);
+            Files.deleteIfExists(state);
+            downloadWhole(remote, part);
+        }
+        long size = Files.size(part);
+        if (0 < remote.length && size != remote.length) {
+            discard(part, state);
+            throw new IOException("download of " + url + " has the wrong size: " + size + " instead of " + remote.length);
+        }
+        if (expectedSha256 != null) {
+            String sha256 = Hash.checksums(part, List.of(Hash.SHA256)).get(Hash.SHA256);
+            if (!sha256.equalsIgnoreCase(expectedSha256)) {
+                discard(part, state);
+                throw new IOException("download of " + url + " is corrupt: sha256 is " + sha256 + " but should be " + expectedSha256);
+            }
+            LOGGER.info("+ mvg-download: sha256 of {} verified", target.getFileName());
+        }
+        Files.move(part, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Files.deleteIfExists(state);
+        LOGGER.info("+ mvg-download: downloaded {} bytes from {} in {} ms", size, url, System.currentTimeMillis() - t0);
+        return remote;
+    }
+
+    public Remote probe(String url) throws IOException {
+        HttpResponse<Void> response = http.send(http.request(url).method("HEAD", HttpRequest.BodyPublishers.noBody()).build(), HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() < 200 || 300 <= response.statusCode()) {
+            throw new IOException("HEAD of " + url + " gave HTTP " + response.statusCode());
+        }
+        if (!response.uri().toString().equals(url)) {
+            LOGGER.info("+ mvg-download: redirect => {}", response.uri());
+        }
+        return new Remote(response.uri().toString(),
+                response.headers().firstValueAsLong("Content-Length").orElse(-1),
+                response.headers().firstValue("ETag").orElse(""),
+                response.headers().firstValue("Accept-Ranges").map(v -> v.contains("bytes")).orElse(false));
+    }
+
+    private void downloadRanges(Remote remote, Path part, Path state) throws IOException {
+        int           numParts = (int) ((remote.length + partSize - 1) / partSize);
+        Properties    done     = readState(remote, part, state);
+        List<Integer> todo     = new ArrayList<>();
+        for (int i = 0; i < numParts; i++) {
+            if (done.getProperty("done." + i) == null) {
+                todo.add(i);
+            }
+        }
+        if (todo.size() < numParts) {
+            LOGGER.info("+ mvg-download: resuming download of {}: {} of {} parts already there", remote.url, numParts - todo.size(), numParts);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, Math.max(1, todo.size())), r -> {
+            Thread t = new Thread(r, "mvg-download");
+            t.setDaemon(true);
+            return t;
+        });
+        try (FileChannel channel = FileChannel.open(part, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i : todo) {
+                futures.add(executor.submit(() -> {
+                    downloadRange(remote, channel, i);
+                    markDone(done, state, i);
+                    return null;
+                }));
+            }
+            for (Future<?> f : futures) {
+                f.get();
+            }
+            if (channel.size() != remote.length) {
+                channel.truncate(remote.length);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw (IOException) new InterruptedIOException("interrupted while downloading " + remote.url).initCause(e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException io ? io : new IOException("download of " + remote.url + " failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void downloadRange(Remote remote, FileChannel channel, int i) throws IOException, InterruptedException {
+        long        from    = i * partSize;
+        long        to      = Math.min(remote.length, from + partSize) - 1;
+        HttpRequest request = http.request(remote.url).header("Range", "bytes=" + from + "-" + to).GET().build();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                HttpResponse<InputStream> response = http.send(request, HttpResponse.BodyHandlers.ofInputStream());
+                try (InputStream in = response.body()) {
+                    if (response.statusCode() != 206) {
+                        throw new IOException("range request " + from + "-" + to + " of " + remote.url + " gave HTTP " + response.statusCode());
+                    }
+                    long written = copy(in, channel, from);
+                    if (written != to - from + 1) {
+                        throw new IOException("range request " + from + "-" + to + " of " + remote.url + " gave " + written + " bytes");
+                    }
+                    return;
+                }
+            } catch (InterruptedIOException e) {
+                throw e;
+            } catch (IOException e) {
+                if (!backoff.mayRetry(attempt)) {
+                    throw e;
+                }
+                LOGGER.info("+ mvg-download: part {} of {} failed (attempt {}: {}), retrying", i, remote.url, attempt, e.getMessage());
+                backoff.sleep(attempt, 0, http.metrics());
+            }
+        }
+    }
+
+    private void downloadWhole(Remote remote, Path part) throws IOException {
+        HttpRequest request = http.request(remote.url).GET().build();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                HttpResponse<Path> response = http.send(request, HttpResponse.BodyHandlers.ofFile(part));
+                if (response.statusCode() < 200 || 300 <= response.statusCode()) {
+                    throw new IOException("download of " + remote.url + " gave HTTP " + response.statusCode());
+                }
+                return;
+            } catch (InterruptedIOException e) {
+                throw e;
+            } catch (IOException e) {
+                if (!backoff.mayRetry(attempt)) {
+                    throw e;
+                }
+                LOGGER.info("+ mvg-download: download of {} failed (attempt {}: {}), retrying", remote.url, attempt, e.getMessage());
+                try {
+                    backoff.sleep(attempt, 0, http.metrics());
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw (IOException) new InterruptedIOException("interrupted while downloading " + remote.url).initCause(ie);
+                }
+            }
+        }
+    }
+
+    private static long copy(InputStream in, FileChannel channel, long position) throws IOException {
+        byte[]     block  = new byte[BLOCK_SIZE];
+        ByteBuffer buffer = ByteBuffer.wrap(block);
+        long       pos    = position;
+        for (int length; (length = in.read(block)) > 0; ) {
+            buffer.clear().limit(length);
+            while (buffer.hasRemaining()) {
+                pos += channel.write(buffer, pos);
+            }
+        }
+        return pos - position;
+    }
+
+    // the state is only valid for the same remote file (same size and etag) and the same part size
+    private Properties readState(Remote remote, Path part, Path state) throws IOException {
+        Properties props = new Properties();
+        if (Files.isRegularFile(state) && Files.isRegularFile(part)) {
+            try (Reader r = Files.newBufferedReader(state)) {
+                props.load(r);
+            }
+            if (!Objects.equals(props.getProperty("length"), Long.toString(remote.length))
+                    || !Objects.equals(props.getProperty("etag"), remote.etag)
+                    || !Objects.equals(props.getProperty("partSize"), Long.toString(partSize))) {
+                LOGGER.info("+ mvg-download: partial download of {} is from another version, starting over", remote.url);
+                props.clear();
+            }
+        }
+        if (props.isEmpty()) {
+            Files.deleteIfExists(part);
+            props.setProperty("length", Long.toString(remote.length));
+            props.setProperty("etag", remote.etag);
+            props.setProperty("partSize", Long.toString(partSize));
+            writeState(props, state);
+        }
+        return props;
+    }
+
+    private static void markDone(Properties props, Path state, int i) {
+        synchronized (props) {
+            props.setProperty("done." + i, "true");
+            try {
+                writeState(props, state);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private static void writeState(Properties props, Path state) throws IOException {
+        Path tmp = state.resolveSibling(state.getFileName() + ".tmp");
+        try (Writer w = Files.newBufferedWriter(tmp)) {
+            props.store(w, "partial download state of " + Info.PLUGIN_NAME);
+        }
+        Files.move(tmp, state, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void discard(Path part, Path state) throws IOException {
+        Files.deleteIfExists(part);
+        Files.deleteIfExists(state);
+    }
+}
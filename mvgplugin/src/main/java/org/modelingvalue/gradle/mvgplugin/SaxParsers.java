@@ -0,0 +1,116 @@
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+//  (C) Copyright 2018-2026 Modeling Value Group B.V. (http://modelingvalue.org)                                         ~
+//                                                                                                                       ~
+//  Licensed under the GNU Lesser General Public License v3.0 (the 'License'). You may not use this file except in       ~
+//  compliance with the License. You may obtain a copy of the License at: https://choosealicense.com/licenses/lgpl-3.0   ~
+//  Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on  ~
+//  an 'AS IS' BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the   ~
+//  specific language governing permissions and limitations under the License.                                           ~
+//                                                                                                                       ~
+//  Maintainers:                                                                                                         ~
+//      Wim Bast, Tom Brus                                                                                               ~
+//                                                                                                                       ~
+//  Contributors:                                                                                                        ~
+//      Ronald Krijgsheld ✝, Arjan Kok, Carel Bast                                                                       ~
+// --------------------------------------------------------------------------------------------------------------------- ~
+//  In Memory of Ronald Krijgsheld, 1972 - 2023                                                                          ~
+//      Ronald was suddenly and unexpectedly taken from us. He was not only our long-term colleague and team member      ~
+//      but also our friend. "He will live on in many of the lines of code you see below."                               ~
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+package org.modelingvalue.gradle.mvgplugin;
+
+import static org.modelingvalue.gradle.mvgplugin.Info.LOGGER;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * a pool of SAX parsers for all xml scanning in the plugin.
+ * <p>
+ * Looking up a {@link SAXParserFactory} goes through service loading and creating a parser is not cheap either,
+ * which adds up when thousands of files are scanned. The parsers from this pool are namespace unaware,
+ * non-validating and never load external entities or DTDs, so scanning a file can not reach out to the network
+ * or the file system. After use a parser is reset and returned to the pool.
+ */
+public final class SaxParsers {
+    private static final int                              MAX_POOLED = 2 * Runtime.getRuntime().availableProcessors();
+    private static final SAXParserFactory                 FACTORY    = makeFactory();
+    private static final ConcurrentLinkedQueue<SAXParser> POOL       = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger                    POOL_SIZE  = new AtomicInteger();
+
+    private SaxParsers() {
+    }
+
+    public static void parse(Path file, DefaultHandler handler) throws IOException, SAXException {
+        try (InputStream in = Files.newInputStream(file)) {
+            parse(in, handler);
+        }
+    }
+
+    public static void parse(InputStream in, DefaultHandler handler) throws IOException, SAXException {
+        SAXParser parser = borrow();
+        try {
+            parser.parse(in, handler);
+        } finally {
+            giveBack(parser); // also when the handler stopped the parse by throwing: reset() makes the parser as good as new
+        }
+    }
+
+    private static SAXParser borrow() throws SAXException {
+        SAXParser parser = POOL.poll();
+        if (parser != null) {
+            POOL_SIZE.decrementAndGet();
+            return parser;
+        }
+        try {
+            return FACTORY.newSAXParser();
+        } catch (ParserConfigurationException e) {
+            throw new SAXException("can not create a SAX parser", e);
+        }
+    }
+
+    private static void giveBack(SAXParser parser) {
+        try {
+            parser.reset();
+        } catch (UnsupportedOperationException e) {
+            return;
+        }
+        if (POOL_SIZE.incrementAndGet() <= MAX_POOLED) {
+            POOL.offer(parser);
+        } else {
+            POOL_SIZE.decrementAndGet();
+        }
+    }
+
+    private static SAXParserFactory makeFactory() {
+        SAXParserFactory factory = SAXParserFactory.newInstance();
+        factory.setNamespaceAware(false);
+        factory.setValidating(false);
+        setFeature(factory, XMLConstants.FEATURE_SECURE_PROCESSING, true);
+        setFeature(factory, "http://xml.org/sax/features/external-general-entities", false);
+        setFeature(factory, "http://xml.org/sax/features/external-parameter-entities", false);
+        setFeature(factory, "http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
+        return factory;
+    }
+
+    private static void setFeature(SAXParserFactory factory, String feature, boolean value) {
+        try {
+            factory.setFeature(feature, value);
+        } catch (ParserConfigurationException | SAXException e) {
+            LOGGER.info("+ mvg: the SAX parser does not support feature {} ({})", feature, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,161 @@
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+//  (C) Copyright 2018-2026 Modeling Value Group B.V. (http://modelingvalue.org)                                         ~
+//                                                                                                                       ~
+//  Licensed under the GNU Lesser General Public License v3.0 (the 'License'). You may not use this file except in       ~
+//  compliance with the License. You may obtain a copy of the License at: https://choosealicense.com/licenses/lgpl-3.0   ~
+//  Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on  ~
+//  an 'AS IS' BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the   ~
+//  specific language governing permissions and limitations under the License.                                           ~
+//                                                                                                                       ~
+//  Maintainers:                                                                                                         ~
+//      Wim Bast, Tom Brus                                                                                               ~
+//                                                                                                                       ~
+//  Contributors:                                                                                                        ~
+//      Ronald Krijgsheld ✝, Arjan Kok, Carel Bast                                                                       ~
+// --------------------------------------------------------------------------------------------------------------------- ~
+//  In Memory of Ronald Krijgsheld, 1972 - 2023                                                                          ~
+//      Ronald was suddenly and unexpectedly taken from us. He was not only our long-term colleague and team member      ~
+//      but also our friend. "He will live on in many of the lines of code you see below."                               ~
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+package org.modelingvalue.gradle.mvgplugin;
+
+import static org.modelingvalue.gradle.mvgplugin.Info.LOGGER;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * an immutable directory that is shared between builds, projects and processes (e.g. an unpacked distribution under ~/.gradle/caches).
+ * <p>
+ * The directory is populated only once: under a cross process file lock into a temporary sibling that is
+ * made read-only and then published with an atomic rename. A directory that exists is therefore always complete
+ * and can not be changed by accident anymore; readers do not need the lock.
+ */
+public class SharedInstall {
+    private static final String LOCK_EXTENSION = ".lock";
+    private static final String TMP_INFIX      = ".tmp-";
+    private static final long   LOCK_POLL_MS   = 200;
+
+    @FunctionalInterface
+    public interface Populator {
+        void populate(Path tmpDir) throws IOException;
+    }
+
+    @FunctionalInterface
+    public interface Locked<T> {
+        T run() throws IOException;
+    }
+
+    private SharedInstall() {
+    }
+
+    /**
+     * @param dir       the shared dir
+     * @param populator fills the (empty) temporary dir, only called when the shared dir does not exist yet
+     * @return true if this call populated the dir, false if it was already there
+     * @throws IOException when the dir could not be populated
+     */
+    public static boolean install(Path dir, Populator populator) throws IOException {
+        if (Files.isDirectory(dir)) {
+            return false;
+        }
+        return withLock(dir, () -> {
+            if (Files.isDirectory(dir)) {
+                LOGGER.info("+ mvg: shared dir {} was installed by another build while waiting", dir);
+                return false;
+            }
+            Path tmp = dir.toAbsolutePath().resolveSibling(dir.getFileName() + TMP_INFIX + ProcessHandle.current().pid());
+            deleteRecursively(tmp);
+            try {
+                Files.createDirectories(tmp);
+                populator.populate(tmp);
+                makeReadOnly(tmp);
+                Files.move(tmp, dir, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                deleteRecursively(tmp);
+            }
+            return true;
+        });
+    }
+
+    /**
+     * runs an action under the cross process lock that {@link #install} takes for the dir, for work that a populator
+     * of the dir also does outside the dir (e.g. downloading the file it is unpacked from).
+     *
+     * @param dir    the shared dir
+     * @param action the action to run while holding the lock
+     * @return the outcome of the action
+     * @throws IOException when the lock could not be taken or the action failed
+     */
+    public static <T> T withLock(Path dir, Locked<T> action) throws IOException {
+        Path parent = dir.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        try (FileChannel channel = FileChannel.open(parent.resolve(dir.getFileName() + LOCK_EXTENSION), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+             FileLock ignored = lock(channel, dir)) {
+            return action.run();
+        }
+    }
+
+    // the lock is per process, other threads of this process (e.g. a build in another classloader) get an OverlappingFileLockException:
+    private static FileLock lock(FileChannel channel, Path dir) throws IOException {
+        boolean logged = false;
+        while (true) {
+            try {
+                FileLock lock = channel.tryLock();
+                if (lock != null) {
+                    return lock;
+                }
+            } catch (OverlappingFileLockException e) {
+                // same process: wait as well
+            }
+            if (!logged) {
+                LOGGER.info("+ mvg: waiting for another build that is installing {}", dir);
+                logged = true;
+            }
+            try {
+                Thread.sleep(LOCK_POLL_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("interrupted while waiting for the lock on " + dir);
+            }
+        }
+    }
+
+    private static void makeReadOnly(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path p : paths.toList()) {
+                if (!p.toFile().setWritable(false, false)) {
+                    throw new IOException("could not make " + p + " read-only");
+                }
+            }
+        }
+    }
+
+    // the dirs are made writable first, otherwise the entries of a (read-only) shared dir can not be deleted:
+    static void deleteRecursively(Path dir) throws IOException {
+        if (Files.exists(dir)) {
+            try (Stream<Path> paths = Files.walk(dir)) {
+                for (Path p : paths.filter(Files::isDirectory).toList()) {
+                    if (!p.toFile().setWritable(true, true)) {
+                        throw new IOException("could not make " + p + " writable to delete it");
+                    }
+                }
+            }
+            try (Stream<Path> paths = Files.walk(dir)) {
+                for (Path p : paths.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(p);
+                }
+            }
+        }
+    }
+}
@@ -34,8 +34,8 @@ public abstract class TreeCorrector extends Corrector {
     private final Path        root;
     private final Set<String> excludes;
 
-    public TreeCorrector(String name, Path root, Set<String> excludes) {
-        super(name);
+    public TreeCorrector(String name, Path root, Set<String> excludes, MvgMetrics metrics) {
+        super(name, metrics);
         this.root = root;
         this.excludes = excludes;
         if (LOGGER.isDebugEnabled()) {
@@ -45,7 +45,7 @@ public abstract class TreeCorrector extends Corrector {
     }
 
     protected Stream<Path> allFiles() throws IOException {
-        return Files.walk(root).filter(this::filter);
+        return Files.walk(root).filter(this::filter).peek(p -> metrics.count(MvgMetrics.FILES_SCANNED));
     }
 
     public Path getRoot() {
@@ -57,10 +57,24 @@ public abstract class TreeCorrector extends Corrector {
     }
 
     protected boolean filter(Path p) {
-        return Files.isRegularFile(p) && excludes.stream().noneMatch(pattern -> {
-            String p1 = root.relativize(p).toString();
-            String p2 = Paths.get(".").resolve(p1).toString();
-            return p1.matches(pattern) || p2.matches(pattern);
-        });
+        return Files.isRegularFile(p) && !isExcluded(root, p, excludes);
+    }
+
+    public static boolean isExcluded(Path root, Path p, Set<String> excludes) {
+        String p1 = root.relativize(p).toString();
+        String p2 = Paths.get(".").resolve(p1).toString();
+        return excludes.stream().anyMatch(pattern -> p1.matches(pattern) || p2.matches(pattern));
+    }
+
+    /**
+     * @return true if all files in the dir are excluded, so there is no need to walk into it
+     */
+    public static boolean isExcludedDir(Path root, Path dir, Set<String> excludes) {
+        if (root.equals(dir)) {
+            return false;
+        }
+        String p1 = root.relativize(dir) + "/";
+        String p2 = Paths.get(".").resolve(p1) + "/";
+        return excludes.stream().filter(pattern -> pattern.endsWith("/.*")).anyMatch(pattern -> p1.matches(pattern) || p2.matches(pattern));
     }
 }
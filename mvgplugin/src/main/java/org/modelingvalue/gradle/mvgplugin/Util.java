@@ -30,7 +30,7 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.UnknownHostException;
-import java.nio.charset.StandardCharsets;
+import java.net.http.HttpResponse;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Arrays;
@@ -48,12 +48,14 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 
 public class Util {
-    public static final int    NUM_CHARS_TO_SHOW_OF_SECRETS = 6;
-    public static final String TEST_MARKER_REPLACE_DONE     = getTestMarker("r+");
-    public static final String TEST_MARKER_REPLACE_NOT_DONE = getTestMarker("r-");
-    public static final String TEST_MARKER_TRIGGER          = getTestMarker("!");
-    public static final String TEST_MARKER_TESTING          = getTestMarker("TESTING");
-    public static final String TEST_MARKER_TRIGGERING       = getTestMarker("triggering");
+    public static final  int          NUM_CHARS_TO_SHOW_OF_SECRETS = 6;
+    public static final  String       TEST_MARKER_REPLACE_DONE     = getTestMarker("r+");
+    public static final  String       TEST_MARKER_REPLACE_NOT_DONE = getTestMarker("r-");
+    public static final  String       TEST_MARKER_TRIGGER          = getTestMarker("!");
+    public static final  String       TEST_MARKER_TESTING          = getTestMarker("TESTING");
+    public static final  String       TEST_MARKER_TRIGGERING       = getTestMarker("triggering");
+    // reading into plain maps needs no modules, so no (slow) module discovery either:
+    private static final ObjectMapper YAML_MAPPER                  = new ObjectMapper(new YAMLFactory());
 
     private static String getTestMarker(String m) {
         return "•" + m + "•";
@@ -83,9 +85,13 @@ public class Util {
         }
     }
 
-    public static List<String> download(URL url) {
-        try (InputStream in = url.openStream()) {
-            return Arrays.asList(new String(in.readAllBytes(), StandardCharsets.UTF_8).split("\n"));
+    public static List<String> download(MvgHttp http, URL url) {
+        try {
+            HttpResponse<String> response = http.getString(url.toString());
+            if (response.statusCode() < 200 || 300 <= response.statusCode()) {
+                throw new IOException("HTTP " + response.statusCode());
+            }
+            return Arrays.asList(response.body().split("\n"));
         } catch (IOException e) {
             LOGGER.info("+ mvg: failure getting file from: {} ({})", url, e.getMessage());
             return null;
@@ -144,9 +150,7 @@ public class Util {
     }
 
     static Map<?, ?> readYaml(Path path) throws IOException {
-        ObjectMapper objectMapper = new ObjectMapper(new YAMLFactory());
-        objectMapper.findAndRegisterModules();
-        return objectMapper.readValue(path.toFile(), Map.class);
+        return YAML_MAPPER.readValue(path.toFile(), Map.class);
     }
 
     static Version getMyPluginVersion() {
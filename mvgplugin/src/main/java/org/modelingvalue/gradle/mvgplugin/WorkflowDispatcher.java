@@ -0,0 +1,210 @@
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+//  (C) Copyright 2018-2026 Modeling Value Group B.V. (http://modelingvalue.org)                                         ~
+//                                                                                                                       ~
+//  Licensed under the GNU Lesser General Public License v3.0 (the 'License'). You may not use this file except in       ~
+//  compliance with the License. You may obtain a copy of the License at: https://choosealicense.com/licenses/lgpl-3.0   ~
+//  Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on  ~
+//  an 'AS IS' BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the   ~
+//  specific language governing permissions and limitations under the License.                                           ~
+//                                                                                                                       ~
+//  Maintainers:                                                                                                         ~
+//      Wim Bast, Tom Brus                                                                                               ~
+//                                                                                                                       ~
+//  Contributors:                                                                                                        ~
+//      Ronald Krijgsheld ✝, Arjan Kok, Carel Bast                                                                       ~
+// --------------------------------------------------------------------------------------------------------------------- ~
+//  In Memory of Ronald Krijgsheld, 1972 - 2023                                                                          ~
+//      Ronald was suddenly and unexpectedly taken from us. He was not only our long-term colleague and team member      ~
+//      but also our friend. "He will live on in many of the lines of code you see below."                               ~
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+package org.modelingvalue.gradle.mvgplugin;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.modelingvalue.gradle.mvgplugin.Info.LOGGER;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.gradle.api.GradleException;
+
+/**
+ * dispatches github workflows in bulk.
+ * <p>
+ * Identical (repo, workflow) pairs are dispatched only once, the dispatches are done in parallel over the
+ * shared {@link MvgHttp} layer, but with a bounded number of calls in flight and a minimal interval between two calls
+ * to stay clear of the github secondary rate limits. Server errors, rate limit answers and connections that could not be made
+ * are retried with a {@link Backoff}, other I/O failures are not: github may have started the workflow already.
+ */
+public class WorkflowDispatcher {
+    public static final  int      DEFAULT_PARALLELISM  = 4;
+    public static final  Duration DEFAULT_MIN_INTERVAL = Duration.ofMillis(100);
+    public static final  Backoff  DEFAULT_BACKOFF      = new Backoff(5, 1000, 30_000);
+    private static final String   DISPATCH_PATH        = "/repos/%s/%s/actions/workflows/%s/dispatches";
+    private static final String   RATE_LIMIT_REMAINING = "x-ratelimit-remaining";
+    private static final String   RATE_LIMIT_RESET     = "x-ratelimit-reset";
+    private static final String   RETRY_AFTER          = "retry-after";
+
+    public record Dispatch(String repo, String workflow) {
+        @Override
+        public String toString() {
+            return repo + "/" + workflow;
+        }
+    }
+
+    public record Result(Dispatch dispatch, int status, String message, int attempts) {
+        public boolean ok() {
+            return 200 <= status && status < 300;
+        }
+    }
+
+    private final String     apiUrl;
+    private final String     owner;
+    private final String     token;
+    private final MvgHttp    http;
+    private final int        parallelism;
+    private final long       minIntervalMs;
+    private final Backoff    backoff;
+    private       long       nextSlotMs;
+
+    public WorkflowDispatcher(String apiUrl, String owner, String token, MvgHttp http, int parallelism, Duration minInterval, Backoff backoff) {
+        this.apiUrl = apiUrl;
+        this.owner = owner;
+        this.token = token;
+        this.http = http;
+        this.parallelism = Math.max(1, parallelism);
+        this.minIntervalMs = minInterval.toMillis();
+        this.backoff = backoff;
+    }
+
+    public static WorkflowDispatcher forGithub(MvgHttp http) {
+        return new WorkflowDispatcher(GithubApi.API, GithubApi.OWNER, Info.ALLREP_TOKEN.get(), http, DEFAULT_PARALLELISM, DEFAULT_MIN_INTERVAL, DEFAULT_BACKOFF);
+    }
+
+    /**
+     * @param dispatches the workflows to dispatch, duplicates are only dispatched once
+     * @param branch     the branch (ref) to dispatch the workflows on
+     * @return the results in the order of the (deduplicated) dispatches
+     */
+    public List<Result> dispatch(Collection<Dispatch> dispatches, String branch) {
+        List<Dispatch> unique = new ArrayList<>(new LinkedHashSet<>(dispatches));
+        if (unique.isEmpty()) {
+            return List.of();
+        }
+        long t0 = System.currentTimeMillis();
+        LOGGER.info("+ mvg-bbb: dispatching {} workflows ({} requested, parallelism={})", unique.size(), dispatches.size(), parallelism);
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, unique.size()), r -> {
+            Thread t = new Thread(r, "mvg-dispatch");
+            t.setDaemon(true);
+            return t;
+        });
+        try (MvgMetrics.Span ignored = http.metrics().span("github.dispatch")) {
+            List<Future<Result>> futures = new ArrayList<>();
+            for (Dispatch d : unique) {
+                futures.add(executor.submit(() -> dispatch(d, branch)));
+            }
+            List<Result> results = new ArrayList<>();
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    results.add(futures.get(i).get());
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof InterruptedIOException) {
+                        throw new GradleException("interrupted while dispatching workflows", e.getCause());
+                    }
+                    results.add(new Result(unique.get(i), -1, e.getCause().getClass().getSimpleName() + ":" + e.getCause().getMessage(), 0));
+                }
+            }
+            LOGGER.info("+ mvg-bbb: dispatching {} workflows took {} ms", unique.size(), System.currentTimeMillis() - t0);
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GradleException("interrupted while dispatching workflows", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Result dispatch(Dispatch d, String branch) throws InterruptedException, InterruptedIOException {
+        HttpRequest request = http.request(apiUrl + String.format(DISPATCH_PATH, owner, d.repo(), d.workflow()))
+                .header("Authorization", "token " + token)
+                .header("Accept", GithubApi.JSON_FORMAT)
+                .POST(HttpRequest.BodyPublishers.ofString(String.format(GithubApi.REF_IN_JSON_FORMAT, branch), UTF_8))
+                .build();
+        for (int attempt = 1; ; attempt++) {
+            waitForSlot();
+            int    status;
+            String message;
+            long   retryAfterMs = 0;
+            try {
+                HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString(UTF_8));
+                status = response.statusCode();
+                message = response.body();
+                if (!isRetryable(response)) {
+                    return new Result(d, status, message, attempt);
+                }
+                retryAfterMs = retryAfterMs(response);
+            } catch (InterruptedIOException e) {
+                throw e;
+            } catch (ConnectException | HttpConnectTimeoutException e) {
+                // the request never reached github, so it is safe to send it again:
+                status = -1;
+                message = e.getClass().getSimpleName() + ":" + e.getMessage();
+            } catch (IOException e) {
+                // github may have accepted the dispatch already, sending it again could start the workflow twice:
+                return new Result(d, -1, e.getClass().getSimpleName() + ":" + e.getMessage(), attempt);
+            }
+            if (!backoff.mayRetry(attempt) || !backoff.mayWait(retryAfterMs)) {
+                return new Result(d, status, message, attempt);
+            }
+            LOGGER.info("+ mvg-bbb: dispatch of {} failed (attempt {}, status {}), retrying", d, attempt, status);
+            backoff.sleep(attempt, retryAfterMs, http.metrics());
+        }
+    }
+
+    private synchronized void waitForSlot() throws InterruptedException {
+        long now = System.currentTimeMillis();
+        if (now < nextSlotMs) {
+            Thread.sleep(nextSlotMs - now);
+            now = nextSlotMs;
+        }
+        nextSlotMs = now + minIntervalMs;
+    }
+
+    private static boolean isRetryable(HttpResponse<?> response) {
+        int status = response.statusCode();
+        return 500 <= status || status == 429 || (status == 403 && isRateLimited(response));
+    }
+
+    private static boolean isRateLimited(HttpResponse<?> response) {
+        return response.headers().firstValue(RATE_LIMIT_REMAINING).map("0"::equals).orElse(false)
+                || response.headers().firstValue(RETRY_AFTER).isPresent();
+    }
+
+    private static long retryAfterMs(HttpResponse<?> response) {
+        try {
+            if (response.headers().firstValue(RETRY_AFTER).isPresent()) {
+                return Long.parseLong(response.headers().firstValue(RETRY_AFTER).get().trim()) * 1000;
+            }
+            if (response.headers().firstValue(RATE_LIMIT_REMAINING).map("0"::equals).orElse(false)) {
+                long resetEpochSec = Long.parseLong(response.headers().firstValue(RATE_LIMIT_RESET).orElse("0").trim());
+                return Math.max(0, resetEpochSec * 1000 - System.currentTimeMillis());
+            }
+        } catch (NumberFormatException e) {
+            // no usable hint from the server: the backoff will do
+        }
+        return 0;
+    }
+}
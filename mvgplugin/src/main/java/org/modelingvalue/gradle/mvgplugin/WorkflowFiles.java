@@ -0,0 +1,129 @@
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+//  (C) Copyright 2018-2026 Modeling Value Group B.V. (http://modelingvalue.org)                                         ~
+//                                                                                                                       ~
+//  Licensed under the GNU Lesser General Public License v3.0 (the 'License'). You may not use this file except in       ~
+//  compliance with the License. You may obtain a copy of the License at: https://choosealicense.com/licenses/lgpl-3.0   ~
+//  Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on  ~
+//  an 'AS IS' BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the   ~
+//  specific language governing permissions and limitations under the License.                                           ~
+//                                                                                                                       ~
+//  Maintainers:                                                                                                         ~
+//      Wim Bast, Tom Brus                                                                                               ~
+//                                                                                                                       ~
+//  Contributors:                                                                                                        ~
+//      Ronald Krijgsheld ✝, Arjan Kok, Carel Bast                                                                       ~
+// --------------------------------------------------------------------------------------------------------------------- ~
+//  In Memory of Ronald Krijgsheld, 1972 - 2023                                                                          ~
+//      Ronald was suddenly and unexpectedly taken from us. He was not only our long-term colleague and team member      ~
+//      but also our friend. "He will live on in many of the lines of code you see below."                               ~
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+package org.modelingvalue.gradle.mvgplugin;
+
+import static org.modelingvalue.gradle.mvgplugin.Info.LOGGER;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * the github workflow files of the repo, each parsed at most once.
+ * <p>
+ * Several parts of the plugin look at the workflows (the loop guard check, the trigger workflow discovery).
+ * The parsed yaml is shared between them and kept as long as the file does not change (same modification time and size).
+ * The returned yaml maps must be treated as read-only.
+ */
+public class WorkflowFiles {
+    private static final Map<Path, Parsed> PARSED = new ConcurrentHashMap<>();
+
+    private record Parsed(FileTime modified, long size, Map<?, ?> yaml) {
+    }
+
+    private WorkflowFiles() {
+    }
+
+    /**
+     * @return the yaml files in the workflows dir, sorted by name
+     */
+    static List<Path> list(Path workflowsDir) throws IOException {
+        if (!Files.isDirectory(workflowsDir)) {
+            return List.of();
+        }
+        try (Stream<Path> stream = Files.list(workflowsDir)) {
+            return stream.filter(f -> Files.isRegularFile(f) && f.getFileName().toString().matches(".*\\.ya?ml")).sorted().toList();
+        }
+    }
+
+    /**
+     * @param workflowsDir the dir with the workflow files
+     * @param name         the name of the workflow that is looking for its trigger workflows
+     * @return the file names of the dispatchable workflows with the given name, or of all dispatchable workflows if none has that name
+     */
+    public static Set<String> triggerWorkflows(Path workflowsDir, String name) throws IOException {
+        Set<String> dispatchable = new HashSet<>();
+        Set<String> named        = new HashSet<>();
+        for (Path f : list(workflowsDir)) {
+            try {
+                Map<?, ?> yaml = yaml(f);
+                if (isDispatchable(yaml)) {
+                    String fileName = f.getFileName().toString();
+                    dispatchable.add(fileName);
+                    if (Objects.equals(yaml.get("name"), name)) {
+                        named.add(fileName);
+                    }
+                }
+            } catch (IOException e) {
+                LOGGER.info("+ mvg-bbb: skipping unreadable workflow {} ({})", f.getFileName(), e.getMessage());
+            }
+        }
+        return named.isEmpty() ? dispatchable : named;
+    }
+
+    static Map<?, ?> yaml(Path workflow) throws IOException {
+        BasicFileAttributes attrs  = Files.readAttributes(workflow, BasicFileAttributes.class);
+        Parsed              parsed = PARSED.get(workflow);
+        if (parsed == null || !parsed.modified().equals(attrs.lastModifiedTime()) || parsed.size() != attrs.size()) {
+            parsed = new Parsed(attrs.lastModifiedTime(), attrs.size(), Util.readYaml(workflow));
+            PARSED.put(workflow, parsed);
+        }
+        return parsed.yaml();
+    }
+
+    /**
+     * @return the 'on' section of the workflow or null if it has none
+     */
+    static Object onSection(Map<?, ?> yaml) {
+        // Jackson YAML parses 'on' as Boolean.TRUE (YAML 1.1 reserved word)
+        Object onSection = yaml.get(Boolean.TRUE);
+        if (onSection == null) {
+            onSection = yaml.get("on");
+        }
+        return onSection;
+    }
+
+    static boolean isDispatchable(Map<?, ?> yaml) {
+        return hasTrigger(onSection(yaml), "workflow_dispatch");
+    }
+
+    static boolean hasTrigger(Object onSection, String event) {
+        if (onSection instanceof String s) {
+            return s.equals(event);
+        }
+        if (onSection instanceof List<?> list) {
+            return list.contains(event);
+        }
+        if (onSection instanceof Map<?, ?> onMap) {
+            return onMap.containsKey(event);
+        }
+        return false;
+    }
+}
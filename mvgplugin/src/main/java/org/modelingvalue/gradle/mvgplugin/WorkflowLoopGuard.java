@@ -0,0 +1,206 @@
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+//  (C) Copyright 2018-2026 Modeling Value Group B.V. (http://modelingvalue.org)                                         ~
+//                                                                                                                       ~
+//  Licensed under the GNU Lesser General Public License v3.0 (the 'License'). You may not use this file except in       ~
+//  compliance with the License. You may obtain a copy of the License at: https://choosealicense.com/licenses/lgpl-3.0   ~
+//  Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on  ~
+//  an 'AS IS' BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the   ~
+//  specific language governing permissions and limitations under the License.                                           ~
+//                                                                                                                       ~
+//  Maintainers:                                                                                                         ~
+//      Wim Bast, Tom Brus                                                                                               ~
+//                                                                                                                       ~
+//  Contributors:                                                                                                        ~
+//      Ronald Krijgsheld ✝, Arjan Kok, Carel Bast                                                                       ~
+// --------------------------------------------------------------------------------------------------------------------- ~
+//  In Memory of Ronald Krijgsheld, 1972 - 2023                                                                          ~
+//      Ronald was suddenly and unexpectedly taken from us. He was not only our long-term colleague and team member      ~
+//      but also our friend. "He will live on in many of the lines of code you see below."                               ~
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+package org.modelingvalue.gradle.mvgplugin;
+
+import static org.modelingvalue.gradle.mvgplugin.Info.LOGGER;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * checks that the jobs of a workflow that can be triggered by a branch push do not retrigger themselves
+ * (they need an 'if' that contains {@link Info#NO_CI_GUARD}).
+ * <p>
+ * Workflow files rarely change, so the outcome is cached by the sha256 of the workflow file and
+ * an unchanged workflow is not even parsed again. An analysis is cached as a small list of properties
+ * (the job names and their 'if', which may span several lines).
+ */
+public class WorkflowLoopGuard {
+    public static final  Path   DEFAULT_CACHE_FILE = Path.of(System.getProperty("user.home"), ".gradle", "caches", "mvgplugin", "loop-guard.properties");
+    private static final String OK                 = "ok";
+    private static final String SKIP               = "skip:";
+    private static final String UNGUARDED          = "unguarded:";
+    private static final String JOB                = ".job";
+    private static final String IF                 = ".if";
+
+    /**
+     * @param skipReason why the workflow was not checked or null if it was
+     * @param unguarded  the jobs that do not guard against retriggering
+     */
+    public record Analysis(String skipReason, List<Unguarded> unguarded) {
+    }
+
+    public record Unguarded(String job, String theIf) {
+    }
+
+    private final Path       cacheFile;
+    private final String     keySuffix;
+    private final Properties cache = new Properties();
+    private       boolean    cacheChanged;
+
+    public WorkflowLoopGuard(Path cacheFile) {
+        this.cacheFile = cacheFile;
+        // the plugin version and the guard are part of the key: another plugin version might analyse or guard differently
+        this.keySuffix = "-" + Info.PLUGIN_NAME + "-" + Util.getMyPluginVersion() + "-" + Integer.toHexString(Info.NO_CI_GUARD.hashCode());
+        if (Files.isRegularFile(cacheFile)) {
+            try (Reader r = Files.newBufferedReader(cacheFile)) {
+                cache.load(r);
+            } catch (IOException | IllegalArgumentException e) {
+                LOGGER.info("+ mvg: ignoring unreadable loop guard cache {} ({})", cacheFile, e.getMessage());
+                cache.clear();
+            }
+            // entries of other plugin versions will never be used again
+            cacheChanged = cache.keySet().removeIf(k -> !k.toString().contains(keySuffix));
+        }
+    }
+
+    public Analysis analyse(Path workflow) throws IOException {
+        String   key    = Hash.checksums(workflow, List.of(Hash.SHA256)).get(Hash.SHA256) + keySuffix;
+        Analysis cached = decode(key);
+        if (cached != null) {
+            return cached;
+        }
+        Analysis analysis = analyse(WorkflowFiles.yaml(workflow));
+        encode(key, analysis);
+        cacheChanged = true;
+        return analysis;
+    }
+
+    public void saveCache() {
+        if (cacheChanged) {
+            Path tmp = cacheFile.resolveSibling(cacheFile.getFileName() + ".tmp-" + ProcessHandle.current().pid());
+            try {
+                Files.createDirectories(cacheFile.getParent());
+                try (Writer w = Files.newBufferedWriter(tmp)) {
+                    cache.store(w, "workflow loop guard analysis by sha256, " + Info.PLUGIN_NAME);
+                }
+                Files.move(tmp, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                cacheChanged = false;
+            } catch (IOException e) {
+                LOGGER.info("+ mvg: could not write loop guard cache {} ({})", cacheFile, e.getMessage());
+            }
+        }
+    }
+
+    public static Analysis analyse(Map<?, ?> yaml) {
+        Map<?, ?> jobs = (Map<?, ?>) yaml.get("jobs");
+        if (jobs == null) {
+            return new Analysis("no jobs", List.of());
+        }
+        if (!canBeTriggeredByBranchPush(yaml)) {
+            return new Analysis("not triggered by branch pushes", List.of());
+        }
+        List<Unguarded> unguarded = new ArrayList<>();
+        jobs.keySet().forEach(jobName -> {
+            Map<?, ?> job   = (Map<?, ?>) jobs.get(jobName);
+            String    theIf = (String) job.get("if");
+            if (theIf == null || !theIf.contains(Info.NO_CI_GUARD)) {
+                unguarded.add(new Unguarded(String.valueOf(jobName), theIf));
+            }
+        });
+        return new Analysis(null, unguarded);
+    }
+
+    // "<key>=ok", "<key>=skip:<reason>" or "<key>=unguarded:<n>" followed by "<key>.<i>.job" and "<key>.<i>.if" (absent when the job has no if)
+    private void encode(String key, Analysis a) {
+        if (a.skipReason() != null) {
+            cache.setProperty(key, SKIP + a.skipReason());
+        } else if (a.unguarded().isEmpty()) {
+            cache.setProperty(key, OK);
+        } else {
+            cache.setProperty(key, UNGUARDED + a.unguarded().size());
+            for (int i = 0; i < a.unguarded().size(); i++) {
+                Unguarded u = a.unguarded().get(i);
+                cache.setProperty(key + "." + i + JOB, u.job());
+                if (u.theIf() != null) {
+                    cache.setProperty(key + "." + i + IF, u.theIf());
+                }
+            }
+        }
+    }
+
+    // null when the analysis is not (completely) in the cache
+    private Analysis decode(String key) {
+        String s = cache.getProperty(key);
+        if (s == null) {
+            return null;
+        }
+        if (s.startsWith(SKIP)) {
+            return new Analysis(s.substring(SKIP.length()), List.of());
+        }
+        List<Unguarded> unguarded = new ArrayList<>();
+        if (s.startsWith(UNGUARDED)) {
+            int n;
+            try {
+                n = Integer.parseInt(s.substring(UNGUARDED.length()));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+            for (int i = 0; i < n; i++) {
+                String job = cache.getProperty(key + "." + i + JOB);
+                if (job == null) {
+                    return null;
+                }
+                unguarded.add(new Unguarded(job, cache.getProperty(key + "." + i + IF)));
+            }
+        }
+        return new Analysis(null, unguarded);
+    }
+
+    @SuppressWarnings("RedundantIfStatement")
+    private static boolean canBeTriggeredByBranchPush(Map<?, ?> yaml) {
+        Object onSection = WorkflowFiles.onSection(yaml);
+        if (onSection == null) {
+            return false;
+        }
+        // handle: on: push
+        if (onSection instanceof String s) {
+            return s.equals("push");
+        }
+        // handle: on: [push, ...]
+        if (onSection instanceof List<?> list) {
+            return list.contains("push");
+        }
+        if (onSection instanceof Map<?, ?> onMap) {
+            Object pushSection = onMap.get("push");
+            if (pushSection == null) {
+                return false;
+            }
+            if (pushSection instanceof Map<?, ?> pushMap) {
+                boolean hasTags     = pushMap.containsKey("tags") || pushMap.containsKey("tags-ignore");
+                boolean hasBranches = pushMap.containsKey("branches") || pushMap.containsKey("branches-ignore");
+                if (hasTags && !hasBranches) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+}
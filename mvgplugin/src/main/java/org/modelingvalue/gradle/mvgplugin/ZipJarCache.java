@@ -0,0 +1,206 @@
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+//  (C) Copyright 2018-2026 Modeling Value Group B.V. (http://modelingvalue.org)                                         ~
+//                                                                                                                       ~
+//  Licensed under the GNU Lesser General Public License v3.0 (the 'License'). You may not use this file except in       ~
+//  compliance with the License. You may obtain a copy of the License at: https://choosealicense.com/licenses/lgpl-3.0   ~
+//  Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on  ~
+//  an 'AS IS' BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the   ~
+//  specific language governing permissions and limitations under the License.                                           ~
+//                                                                                                                       ~
+//  Maintainers:                                                                                                         ~
+//      Wim Bast, Tom Brus                                                                                               ~
+//                                                                                                                       ~
+//  Contributors:                                                                                                        ~
+//      Ronald Krijgsheld ✝, Arjan Kok, Carel Bast                                                                       ~
+// --------------------------------------------------------------------------------------------------------------------- ~
+//  In Memory of Ronald Krijgsheld, 1972 - 2023                                                                          ~
+//      Ronald was suddenly and unexpectedly taken from us. He was not only our long-term colleague and team member      ~
+//      but also our friend. "He will live on in many of the lines of code you see below."                               ~
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+package org.modelingvalue.gradle.mvgplugin;
+
+import static org.modelingvalue.gradle.mvgplugin.Info.LOGGER;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.gradle.api.invocation.Gradle;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+
+/**
+ * the jars in a distribution zip, available without unzipping the distribution.
+ * <p>
+ * The jars are known from the central directory of the zip alone. A jar is only extracted when it is really
+ * asked for and then into a content addressed cache (keyed by the name and the sha256 of the jar) that is shared
+ * between all builds, so the same jar in another version of the distribution is not extracted again.
+ * The sha256 of every extracted entry is kept in an index per zip in the cache dir, so a jar that is in the cache
+ * already is found without reading it from the zip again. The index belongs to one state of the zip:
+ * it is dropped when the zip changed.
+ * <p>
+ * The zip is opened once and kept open until the cache is closed; in a build that is at the end of the build (see {@link Service}).
+ */
+public class ZipJarCache implements AutoCloseable {
+    private static final String                INDEX_EXTENSION = ".sha256index";
+    private static final String                STAMP_PREFIX    = "# zip ";
+    private static final String                SERVICE_NAME    = "mvgZipJarCaches";
+    //
+    private final        Path                  zip;
+    private final        ZipFile               zipFile;
+    private final        Path                  cacheDir;
+    private final        String                rootPrefix;
+    private final        Map<String, ZipEntry> entries;
+    private final        Path                  indexFile;
+    private final        String                stamp;
+    private final        Map<String, String>   sha256s         = new ConcurrentHashMap<>();
+
+    /**
+     * the zip caches opened during the build, closed at the end of the build.
+     */
+    public abstract static class Service implements BuildService<BuildServiceParameters.None>, AutoCloseable {
+        private final List<ZipJarCache> opened = new ArrayList<>();
+
+        public synchronized ZipJarCache open(Path zip, String rootDir, Path cacheDir) throws IOException {
+            ZipJarCache cache = new ZipJarCache(zip, rootDir, cacheDir);
+            opened.add(cache);
+            return cache;
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            for (ZipJarCache cache : opened) {
+                cache.close();
+            }
+            opened.clear();
+        }
+    }
+
+    public static Provider<Service> register(Gradle gradle) {
+        return gradle.getSharedServices().registerIfAbsent(SERVICE_NAME, Service.class, spec -> {});
+    }
+
+    /**
+     * @param zip      the distribution zip
+     * @param rootDir  the name of the dir in the zip that all paths are relative to
+     * @param cacheDir the dir to extract the jars in
+     * @throws IOException when the zip can not be read
+     */
+    public ZipJarCache(Path zip, String rootDir, Path cacheDir) throws IOException {
+        this.zip = zip;
+        this.cacheDir = cacheDir;
+        this.rootPrefix = rootDir + "/";
+        this.indexFile = cacheDir.resolve(zip.getFileName() + INDEX_EXTENSION);
+        this.stamp = Files.size(zip) + " " + Files.getLastModifiedTime(zip).toMillis();
+        this.zipFile = new ZipFile(zip.toFile());
+        try {
+            entries = zipFile.stream()
+                    .filter(e -> !e.isDirectory() && e.getName().startsWith(rootPrefix))
+                    .collect(Collectors.toMap(e -> e.getName().substring(rootPrefix.length()), Function.identity(), (a, b) -> a));
+            readIndex();
+        } catch (IOException | RuntimeException e) {
+            zipFile.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the paths of all jars in the zip, relative to the root dir
+     */
+    public List<Path> getJars() {
+        return entries.keySet().stream().filter(n -> n.endsWith(".jar")).map(Path::of).collect(Collectors.toList());
+    }
+
+    /**
+     * @param rel the path of the properties file relative to the root dir
+     * @return the properties, empty if the zip does not contain the file
+     * @throws IOException when the zip can not be read
+     */
+    public Properties readProperties(String rel) throws IOException {
+        Properties props = new Properties();
+        ZipEntry   entry = entries.get(rel);
+        if (entry != null) {
+            try (InputStream in = zipFile.getInputStream(entry)) {
+                props.load(in);
+            }
+        }
+        return props;
+    }
+
+    /**
+     * @param rel the path of a jar relative to the root dir
+     * @return the extracted jar in the cache
+     * @throws IOException when the jar is not in the zip or could not be extracted
+     */
+    public Path extract(Path rel) throws IOException {
+        String   name  = rel.toString().replace('\\', '/');
+        ZipEntry entry = entries.get(name);
+        if (entry == null) {
+            throw new IOException("no entry " + name + " in " + zip);
+        }
+        String fileName = rel.getFileName().toString();
+        String sha256   = sha256s.get(name);
+        if (sha256 != null) {
+            Path file = cacheDir.resolve(fileName).resolve(sha256).resolve(fileName);
+            if (Files.isRegularFile(file)) {
+                return file;
+            }
+        }
+        // the sha256 is only known after the jar is read from the zip, so it is read into a temporary file first:
+        Files.createDirectories(cacheDir);
+        Path tmp = Files.createTempFile(cacheDir, fileName, ".tmp");
+        try {
+            try (InputStream in = zipFile.getInputStream(entry)) {
+                Files.copy(in, tmp, StandardCopyOption.REPLACE_EXISTING);
+            }
+            sha256 = Hash.checksums(tmp, List.of(Hash.SHA256)).get(Hash.SHA256);
+            Path dir = cacheDir.resolve(fileName).resolve(sha256);
+            if (SharedInstall.install(dir, tmpDir -> Files.move(tmp, tmpDir.resolve(fileName)))) {
+                LOGGER.info("+ mvg-mps: extracted {} into the jar cache", name);
+            }
+            sha256s.put(name, sha256);
+            writeIndex();
+            return dir.resolve(fileName);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        zipFile.close();
+    }
+
+    private void readIndex() throws IOException {
+        if (Files.isRegularFile(indexFile)) {
+            List<String> lines = Files.readAllLines(indexFile);
+            if (!lines.isEmpty() && lines.get(0).equals(STAMP_PREFIX + stamp)) {
+                lines.stream().skip(1).map(l -> l.split(" ", 2)).filter(a -> a.length == 2).forEach(a -> sha256s.put(a[1], a[0]));
+            }
+        }
+    }
+
+    // written to a temporary file first: other builds may read the index at the same time
+    private synchronized void writeIndex() throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add(STAMP_PREFIX + stamp);
+        new TreeMap<>(sha256s).forEach((name, sha256) -> lines.add(sha256 + " " + name));
+        Path tmp = indexFile.resolveSibling(indexFile.getFileName() + ".tmp-" + ProcessHandle.current().pid());
+        Files.write(tmp, lines);
+        Files.move(tmp, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
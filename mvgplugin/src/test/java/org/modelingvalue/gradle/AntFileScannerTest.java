@@ -0,0 +1,93 @@
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+//  (C) Copyright 2018-2026 Modeling Value Group B.V. (http://modelingvalue.org)                                         ~
+//                                                                                                                       ~
+//  Licensed under the GNU Lesser General Public License v3.0 (the 'License'). You may not use this file except in       ~
+//  compliance with the License. You may obtain a copy of the License at: https://choosealicense.com/licenses/lgpl-3.0   ~
+//  Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on  ~
+//  an 'AS IS' BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the   ~
+//  specific language governing permissions and limitations under the License.                                           ~
+//                                                                                                                       ~
+//  Maintainers:                                                                                                         ~
+//      Wim Bast, Tom Brus                                                                                               ~
+//                                                                                                                       ~
+//  Contributors:                                                                                                        ~
+//      Ronald Krijgsheld ✝, Arjan Kok, Carel Bast                                                                       ~
+// --------------------------------------------------------------------------------------------------------------------- ~
+//  In Memory of Ronald Krijgsheld, 1972 - 2023                                                                          ~
+//      Ronald was suddenly and unexpectedly taken from us. He was not only our long-term colleague and team member      ~
+//      but also our friend. "He will live on in many of the lines of code you see below."                               ~
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+package org.modelingvalue.gradle;
+
+import static java.nio.charset.StandardCharsets.UTF_16BE;
+import static java.nio.charset.StandardCharsets.UTF_16LE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.modelingvalue.gradle.mvgplugin.AntFileScanner;
+
+public class AntFileScannerTest {
+    private static final String ANT_FILE = "<project name=\"build\" default=\"all\">\n  <target name=\"all\"/>\n</project>\n";
+
+    @Test
+    public void plainFiles(@TempDir Path tmp) throws IOException {
+        assertTrue(AntFileScanner.mayBeAntFile(write(tmp, "ant.xml", ANT_FILE)));
+        assertTrue(AntFileScanner.mayBeAntFile(write(tmp, "empty-project.xml", "<project/>")));
+        assertFalse(AntFileScanner.mayBeAntFile(write(tmp, "model.xml", "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<model ref=\"r:123\"/>\n")));
+        assertFalse(AntFileScanner.mayBeAntFile(write(tmp, "projects.xml", "<projects><project/></projects>")));
+    }
+
+    @Test
+    public void prolog(@TempDir Path tmp) throws IOException {
+        assertTrue(AntFileScanner.mayBeAntFile(write(tmp, "comment.xml", "<?xml version=\"1.0\"?>\n<!-- <module> -->\n<!-- a second comment -->\n" + ANT_FILE)));
+        assertTrue(AntFileScanner.mayBeAntFile(write(tmp, "doctype.xml", "<?xml version=\"1.0\"?>\n<!DOCTYPE project>\n" + ANT_FILE)));
+        assertFalse(AntFileScanner.mayBeAntFile(write(tmp, "doctype-module.xml", "<?xml version=\"1.0\"?>\n<!DOCTYPE module>\n<module/>")));
+        // a prolog that does not fit in the peek can not be judged, the parser has to decide:
+        String longComment = "<!-- " + "x".repeat(10_000) + " -->\n";
+        assertTrue(AntFileScanner.mayBeAntFile(write(tmp, "long-prolog.xml", "<?xml version=\"1.0\"?>\n" + longComment + "<module/>")));
+    }
+
+    @Test
+    public void byteOrderMarks(@TempDir Path tmp) throws IOException {
+        assertTrue(AntFileScanner.mayBeAntFile(write(tmp, "utf8-bom.xml", "\uFEFF<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" + ANT_FILE, UTF_8)));
+        assertFalse(AntFileScanner.mayBeAntFile(write(tmp, "utf8-bom-model.xml", "\uFEFF<model/>", UTF_8)));
+        assertTrue(AntFileScanner.mayBeAntFile(write(tmp, "utf16be-bom.xml", "\uFEFF<?xml version=\"1.0\" encoding=\"UTF-16\"?>\n" + ANT_FILE, UTF_16BE)));
+        assertTrue(AntFileScanner.mayBeAntFile(write(tmp, "utf16le-bom.xml", "\uFEFF<?xml version=\"1.0\" encoding=\"UTF-16\"?>\n" + ANT_FILE, UTF_16LE)));
+        assertTrue(AntFileScanner.mayBeAntFile(write(tmp, "utf16le.xml", ANT_FILE, UTF_16LE)));
+    }
+
+    @Test
+    public void excludedDirsAreSkipped(@TempDir Path tmp) throws IOException {
+        Path root = tmp.resolve("project");
+        write(root, "build.xml", ANT_FILE);
+        write(root, "solutions/build.xml", "<?xml version=\"1.0\"?>\n" + ANT_FILE);
+        write(root, "solutions/model.xml", "<model/>");
+        write(root, "build/tmp/build.xml", ANT_FILE);
+        Path cache = tmp.resolve("ant-files.properties");
+
+        assertEquals(3, new AntFileScanner(root, Set.of(), cache).scan().size());
+        assertEquals(2, new AntFileScanner(root, Set.of("\\./build/.*"), cache).scan().size());
+    }
+
+    private static Path write(Path dir, String name, String content) throws IOException {
+        return write(dir, name, content, UTF_8);
+    }
+
+    private static Path write(Path dir, String name, String content, Charset charset) throws IOException {
+        Path f = dir.resolve(name);
+        Files.createDirectories(f.getParent());
+        Files.writeString(f, content, charset);
+        return f;
+    }
+}
@@ -25,15 +25,39 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 
+import org.gradle.plugins.signing.signatory.Signatory;
+import org.gradle.plugins.signing.signatory.SignatorySupport;
 import org.junit.jupiter.api.Test;
+import org.modelingvalue.gradle.mvgplugin.Backoff;
+import org.modelingvalue.gradle.mvgplugin.CentralBundler;
+import org.modelingvalue.gradle.mvgplugin.CentralSigner;
+import org.modelingvalue.gradle.mvgplugin.DeploymentPoller;
+import org.modelingvalue.gradle.mvgplugin.Hash;
 import org.modelingvalue.gradle.mvgplugin.MvgCentralPublisher;
+import org.modelingvalue.gradle.mvgplugin.MvgHttp;
+
+import com.sun.net.httpserver.HttpServer;
 
 public class CentralBundleTest {
     @Test
@@ -50,23 +74,132 @@ public class CentralBundleTest {
         Path bundle = tmp.resolve("bundle.zip");
         MvgCentralPublisher.createBundle(staging, bundle);
 
-        Set<String> entries = new TreeSet<>();
+        Set<String>  entries = new TreeSet<>();
+        List<String> ordered = new ArrayList<>();
         try (ZipInputStream zip = new ZipInputStream(Files.newInputStream(bundle))) {
             for (ZipEntry e; (e = zip.getNextEntry()) != null; ) {
                 entries.add(e.getName());
+                ordered.add(e.getName());
+                if (e.getName().endsWith(".jar")) {
+                    assertEquals(ZipEntry.STORED, e.getMethod(), "jars are already compressed and should be stored");
+                    assertEquals("jarbytes", new String(zip.readAllBytes()));
+                } else {
+                    assertEquals(ZipEntry.DEFLATED, e.getMethod());
+                }
             }
         }
+        assertEquals(new ArrayList<>(entries), ordered, "entries should be in sorted order");
         String prefix = "org/modelingvalue/dummy/1.0.0/dummy-1.0.0";
         assertTrue(entries.contains(prefix + ".jar"));
         assertTrue(entries.contains(prefix + ".jar.asc"));
         assertTrue(entries.contains(prefix + ".jar.md5"), "missing checksum should have been generated");
         assertTrue(entries.contains(prefix + ".jar.sha1"), "missing checksum should have been generated");
+        assertTrue(entries.contains(prefix + ".jar.sha256"), "missing checksum should have been generated");
+        assertTrue(entries.contains(prefix + ".jar.sha512"), "missing checksum should have been generated");
         assertTrue(entries.contains(prefix + ".pom.sha1"), "existing checksum should have been kept");
         assertFalse(entries.stream().anyMatch(n -> n.contains("maven-metadata")), "maven-metadata must not be bundled");
         assertFalse(entries.contains(prefix + ".jar.asc.md5"), "signatures must not get checksums");
 
         assertEquals("already-there", Files.readString(artDir.resolve("dummy-1.0.0.pom.sha1")), "existing checksum must not be overwritten");
-        assertEquals(MvgCentralPublisher.checksum(artDir.resolve("dummy-1.0.0.jar"), "MD5"), Files.readString(artDir.resolve("dummy-1.0.0.jar.md5")));
+        assertEquals(checksum(artDir.resolve("dummy-1.0.0.jar"), Hash.MD5), Files.readString(artDir.resolve("dummy-1.0.0.jar.md5")));
+    }
+
+    @Test
+    public void incrementalBundle(@org.junit.jupiter.api.io.TempDir Path tmp) throws IOException {
+        Path staging = tmp.resolve("staging");
+        Path artDir  = staging.resolve("org/modelingvalue/dummy/1.0.0");
+        Path oldDir  = staging.resolve("org/modelingvalue/dummy/0.9.0");
+        Files.createDirectories(artDir);
+        Files.createDirectories(oldDir);
+        Files.writeString(artDir.resolve("dummy-1.0.0.jar"), "jarbytes");
+        Files.writeString(artDir.resolve("dummy-1.0.0.pom"), "pombytes");
+        Files.writeString(artDir.resolve("dummy-1.0.0.jar.sha1"), "jarsha1");
+        Files.writeString(artDir.resolve("dummy-1.0.0-javadoc.jar"), "dropped");
+        Files.writeString(artDir.resolve("dummy-1.0.0-javadoc.jar.md5"), "dropped");
+        Files.writeString(oldDir.resolve("dummy-0.9.0.jar"), "old");
+
+        CentralBundler.prune(staging, Set.of(Path.of("org/modelingvalue/dummy/1.0.0/dummy-1.0.0.jar"), Path.of("org/modelingvalue/dummy/1.0.0/dummy-1.0.0.pom")));
+        assertFalse(Files.exists(oldDir), "versions that are not published any more should be pruned");
+        assertFalse(Files.exists(artDir.resolve("dummy-1.0.0-javadoc.jar")), "artifacts that are not published any more should be pruned");
+        assertFalse(Files.exists(artDir.resolve("dummy-1.0.0-javadoc.jar.md5")), "checksums of artifacts that are not published any more should be pruned");
+        assertTrue(Files.exists(artDir.resolve("dummy-1.0.0.jar.sha1")), "checksums of published artifacts should be kept");
+
+        Path bundle = tmp.resolve("bundle.zip");
+        MvgCentralPublisher.createBundle(staging, bundle);
+        FileTime first = Files.getLastModifiedTime(bundle);
+
+        MvgCentralPublisher.createBundle(staging, bundle);
+        assertEquals(first, Files.getLastModifiedTime(bundle), "an unchanged staging dir should not rewrite the bundle");
+
+        Path jar = artDir.resolve("dummy-1.0.0.jar");
+        Files.writeString(jar, "newjarbytes");
+        Files.setLastModifiedTime(jar, FileTime.fromMillis(Files.getLastModifiedTime(jar).toMillis() + 2000));
+        MvgCentralPublisher.createBundle(staging, bundle);
+
+        Map<String, String> contents = new TreeMap<>();
+        try (ZipInputStream zip = new ZipInputStream(Files.newInputStream(bundle))) {
+            for (ZipEntry e; (e = zip.getNextEntry()) != null; ) {
+                contents.put(e.getName(), new String(zip.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+        String prefix = "org/modelingvalue/dummy/1.0.0/dummy-1.0.0";
+        assertEquals("newjarbytes", contents.get(prefix + ".jar"));
+        assertEquals("pombytes", contents.get(prefix + ".pom"));
+        assertEquals(checksum(jar, Hash.SHA1), contents.get(prefix + ".jar.sha1"), "checksums of a changed artifact should be renewed");
+        assertEquals(checksum(artDir.resolve("dummy-1.0.0.pom"), Hash.MD5), contents.get(prefix + ".pom.md5"));
+    }
+
+    @Test
+    public void signing(@org.junit.jupiter.api.io.TempDir Path tmp) throws IOException {
+        Path staging = tmp.resolve("staging");
+        Path artDir  = staging.resolve("org/modelingvalue/dummy/1.0.0");
+        Files.createDirectories(artDir);
+        Files.writeString(artDir.resolve("dummy-1.0.0.jar"), "jarbytes");
+        Files.writeString(artDir.resolve("dummy-1.0.0.pom"), "pombytes");
+        Files.writeString(artDir.resolve("dummy-1.0.0.pom.sha1"), "checksum");
+
+        AtomicInteger signings  = new AtomicInteger();
+        Signatory     signatory = signatory("00000000", signings);
+        Path cache = tmp.resolve("signatures");
+        assertEquals(2, new CentralSigner(signatory, cache).signAll(staging));
+        assertTrue(Files.isRegularFile(artDir.resolve("dummy-1.0.0.jar.asc")));
+        assertTrue(Files.isRegularFile(artDir.resolve("dummy-1.0.0.pom.asc")));
+        assertFalse(Files.exists(artDir.resolve("dummy-1.0.0.pom.sha1.asc")), "checksums must not be signed");
+
+        assertEquals(0, new CentralSigner(signatory, cache).signAll(staging), "up to date signatures should be kept");
+
+        Files.delete(artDir.resolve("dummy-1.0.0.jar.asc"));
+        assertEquals(0, new CentralSigner(signatory, cache).signAll(staging), "the signature of unchanged bytes should come from the cache");
+        assertTrue(Files.isRegularFile(artDir.resolve("dummy-1.0.0.jar.asc")));
+        assertEquals(2, signings.get());
+
+        Files.delete(artDir.resolve("dummy-1.0.0.jar.asc"));
+        assertEquals(1, new CentralSigner(signatory("11111111", signings), cache).signAll(staging), "a signature made with another key must not come from the cache");
+        assertEquals(3, signings.get());
+    }
+
+    private static Signatory signatory(String keyId, AtomicInteger signings) {
+        return new SignatorySupport() {
+            @Override
+            public String getName() {
+                return "test";
+            }
+
+            @Override
+            public String getKeyId() {
+                return keyId;
+            }
+
+            @Override
+            public void sign(InputStream toSign, OutputStream signatureDestination) {
+                try {
+                    signatureDestination.write(("signature of " + new String(toSign.readAllBytes(), StandardCharsets.UTF_8)).getBytes(StandardCharsets.UTF_8));
+                    signings.incrementAndGet();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
     }
 
     @Test
@@ -74,8 +207,52 @@ public class CentralBundleTest {
         Path f = Files.createTempFile("checksum", ".txt");
         Files.writeString(f, "hello");
         // well-known digests of the string "hello"
-        assertEquals("5d41402abc4b2a76b9719d911017c592", MvgCentralPublisher.checksum(f, "MD5"));
-        assertEquals("aaf4c61ddcc5e8a2dabede0f3b482cd9aea9434d", MvgCentralPublisher.checksum(f, "SHA-1"));
+        assertEquals("5d41402abc4b2a76b9719d911017c592", checksum(f, Hash.MD5));
+        assertEquals("aaf4c61ddcc5e8a2dabede0f3b482cd9aea9434d", checksum(f, Hash.SHA1));
+        Files.delete(f);
+    }
+
+    @Test
+    public void checksumsInOnePass() throws IOException {
+        Path f = Files.createTempFile("checksum", ".bin");
+        byte[] data = new byte[100_000]; // spans several read blocks
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i * 31);
+        }
+        Files.write(f, data);
+        Map<Hash, String> all = Hash.checksums(f, List.of(Hash.values()));
+        assertEquals(4, all.size());
+        for (Hash h : Hash.values()) {
+            assertEquals(HexFormat.of().formatHex(h.newDigest().digest(data)), all.get(h), h.getName());
+        }
+        assertEquals(Hash.SHA256.checksum(f).toLowerCase(), all.get(Hash.SHA256));
         Files.delete(f);
     }
+
+    private static String checksum(Path f, Hash hash) throws IOException {
+        return Hash.checksums(f, List.of(hash)).get(hash);
+    }
+
+    @Test
+    public void awaitDeployment() throws IOException {
+        List<String> states = new CopyOnWriteArrayList<>(List.of("PENDING", "VALIDATING", "VALIDATING", "PUBLISHING"));
+        AtomicInteger polls = new AtomicInteger();
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/status", exchange -> {
+            int    poll   = polls.incrementAndGet();
+            byte[] answer = (poll == 2 ? "overloaded" : "{\"deploymentState\":\"" + states.remove(0) + "\"}").getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(poll == 2 ? 502 : 200, answer.length);
+            exchange.getResponseBody().write(answer);
+            exchange.close();
+        });
+        server.start();
+        try {
+            String api = "http://localhost:" + server.getAddress().getPort();
+            new DeploymentPoller(new MvgHttp(Duration.ofSeconds(5), Duration.ofSeconds(5)), api, "Bearer x", new Backoff(Integer.MAX_VALUE, 1, 5), 10_000).awaitDone("id-1");
+            assertEquals(5, polls.get(), "a 5xx status answer should just be polled again");
+            assertTrue(states.isEmpty());
+        } finally {
+            server.stop(0);
+        }
+    }
 }
@@ -0,0 +1,100 @@
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+//  (C) Copyright 2018-2026 Modeling Value Group B.V. (http://modelingvalue.org)                                         ~
+//                                                                                                                       ~
+//  Licensed under the GNU Lesser General Public License v3.0 (the 'License'). You may not use this file except in       ~
+//  compliance with the License. You may obtain a copy of the License at: https://choosealicense.com/licenses/lgpl-3.0   ~
+//  Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on  ~
+//  an 'AS IS' BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the   ~
+//  specific language governing permissions and limitations under the License.                                           ~
+//                                                                                                                       ~
+//  Maintainers:                                                                                                         ~
+//      Wim Bast, Tom Brus                                                                                               ~
+//                                                                                                                       ~
+//  Contributors:                                                                                                        ~
+//      Ronald Krijgsheld ✝, Arjan Kok, Carel Bast                                                                       ~
+// --------------------------------------------------------------------------------------------------------------------- ~
+//  In Memory of Ronald Krijgsheld, 1972 - 2023                                                                          ~
+//      Ronald was suddenly and unexpectedly taken from us. He was not only our long-term colleague and team member      ~
+//      but also our friend. "He will live on in many of the lines of code you see below."                               ~
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+package org.modelingvalue.gradle;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.modelingvalue.gradle.mvgplugin.DependenciesIndex;
+
+public class DependenciesIndexTest {
+    private static final PersonIdent TESTER = new PersonIdent("tester", "tester@modelingvalue.org");
+
+    @Test
+    public void indexFollowsTheTriggerFiles(@TempDir Path tmp) throws Exception {
+        try (Git git = Git.init().setDirectory(tmp.toFile()).setInitialBranch("develop").call()) {
+            Path lib = tmp.resolve("test/ab/c/lib/gh-app.trigger");
+            Path bas = tmp.resolve("test/base/lib/gh-lib.trigger");
+            Files.createDirectories(lib.getParent());
+            Files.createDirectories(bas.getParent());
+            Files.writeString(lib, "WORKFLOWS=build.yaml/test.yml\n");
+            Files.writeString(bas, "WORKFLOWS=build.yaml\n");
+            git.add().addFilepattern(".").call();
+            String staged = DependenciesIndex.stampOfStaged(git);
+
+            DependenciesIndex index = DependenciesIndex.empty(tmp);
+            index.put("gh-app", "test.ab.c.lib", List.of("build.yaml", "test.yml"));
+            index.put("gh-lib", "test.base.lib", List.of("build.yaml"));
+            index.write(staged);
+            commit(git);
+            assertEquals(staged, DependenciesIndex.stampOfHead(git), "the stamp of the staged tree should be the stamp of the commit made from it");
+
+            DependenciesIndex read = DependenciesIndex.read(tmp, DependenciesIndex.stampOfHead(git));
+            assertNotNull(read);
+            assertEquals(Set.of("test.ab.c.lib"), read.getPackages("gh-app"));
+            assertEquals(Map.of("gh-lib", List.of("build.yaml")), read.getTriggers("test.base.lib"));
+            assertEquals(Map.of(), read.getTriggers("test.qw.e.lib"));
+
+            // the index itself is not part of the stamp:
+            read.removeRepo("gh-lib");
+            read.write(staged);
+            commit(git);
+            assertEquals(staged, DependenciesIndex.stampOfHead(git));
+
+            // a trigger file rewritten to the same length by a writer that does not know the index:
+            Files.writeString(bas, "WORKFLOWS=tests.yaml\n");
+            commit(git);
+            assertNotEquals(staged, DependenciesIndex.stampOfHead(git));
+            assertNull(DependenciesIndex.read(tmp, DependenciesIndex.stampOfHead(git)), "a stale index should not be used");
+
+            // a trigger file that is removed:
+            String before = DependenciesIndex.stampOfHead(git);
+            Files.delete(lib);
+            git.add().setUpdate(true).addFilepattern("test/ab/c/lib/gh-app.trigger").call();
+            assertNotEquals(before, DependenciesIndex.stampOfStaged(git));
+        }
+    }
+
+    @Test
+    public void noIndexInTheRepo(@TempDir Path tmp) throws Exception {
+        try (Git git = Git.init().setDirectory(tmp.toFile()).call()) {
+            assertNull(DependenciesIndex.read(tmp, DependenciesIndex.stampOfHead(git)));
+        }
+    }
+
+    private static void commit(Git git) throws Exception {
+        git.add().addFilepattern(".").call();
+        git.add().setUpdate(true).addFilepattern(".").call();
+        git.commit().setMessage("test").setAuthor(TESTER).setCommitter(TESTER).setSign(false).call();
+    }
+}
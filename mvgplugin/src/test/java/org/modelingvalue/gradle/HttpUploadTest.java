@@ -0,0 +1,161 @@
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+//  (C) Copyright 2018-2026 Modeling Value Group B.V. (http://modelingvalue.org)                                         ~
+//                                                                                                                       ~
+//  Licensed under the GNU Lesser General Public License v3.0 (the 'License'). You may not use this file except in       ~
+//  compliance with the License. You may obtain a copy of the License at: https://choosealicense.com/licenses/lgpl-3.0   ~
+//  Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on  ~
+//  an 'AS IS' BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the   ~
+//  specific language governing permissions and limitations under the License.                                           ~
+//                                                                                                                       ~
+//  Maintainers:                                                                                                         ~
+//      Wim Bast, Tom Brus                                                                                               ~
+//                                                                                                                       ~
+//  Contributors:                                                                                                        ~
+//      Ronald Krijgsheld ✝, Arjan Kok, Carel Bast                                                                       ~
+// --------------------------------------------------------------------------------------------------------------------- ~
+//  In Memory of Ronald Krijgsheld, 1972 - 2023                                                                          ~
+//      Ronald was suddenly and unexpectedly taken from us. He was not only our long-term colleague and team member      ~
+//      but also our friend. "He will live on in many of the lines of code you see below."                               ~
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+package org.modelingvalue.gradle;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.modelingvalue.gradle.mvgplugin.Backoff;
+import org.modelingvalue.gradle.mvgplugin.HttpUpload;
+import org.modelingvalue.gradle.mvgplugin.MvgHttp;
+
+import com.sun.net.httpserver.HttpServer;
+
+public class HttpUploadTest {
+    @Test
+    public void retriesAfterServerError(@org.junit.jupiter.api.io.TempDir Path tmp) throws IOException {
+        Path file = tmp.resolve("plugin.zip");
+        byte[] content = new byte[3 * 1024 * 1024];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) ('a' + i % 26);
+        }
+        Files.write(file, content);
+
+        List<Integer> received = new CopyOnWriteArrayList<>();
+        HttpServer    server   = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/upload", exchange -> {
+            byte[] body = exchange.getRequestBody().readAllBytes();
+            received.add(body.length);
+            String text = new String(body, StandardCharsets.ISO_8859_1);
+            assertTrue(text.contains("name=\"channel\"\r\nContent-Type: text/plain; charset=UTF-8\r\n\r\nbeta\r\n"));
+            assertTrue(text.contains("filename=\"plugin.zip\""));
+            assertTrue(text.contains(new String(content, StandardCharsets.ISO_8859_1)));
+            byte[] answer = (received.size() == 1 ? "busy" : "{}").getBytes(StandardCharsets.UTF_8);
+            if (received.size() == 1) {
+                exchange.getResponseHeaders().add("Retry-After", "0");
+            }
+            exchange.sendResponseHeaders(received.size() == 1 ? 503 : 200, answer.length);
+            exchange.getResponseBody().write(answer);
+            exchange.close();
+        });
+        server.start();
+        try {
+            MvgHttp              http     = new MvgHttp(Duration.ofSeconds(5), Duration.ofSeconds(30));
+            HttpResponse<String> response = new HttpUpload(http, new Backoff(3, 10, 20), "test").post(
+                    http.request("http://localhost:" + server.getAddress().getPort() + "/upload"),
+                    new MvgHttp.Multipart().addText("channel", "beta").addFile("file", file));
+
+            assertEquals(200, response.statusCode());
+            assertEquals("{}", response.body());
+            assertEquals(2, received.size(), "the 503 with Retry-After should have been retried once");
+            assertEquals(received.get(0), received.get(1), "a retry should send the complete body again");
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void noRetryWhenTheServerMayHaveTheUpload(@org.junit.jupiter.api.io.TempDir Path tmp) throws IOException {
+        Path file = tmp.resolve("bundle.zip");
+        Files.write(file, new byte[64 * 1024]);
+
+        AtomicInteger received = new AtomicInteger();
+        HttpServer    server   = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/upload", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            // the first answer is a 502 (maybe after storing the upload), then 429s:
+            int    status = received.incrementAndGet() == 1 ? 502 : 429;
+            byte[] answer = "no".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, answer.length);
+            exchange.getResponseBody().write(answer);
+            exchange.close();
+        });
+        server.start();
+        try {
+            MvgHttp http = new MvgHttp(Duration.ofSeconds(5), Duration.ofSeconds(30));
+            String  url  = "http://localhost:" + server.getAddress().getPort() + "/upload";
+
+            HttpResponse<String> response = new HttpUpload(http, new Backoff(3, 10, 20), "test").post(http.request(url), new MvgHttp.Multipart().addFile("file", file));
+            assertEquals(502, response.statusCode());
+            assertEquals(1, received.get(), "a 502 should not be retried");
+
+            // a 429 is retried, but not when the check finds the upload already present:
+            AtomicInteger checks = new AtomicInteger();
+            IOException e = assertThrows(IOException.class, () -> new HttpUpload(http, new Backoff(3, 10, 20), "test").post(http.request(url), new MvgHttp.Multipart().addFile("file", file), () -> checks.incrementAndGet() == 2));
+            assertTrue(e.getMessage().contains("already present"), e.getMessage());
+            assertEquals(2, checks.get());
+            assertEquals(3, received.get(), "the upload should have been sent twice more");
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void slowUploadOutlastsTheReadTimeout(@org.junit.jupiter.api.io.TempDir Path tmp) throws IOException {
+        Path file = tmp.resolve("bundle.zip");
+        Files.write(file, new byte[2 * 1024 * 1024]);
+
+        AtomicInteger received = new AtomicInteger();
+        HttpServer    server   = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/upload", exchange -> {
+            // reads the body in about 3 s, much longer than the read timeout of 1 s:
+            byte[] buf = new byte[64 * 1024];
+            try (InputStream in = exchange.getRequestBody()) {
+                for (int n; (n = in.read(buf)) > 0; ) {
+                    received.addAndGet(n);
+                    Thread.sleep(100);
+                }
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+            byte[] answer = "{}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, answer.length);
+            exchange.getResponseBody().write(answer);
+            exchange.close();
+        });
+        server.start();
+        try {
+            MvgHttp              http     = new MvgHttp(Duration.ofSeconds(5), Duration.ofSeconds(1));
+            HttpResponse<String> response = new HttpUpload(http, new Backoff(1, 10, 20), "test").post(
+                    http.request("http://localhost:" + server.getAddress().getPort() + "/upload"),
+                    new MvgHttp.Multipart().addFile("file", file));
+
+            assertEquals(200, response.statusCode());
+            assertTrue(2 * 1024 * 1024 < received.get(), "the whole body should have arrived");
+        } finally {
+            server.stop(0);
+        }
+    }
+}
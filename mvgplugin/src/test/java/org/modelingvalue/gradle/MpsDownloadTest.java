@@ -0,0 +1,350 @@
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+//  (C) Copyright 2018-2026 Modeling Value Group B.V. (http://modelingvalue.org)                                         ~
+//                                                                                                                       ~
+//  Licensed under the GNU Lesser General Public License v3.0 (the 'License'). You may not use this file except in       ~
+//  compliance with the License. You may obtain a copy of the License at: https://choosealicense.com/licenses/lgpl-3.0   ~
+//  Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on  ~
+//  an 'AS IS' BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the   ~
+//  specific language governing permissions and limitations under the License.                                           ~
+//                                                                                                                       ~
+//  Maintainers:                                                                                                         ~
+//      Wim Bast, Tom Brus                                                                                               ~
+//                                                                                                                       ~
+//  Contributors:                                                                                                        ~
+//      Ronald Krijgsheld ✝, Arjan Kok, Carel Bast                                                                       ~
+// --------------------------------------------------------------------------------------------------------------------- ~
+//  In Memory of Ronald Krijgsheld, 1972 - 2023                                                                          ~
+//      Ronald was suddenly and unexpectedly taken from us. He was not only our long-term colleague and team member      ~
+//      but also our friend. "He will live on in many of the lines of code you see below."                               ~
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+package org.modelingvalue.gradle;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.modelingvalue.gradle.mvgplugin.Backoff;
+import org.modelingvalue.gradle.mvgplugin.DownloadMeta;
+import org.modelingvalue.gradle.mvgplugin.Hash;
+import org.modelingvalue.gradle.mvgplugin.MvgHttp;
+import org.modelingvalue.gradle.mvgplugin.ParallelUnzipper;
+import org.modelingvalue.gradle.mvgplugin.RangeDownloader;
+import org.modelingvalue.gradle.mvgplugin.SharedInstall;
+import org.modelingvalue.gradle.mvgplugin.ZipJarCache;
+
+import com.sun.net.httpserver.HttpServer;
+
+public class MpsDownloadTest {
+    private static final int PART_SIZE = 100_000;
+
+    private final byte[]       content = new byte[1_234_567];
+    private final List<String> ranges  = new CopyOnWriteArrayList<>();
+    private       HttpServer   server;
+    private       String       url;
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        new Random(42).nextBytes(content);
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/mps.zip", exchange -> {
+            exchange.getResponseHeaders().add("Accept-Ranges", "bytes");
+            exchange.getResponseHeaders().add("ETag", "\"v1\"");
+            if (exchange.getRequestMethod().equals("HEAD")) {
+                exchange.getResponseHeaders().add("Content-Length", Integer.toString(content.length));
+                exchange.sendResponseHeaders(200, -1);
+            } else {
+                String range = exchange.getRequestHeaders().getFirst("Range");
+                ranges.add(range);
+                String[] fromTo = range.replace("bytes=", "").split("-");
+                int      from   = Integer.parseInt(fromTo[0]);
+                int      to     = Integer.parseInt(fromTo[1]);
+                if (ranges.stream().filter(range::equals).count() == 1 && from == 3 * PART_SIZE) {
+                    exchange.sendResponseHeaders(503, -1); // the first request for this part fails
+                } else {
+                    exchange.sendResponseHeaders(206, to - from + 1);
+                    try (OutputStream out = exchange.getResponseBody()) {
+                        out.write(content, from, to - from + 1);
+                    }
+                }
+            }
+            exchange.close();
+        });
+        server.start();
+        url = "http://localhost:" + server.getAddress().getPort() + "/mps.zip";
+    }
+
+    @AfterEach
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    private RangeDownloader downloader() {
+        return new RangeDownloader(new MvgHttp(Duration.ofSeconds(5), Duration.ofSeconds(5)), 3, PART_SIZE, new Backoff(3, 1, 5));
+    }
+
+    private String sha256(Path dir) throws IOException {
+        Path f = dir.resolve("expected");
+        Files.write(f, content);
+        return Hash.checksums(f, List.of(Hash.SHA256)).get(Hash.SHA256);
+    }
+
+    @Test
+    public void parallelRanges(@org.junit.jupiter.api.io.TempDir Path tmp) throws IOException {
+        Path target = tmp.resolve("cache/mps.zip");
+        downloader().download(url, target, sha256(tmp));
+
+        assertArrayEquals(content, Files.readAllBytes(target));
+        assertEquals(13 + 1, ranges.size(), "13 parts plus one retry");
+        assertFalse(Files.exists(tmp.resolve("cache/mps.zip.part")));
+        assertFalse(Files.exists(tmp.resolve("cache/mps.zip.part.state")));
+    }
+
+    @Test
+    public void resume(@org.junit.jupiter.api.io.TempDir Path tmp) throws IOException {
+        Path target = tmp.resolve("mps.zip");
+        Files.write(tmp.resolve("mps.zip.part"), Arrays.copyOf(content, 2 * PART_SIZE));
+        Files.writeString(tmp.resolve("mps.zip.part.state"), "length=" + content.length + "\netag=\"v1\"\npartSize=" + PART_SIZE + "\ndone.0=true\ndone.1=true\n");
+
+        downloader().download(url, target, sha256(tmp));
+
+        assertArrayEquals(content, Files.readAllBytes(target));
+        assertTrue(ranges.stream().noneMatch(r -> r.startsWith("bytes=0-") || r.startsWith("bytes=" + PART_SIZE + "-")), "completed parts should not be downloaded again: " + ranges);
+    }
+
+    @Test
+    public void corruptDownload(@org.junit.jupiter.api.io.TempDir Path tmp) {
+        Path target = tmp.resolve("mps.zip");
+        IOException e = assertThrows(IOException.class, () -> downloader().download(url, target, "0".repeat(64)));
+
+        assertTrue(e.getMessage().contains("corrupt"), e.getMessage());
+        assertFalse(Files.exists(target), "a corrupt download must not end up in the cache");
+        assertFalse(Files.exists(tmp.resolve("mps.zip.part")));
+    }
+
+    @Test
+    public void cacheMetadata(@org.junit.jupiter.api.io.TempDir Path tmp) throws IOException {
+        Path                   target = tmp.resolve("mps.zip");
+        RangeDownloader.Remote remote = downloader().download(url, target, null);
+        DownloadMeta.verifiedNow(url, Files.size(target), remote.etag()).write(target);
+
+        DownloadMeta meta = DownloadMeta.read(target);
+        assertEquals("\"v1\"", meta.etag());
+        assertEquals(content.length, meta.size());
+        assertTrue(meta.isFresh(url, content.length, Duration.ofHours(1)));
+        assertFalse(meta.isFresh(url, content.length, Duration.ZERO), "a zero ttl always revalidates");
+        assertFalse(meta.isFresh(url + "x", content.length, Duration.ofHours(1)), "another url needs revalidation");
+        assertFalse(meta.isFresh(url, content.length - 1, Duration.ofHours(1)), "a changed file needs revalidation");
+        assertFalse(new DownloadMeta(url, content.length, "", Instant.now().minus(Duration.ofHours(2))).isFresh(url, content.length, Duration.ofHours(1)), "an old verification needs revalidation");
+
+        Files.writeString(DownloadMeta.metaFile(target), "garbage");
+        assertNull(DownloadMeta.read(target), "unreadable metadata is ignored");
+    }
+
+    @Test
+    public void parallelUnzip(@org.junit.jupiter.api.io.TempDir Path tmp) throws IOException {
+        Path zip = tmp.resolve("mps.zip");
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(zip))) {
+            out.putNextEntry(new ZipEntry("MPS 2024.1/"));
+            out.putNextEntry(new ZipEntry("MPS 2024.1/build.properties"));
+            out.write("mps.build.number=MPS-241.1\n".getBytes());
+            for (int i = 0; i < 20; i++) {
+                out.putNextEntry(new ZipEntry("MPS 2024.1/lib/sub" + i % 3 + "/lib" + i + ".jar"));
+                out.write(content, 0, 10_000 * i);
+                out.putNextEntry(new ZipEntry("MPS 2024.1/plugins/p" + i + "/readme.txt"));
+                out.write(("plugin " + i).getBytes());
+            }
+        }
+
+        ParallelUnzipper.Result all = new ParallelUnzipper(4).unzip(zip, tmp.resolve("all"), name -> true);
+        assertEquals(41, all.numFiles());
+        assertEquals(0, all.numSkipped());
+        assertArrayEquals(Arrays.copyOf(content, 10_000 * 19), Files.readAllBytes(tmp.resolve("all/MPS 2024.1/lib/sub1/lib19.jar")));
+        assertEquals("plugin 7", Files.readString(tmp.resolve("all/MPS 2024.1/plugins/p7/readme.txt")));
+
+        ParallelUnzipper.Result jars = new ParallelUnzipper(4).unzip(zip, tmp.resolve("jars"), name -> name.endsWith(".jar"));
+        assertEquals(20, jars.numFiles());
+        assertEquals(22, jars.numSkipped());
+        assertTrue(Files.isRegularFile(tmp.resolve("jars/MPS 2024.1/lib/sub2/lib5.jar")));
+        assertFalse(Files.exists(tmp.resolve("jars/MPS 2024.1/plugins")));
+
+        Path evil = tmp.resolve("evil.zip");
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(evil))) {
+            out.putNextEntry(new ZipEntry("../outside.txt"));
+            out.write(1);
+        }
+        assertThrows(IOException.class, () -> new ParallelUnzipper(4).unzip(evil, tmp.resolve("evil"), name -> true));
+        assertFalse(Files.exists(tmp.resolve("outside.txt")));
+    }
+
+    @Test
+    public void sharedInstall(@org.junit.jupiter.api.io.TempDir Path tmp) throws Exception {
+        Path            dir       = tmp.resolve("installs/MPS-1.2.3");
+        AtomicInteger   populated = new AtomicInteger();
+        ExecutorService executor  = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> futures = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                futures.add(executor.submit(() -> SharedInstall.install(dir, tmpDir -> {
+                    populated.incrementAndGet();
+                    Files.writeString(tmpDir.resolve("build.properties"), "mps.build.number=MPS-1.2.3");
+                    sleep(200);
+                })));
+            }
+            long installers = 0;
+            for (Future<Boolean> f : futures) {
+                installers += f.get() ? 1 : 0;
+            }
+            assertEquals(1, installers);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, populated.get(), "only one build should populate the shared dir");
+        assertTrue(Files.isRegularFile(dir.resolve("build.properties")));
+        assertFalse(Files.getPosixFilePermissions(dir).contains(PosixFilePermission.OWNER_WRITE), "a shared dir must be read-only");
+        assertFalse(Files.getPosixFilePermissions(dir.resolve("build.properties")).contains(PosixFilePermission.OWNER_WRITE), "the files in a shared dir must be read-only");
+        assertFalse(SharedInstall.install(dir, tmpDir -> {
+            throw new IOException("should not be called");
+        }));
+
+        Path failing = tmp.resolve("installs/MPS-4.5.6");
+        assertThrows(IOException.class, () -> SharedInstall.install(failing, tmpDir -> {
+            Files.writeString(tmpDir.resolve("half"), "done");
+            throw new IOException("unzip failed");
+        }));
+        assertFalse(Files.exists(failing), "a failed install must not be published");
+        try (var files = Files.list(tmp.resolve("installs"))) {
+            assertTrue(files.noneMatch(p -> p.getFileName().toString().contains(".tmp-")), "no temporary dirs should be left behind");
+        }
+    }
+
+    @Test
+    public void lockedWork(@org.junit.jupiter.api.io.TempDir Path tmp) throws Exception {
+        // e.g. the download of a zip that is used both unzipped (in an install) and lazily (without unzipping)
+        Path            dir      = tmp.resolve("installs/MPS-1.2.3");
+        AtomicInteger   inside   = new AtomicInteger();
+        AtomicInteger   maxSeen  = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                int n = i;
+                futures.add(executor.submit(() -> SharedInstall.withLock(dir, () -> {
+                    maxSeen.accumulateAndGet(inside.incrementAndGet(), Math::max);
+                    sleep(100);
+                    inside.decrementAndGet();
+                    return n;
+                })));
+            }
+            int sum = 0;
+            for (Future<Integer> f : futures) {
+                sum += f.get();
+            }
+            assertEquals(6, sum);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, maxSeen.get(), "the locked work must never run at the same time");
+        assertFalse(Files.exists(dir), "taking the lock does not install the dir");
+    }
+
+    private static void sleep(long ms) throws IOException {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Test
+    public void jarsFromZip(@org.junit.jupiter.api.io.TempDir Path tmp) throws IOException {
+        Path zip = tmp.resolve("mps.zip");
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(zip))) {
+            out.putNextEntry(new ZipEntry("MPS 2024.1/build.properties"));
+            out.write("mps.build.number=MPS-241.1\n".getBytes());
+            out.putNextEntry(new ZipEntry("MPS 2024.1/lib/a.jar"));
+            out.write(content, 0, 1000);
+            out.putNextEntry(new ZipEntry("MPS 2024.1/plugins/p/lib/b.jar"));
+            out.write(content, 1000, 2000);
+            out.putNextEntry(new ZipEntry("MPS 2024.1/plugins/q/lib/copy-of-a.jar"));
+            out.write(content, 0, 1000);
+        }
+        Path cache = tmp.resolve("jars");
+        Path a;
+        Path b;
+        try (ZipJarCache jars = new ZipJarCache(zip, "MPS 2024.1", cache)) {
+            assertEquals(3, jars.getJars().size());
+            assertEquals("MPS-241.1", jars.readProperties("build.properties").getProperty("mps.build.number"));
+            assertFalse(Files.exists(cache), "nothing should be extracted before it is asked for");
+
+            b = jars.extract(Path.of("plugins/p/lib/b.jar"));
+            assertArrayEquals(Arrays.copyOfRange(content, 1000, 3000), Files.readAllBytes(b));
+            assertEquals(b, jars.extract(Path.of("plugins/p/lib/b.jar")));
+
+            a = jars.extract(Path.of("lib/a.jar"));
+            Path copy = jars.extract(Path.of("plugins/q/lib/copy-of-a.jar"));
+            assertEquals("copy-of-a.jar", copy.getFileName().toString(), "a jar should always be found under its own name");
+            assertEquals(-1, Files.mismatch(a, copy));
+            assertThrows(IOException.class, () -> jars.extract(Path.of("lib/none.jar")));
+        }
+
+        // another version of the distribution: the same jar is shared, a changed jar with the same name and size is not
+        Path zip2 = tmp.resolve("mps2.zip");
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(zip2))) {
+            out.putNextEntry(new ZipEntry("MPS 2024.2/lib/a.jar"));
+            out.write(content, 0, 1000);
+            out.putNextEntry(new ZipEntry("MPS 2024.2/plugins/p/lib/b.jar"));
+            out.write(content, 2000, 2000);
+        }
+        Path b2;
+        try (ZipJarCache jars2 = new ZipJarCache(zip2, "MPS 2024.2", cache)) {
+            assertEquals(a, jars2.extract(Path.of("lib/a.jar")), "same content should be extracted only once");
+            b2 = jars2.extract(Path.of("plugins/p/lib/b.jar"));
+        }
+        assertNotEquals(b, b2);
+        assertArrayEquals(Arrays.copyOfRange(content, 2000, 4000), Files.readAllBytes(b2));
+        try (var dirs = Files.list(cache)) {
+            assertEquals(3, dirs.filter(Files::isDirectory).count(), "one dir per jar name");
+        }
+
+        // the index finds extracted jars without reading them from the zip, until the zip changes:
+        assertTrue(Files.readString(cache.resolve("mps.zip.sha256index")).contains(b.getParent().getFileName() + " plugins/p/lib/b.jar"));
+        try (ZipJarCache jars = new ZipJarCache(zip, "MPS 2024.1", cache)) {
+            assertEquals(b, jars.extract(Path.of("plugins/p/lib/b.jar")));
+        }
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(zip))) {
+            out.putNextEntry(new ZipEntry("MPS 2024.1/plugins/p/lib/b.jar"));
+            out.write(content, 2000, 2000);
+        }
+        try (ZipJarCache jars = new ZipJarCache(zip, "MPS 2024.1", cache)) {
+            assertEquals(b2, jars.extract(Path.of("plugins/p/lib/b.jar")), "a changed zip should not use the old index");
+        }
+    }
+}
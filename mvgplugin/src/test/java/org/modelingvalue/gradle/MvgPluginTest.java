@@ -68,6 +68,7 @@ import org.modelingvalue.gradle.mvgplugin.DotProperties;
 import org.modelingvalue.gradle.mvgplugin.GitManager;
 import org.modelingvalue.gradle.mvgplugin.GitUtil;
 import org.modelingvalue.gradle.mvgplugin.Info;
+import org.modelingvalue.gradle.mvgplugin.MvgMetrics;
 
 public class MvgPluginTest {
     private static final boolean I_NEED_TO_DEBUG_THIS_TEST = true;
@@ -120,7 +121,7 @@ public class MvgPluginTest {
         System.setProperty(PROP_NAME_TESTING, "" + true);
         System.setProperty(PROP_NAME_GITHUB_WORKFLOW, "build");
 
-        assertNotEquals("notset", Info.ALLREP_TOKEN, "this test needs the ALLREP_TOKEN to succesfully terminate");
+        assertNotEquals("notset", Info.ALLREP_TOKEN.get(), "this test needs the ALLREP_TOKEN to succesfully terminate");
 
         prepareTestWorkspace();
 
@@ -169,7 +170,7 @@ public class MvgPluginTest {
             }
             System.out.println("\\==========================================================================");
 
-            GitUtil.untag(testWorkspaceDir, "v0.0.1", "v0.0.2", "v0.0.3", "v0.0.4");
+            GitUtil.untag(new MvgMetrics(), testWorkspaceDir, "v0.0.1", "v0.0.2", "v0.0.3", "v0.0.4");
 
 
             DotProperties instance = new DotProperties(testWorkspaceDir.resolve(GRADLE_PROPERTIES_FILE));
@@ -260,10 +261,10 @@ public class MvgPluginTest {
         cp(s -> s.replaceAll("\n", "\r\n"), pruupFile);
         Files.writeString(testWorkspaceDir.resolve(dotGitIgnore), "build\n.gradle\n");
 
-        GitUtil.stageCommitPush(testWorkspaceDir, "test-message");
-        GitUtil.tag(testWorkspaceDir, "v0.0.1");
-        GitUtil.tag(testWorkspaceDir, "v0.0.2");
-        GitUtil.tag(testWorkspaceDir, "v0.0.3");
+        GitUtil.stageCommitPush(new MvgMetrics(), testWorkspaceDir, "test-message");
+        GitUtil.tag(new MvgMetrics(), testWorkspaceDir, "v0.0.1");
+        GitUtil.tag(new MvgMetrics(), testWorkspaceDir, "v0.0.2");
+        GitUtil.tag(new MvgMetrics(), testWorkspaceDir, "v0.0.3");
     }
 
     private static void cp(Function<String, String> postProcess, Path... fs) throws IOException {
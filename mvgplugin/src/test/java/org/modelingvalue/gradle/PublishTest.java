@@ -24,16 +24,18 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.nio.file.Paths;
+import java.time.Duration;
 
 import org.gradle.api.GradleException;
 import org.junit.jupiter.api.Test;
+import org.modelingvalue.gradle.mvgplugin.MvgHttp;
 import org.modelingvalue.gradle.mvgplugin.MvgUploader;
 
 public class PublishTest {
     @Test
     public void publish() {
         GradleException ex = assertThrows(GradleException.class,
-                () -> MvgUploader.uploadToJetBrains("uploadtest", "SomeBogusToken", "1234567890", Paths.get("build.gradle.kts")));
+                () -> MvgUploader.uploadToJetBrains(new MvgHttp(Duration.ofSeconds(5), Duration.ofSeconds(30)), "uploadtest", "SomeBogusToken", "1234567890", Paths.get("build.gradle.kts")));
         assertTrue(ex.getMessage().contains("Authentication Failed"), "expected authentication failure but got: " + ex.getMessage());
     }
 }
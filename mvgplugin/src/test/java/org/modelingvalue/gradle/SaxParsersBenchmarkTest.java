@@ -0,0 +1,85 @@
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+//  (C) Copyright 2018-2026 Modeling Value Group B.V. (http://modelingvalue.org)                                         ~
+//                                                                                                                       ~
+//  Licensed under the GNU Lesser General Public License v3.0 (the 'License'). You may not use this file except in       ~
+//  compliance with the License. You may obtain a copy of the License at: https://choosealicense.com/licenses/lgpl-3.0   ~
+//  Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on  ~
+//  an 'AS IS' BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the   ~
+//  specific language governing permissions and limitations under the License.                                           ~
+//                                                                                                                       ~
+//  Maintainers:                                                                                                         ~
+//      Wim Bast, Tom Brus                                                                                               ~
+//                                                                                                                       ~
+//  Contributors:                                                                                                        ~
+//      Ronald Krijgsheld ✝, Arjan Kok, Carel Bast                                                                       ~
+// --------------------------------------------------------------------------------------------------------------------- ~
+//  In Memory of Ronald Krijgsheld, 1972 - 2023                                                                          ~
+//      Ronald was suddenly and unexpectedly taken from us. He was not only our long-term colleague and team member      ~
+//      but also our friend. "He will live on in many of the lines of code you see below."                               ~
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+package org.modelingvalue.gradle;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.xml.parsers.SAXParserFactory;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.modelingvalue.gradle.mvgplugin.SaxParsers;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * timings only, not run by the 'test' task: run with './gradlew benchmark'
+ */
+@Tag("benchmark")
+public class SaxParsersBenchmarkTest {
+    private static final int FILES  = 10_000;
+    private static final int ROUNDS = 3;
+
+    @Test
+    public void newParserPerFileVsPooledParsers(@TempDir Path tmp) throws Exception {
+        List<Path> files = new ArrayList<>();
+        for (int i = 0; i < FILES; i++) {
+            Path f = tmp.resolve("build-" + i + ".xml");
+            Files.writeString(f, "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<project name=\"p" + i + "\"><target name=\"t\"><idea-plugin><idea-version since-build=\"241." + i + "\"/></idea-plugin></target></project>\n");
+            files.add(f);
+        }
+        AtomicInteger  found   = new AtomicInteger();
+        DefaultHandler handler = new DefaultHandler() {
+            @Override
+            public void startElement(String uri, String localName, String qName, Attributes attributes) {
+                if (qName.equals("idea-version")) {
+                    found.incrementAndGet();
+                }
+            }
+        };
+        // the first rounds warm up the jit, the last one is reported:
+        for (int round = 1; round <= ROUNDS; round++) {
+            long t0 = System.nanoTime();
+            for (Path f : files) {
+                SAXParserFactory.newInstance().newSAXParser().parse(f.toFile(), handler);
+            }
+            long fresh = System.nanoTime() - t0;
+            assertEquals(FILES, found.getAndSet(0));
+
+            t0 = System.nanoTime();
+            for (Path f : files) {
+                SaxParsers.parse(f, handler);
+            }
+            long pooled = System.nanoTime() - t0;
+            assertEquals(FILES, found.getAndSet(0));
+
+            System.out.printf("round %d: parsing %d ant files: new parser per file %d ms, pooled parsers %d ms%n", round, FILES, fresh / 1_000_000, pooled / 1_000_000);
+        }
+    }
+}
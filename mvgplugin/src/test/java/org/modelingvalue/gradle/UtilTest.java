@@ -21,23 +21,44 @@
 package org.modelingvalue.gradle;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.modelingvalue.gradle.mvgplugin.Util.toBytes;
 
 import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.xml.parsers.SAXParserFactory;
 
 import org.gradle.api.GradleException;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.modelingvalue.gradle.mvgplugin.BashRunner;
 import org.modelingvalue.gradle.mvgplugin.BranchParameterNames;
 import org.modelingvalue.gradle.mvgplugin.DotProperties;
+import org.modelingvalue.gradle.mvgplugin.MvgMetrics;
+import org.modelingvalue.gradle.mvgplugin.PluginVersionCheck;
+import org.modelingvalue.gradle.mvgplugin.SaxParsers;
 import org.modelingvalue.gradle.mvgplugin.Util;
+import org.modelingvalue.gradle.mvgplugin.Version;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.helpers.DefaultHandler;
+
+import com.sun.net.httpserver.HttpServer;
 
 public class UtilTest {
     @Test
@@ -154,4 +175,163 @@ public class UtilTest {
 
         Files.deleteIfExists(tempFile);
     }
+
+    @Test
+    public void propChangeTest(@TempDir Path tmp) throws IOException {
+        Path parentFile = tmp.resolve("parent.properties");
+        Path childFile  = tmp.resolve("child.properties");
+        Files.writeString(parentFile, "aaa=parent\nbbb=parent\n");
+        Files.writeString(childFile, "aaa=child\n");
+
+        DotProperties parent = new DotProperties(parentFile);
+        DotProperties child  = new DotProperties(childFile, parent);
+        assertEquals("child", child.getProp("aaa"));
+        assertEquals("parent", child.getProp("bbb"));
+        assertEquals("def", child.getProp("ccc", "def"));
+
+        parent.setProp("bbb", "changed");
+        assertEquals("changed", child.getProp("bbb"), "a change in the parent should be seen by the child");
+
+        Files.writeString(childFile, "# same properties, other layout\naaa = child\n");
+        assertEquals("child", child.getProp("aaa"));
+
+        Files.writeString(childFile, "aaa=other\n");
+        assertThrows(GradleException.class, () -> child.getProp("aaa"));
+    }
+
+    @Test
+    public void saxParserPool(@TempDir Path tmp) throws Exception {
+        List<Path> files = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            Path f = tmp.resolve("build-" + i + ".xml");
+            Files.writeString(f, i % 10 == 3
+                    ? "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<project name=\"p" + i + "\"><target name=\"t\">"
+                    : "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<project name=\"p" + i + "\"><target name=\"t\"><idea-plugin><idea-version since-build=\"241." + i + "\"/></idea-plugin></target></project>\n");
+            files.add(f);
+        }
+        // the pooled parsers must give what a fresh parser gives, also after a parser saw a broken file:
+        List<String> fresh = new ArrayList<>();
+        for (Path f : files) {
+            fresh.add(sinceBuilds(f, handler -> SAXParserFactory.newInstance().newSAXParser().parse(f.toFile(), handler)));
+        }
+        List<String> pooled = new ArrayList<>();
+        for (Path f : files) {
+            pooled.add(sinceBuilds(f, handler -> SaxParsers.parse(f, handler)));
+        }
+        assertEquals(fresh, pooled);
+        assertEquals("241.0", pooled.get(0));
+        assertTrue(pooled.get(3).startsWith("error"), pooled.get(3));
+
+        // external entities must never be resolved:
+        Path secret = tmp.resolve("secret.txt");
+        Files.writeString(secret, "SECRET");
+        Path xxe = tmp.resolve("xxe.xml");
+        Files.writeString(xxe, "<?xml version=\"1.0\"?>\n<!DOCTYPE project [<!ENTITY xxe SYSTEM \"" + secret.toUri() + "\">]>\n<project>&xxe;</project>\n");
+        StringBuilder text = new StringBuilder();
+        SaxParsers.parse(xxe, new DefaultHandler() {
+            @Override
+            public void characters(char[] ch, int start, int length) {
+                text.append(ch, start, length);
+            }
+        });
+        assertFalse(text.toString().contains("SECRET"), "external entity was resolved");
+    }
+
+    private interface SaxParse {
+        void parse(DefaultHandler handler) throws Exception;
+    }
+
+    private static String sinceBuilds(Path f, SaxParse parse) {
+        StringBuilder  sinceBuilds = new StringBuilder();
+        DefaultHandler handler     = new DefaultHandler() {
+            @Override
+            public void startElement(String uri, String localName, String qName, Attributes attributes) {
+                if (qName.equals("idea-version")) {
+                    sinceBuilds.append(attributes.getValue("since-build"));
+                }
+            }
+        };
+        try {
+            parse.parse(handler);
+            return sinceBuilds.toString();
+        } catch (Exception e) {
+            return "error after '" + sinceBuilds + "'";
+        }
+    }
+
+    @Test
+    public void metricsReport(@TempDir Path tmp) throws IOException {
+        MvgMetrics metrics = new MvgMetrics();
+        for (int i = 0; i < 3; i++) {
+            try (MvgMetrics.Span ignored = metrics.span("test.span")) {
+                metrics.count(MvgMetrics.FILES_SCANNED, 10);
+            }
+        }
+        metrics.count(MvgMetrics.RETRIES);
+        assertEquals(3, metrics.getSpanCount("test.span"));
+        assertEquals(30, metrics.getCount(MvgMetrics.FILES_SCANNED));
+        assertEquals(1, metrics.getCount(MvgMetrics.RETRIES));
+        assertEquals(0, metrics.getCount(MvgMetrics.HTTP_CALLS));
+
+        Path report = tmp.resolve("build").resolve(MvgMetrics.REPORT_FILE_NAME);
+        metrics.writeReport(report);
+        String json = Files.readString(report);
+        assertTrue(json.contains("\"test.span\""), json);
+        assertTrue(json.contains("\"" + MvgMetrics.FILES_SCANNED + "\" : 30"), json);
+
+        // nothing measured, nothing written:
+        Path empty = tmp.resolve("empty.json");
+        new MvgMetrics().writeReport(empty);
+        assertFalse(Files.exists(empty));
+    }
+
+    @Test
+    public void pluginVersionCheck(@TempDir Path tmp) throws Exception {
+        AtomicInteger hits   = new AtomicInteger();
+        AtomicInteger status = new AtomicInteger(200);
+        HttpServer    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/maven-metadata.xml", exchange -> {
+            hits.incrementAndGet();
+            byte[] answer = "<metadata><versioning><latest>9.9.9</latest><versions><version>9.9.9</version></versions></versioning></metadata>".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status.get(), answer.length);
+            exchange.getResponseBody().write(answer);
+            exchange.close();
+        });
+        server.start();
+        try {
+            String  url     = "http://localhost:" + server.getAddress().getPort() + "/maven-metadata.xml";
+            Path    cache   = tmp.resolve("latest-version.properties");
+            Version running = new Version("1.2.3");
+
+            // no cache: fetched in the background and cached
+            Thread t = new PluginVersionCheck(url, cache, Duration.ofHours(1), Duration.ofSeconds(5)).check(running);
+            assertNotNull(t);
+            t.join(10_000);
+            assertEquals(1, hits.get());
+            assertEquals("9.9.9", Util.loadProperties(cache).getProperty("latest"));
+
+            // fresh cache: no network at all
+            assertNull(new PluginVersionCheck(url, cache, Duration.ofHours(1), Duration.ofSeconds(5)).check(running));
+            assertEquals(1, hits.get());
+
+            // stale cache and a failing server: the stale cache is kept (and used)
+            Files.writeString(cache, "latest=8.8.8\ncheckedAt=" + Instant.now().minus(Duration.ofHours(2)) + "\n");
+            status.set(500);
+            t = new PluginVersionCheck(url, cache, Duration.ofHours(1), Duration.ofSeconds(5)).check(running);
+            assertNotNull(t);
+            t.join(10_000);
+            assertEquals(2, hits.get());
+            assertEquals("8.8.8", Util.loadProperties(cache).getProperty("latest"));
+
+            // stale cache and a working server: refreshed
+            status.set(200);
+            t = new PluginVersionCheck(url, cache, Duration.ofHours(1), Duration.ofSeconds(5)).check(running);
+            assertNotNull(t);
+            t.join(10_000);
+            assertEquals(3, hits.get());
+            assertEquals("9.9.9", Util.loadProperties(cache).getProperty("latest"));
+        } finally {
+            server.stop(0);
+        }
+    }
 }
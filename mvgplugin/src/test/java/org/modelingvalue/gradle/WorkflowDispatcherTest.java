@@ -0,0 +1,150 @@
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+//  (C) Copyright 2018-2026 Modeling Value Group B.V. (http://modelingvalue.org)                                         ~
+//                                                                                                                       ~
+//  Licensed under the GNU Lesser General Public License v3.0 (the 'License'). You may not use this file except in       ~
+//  compliance with the License. You may obtain a copy of the License at: https://choosealicense.com/licenses/lgpl-3.0   ~
+//  Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on  ~
+//  an 'AS IS' BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the   ~
+//  specific language governing permissions and limitations under the License.                                           ~
+//                                                                                                                       ~
+//  Maintainers:                                                                                                         ~
+//      Wim Bast, Tom Brus                                                                                               ~
+//                                                                                                                       ~
+//  Contributors:                                                                                                        ~
+//      Ronald Krijgsheld ✝, Arjan Kok, Carel Bast                                                                       ~
+// --------------------------------------------------------------------------------------------------------------------- ~
+//  In Memory of Ronald Krijgsheld, 1972 - 2023                                                                          ~
+//      Ronald was suddenly and unexpectedly taken from us. He was not only our long-term colleague and team member      ~
+//      but also our friend. "He will live on in many of the lines of code you see below."                               ~
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+package org.modelingvalue.gradle;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.modelingvalue.gradle.mvgplugin.Backoff;
+import org.modelingvalue.gradle.mvgplugin.MvgHttp;
+import org.modelingvalue.gradle.mvgplugin.WorkflowDispatcher;
+import org.modelingvalue.gradle.mvgplugin.WorkflowDispatcher.Dispatch;
+import org.modelingvalue.gradle.mvgplugin.WorkflowDispatcher.Result;
+
+import com.sun.net.httpserver.HttpServer;
+
+public class WorkflowDispatcherTest {
+    private final Map<String, AtomicInteger> hits = new ConcurrentHashMap<>();
+    private       HttpServer                 server;
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            int    hit  = hits.computeIfAbsent(path, p -> new AtomicInteger()).incrementAndGet();
+            int status = path.contains("/missing.yaml/") ? 404
+                    : path.contains("/flaky.yaml/") && hit == 1 ? 503
+                    : path.contains("/limited.yaml/") && hit == 1 ? 429
+                    : 204;
+            if (status == 429) {
+                exchange.getResponseHeaders().add("Retry-After", "1");
+            }
+            exchange.getRequestBody().readAllBytes();
+            if (path.contains("/slow.yaml/")) {
+                try {
+                    Thread.sleep(1_000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    private WorkflowDispatcher dispatcher() {
+        return dispatcher(new Backoff(3, 10, 20));
+    }
+
+    private WorkflowDispatcher dispatcher(Backoff backoff) {
+        return dispatcher(backoff, Duration.ofSeconds(5));
+    }
+
+    private WorkflowDispatcher dispatcher(Backoff backoff, Duration readTimeout) {
+        String api = "http://localhost:" + server.getAddress().getPort();
+        return new WorkflowDispatcher(api, "owner", "token", new MvgHttp(Duration.ofSeconds(5), readTimeout), 3, Duration.ofMillis(1), backoff);
+    }
+
+    @Test
+    public void duplicatesAreDispatchedOnce() {
+        List<Result> results = dispatcher().dispatch(List.of(
+                new Dispatch("a", "build.yaml"),
+                new Dispatch("b", "build.yaml"),
+                new Dispatch("a", "build.yaml"),
+                new Dispatch("a", "test.yaml"),
+                new Dispatch("b", "build.yaml")), "develop");
+
+        assertEquals(List.of(new Dispatch("a", "build.yaml"), new Dispatch("b", "build.yaml"), new Dispatch("a", "test.yaml")), results.stream().map(Result::dispatch).toList());
+        assertTrue(results.stream().allMatch(Result::ok));
+        assertEquals(3, hits.size());
+        assertTrue(hits.values().stream().allMatch(n -> n.get() == 1), "every workflow should be hit exactly once: " + hits);
+    }
+
+    @Test
+    public void serverErrorsAreRetriedButClientErrorsAreNot() {
+        List<Result> results = dispatcher().dispatch(List.of(
+                new Dispatch("a", "flaky.yaml"),
+                new Dispatch("a", "missing.yaml")), "develop");
+
+        Result flaky   = results.get(0);
+        Result missing = results.get(1);
+        assertTrue(flaky.ok());
+        assertEquals(2, flaky.attempts());
+        assertFalse(missing.ok());
+        assertEquals(404, missing.status());
+        assertEquals(1, missing.attempts());
+        assertEquals(1, hits.get("/repos/owner/a/actions/workflows/missing.yaml/dispatches").get());
+    }
+
+    @Test
+    public void retryAfterIsNeverShortened() {
+        // the server asks for 1s, more than the cap of 20 ms: give up instead of retrying too early
+        Result gaveUp = dispatcher().dispatch(List.of(new Dispatch("a", "limited.yaml")), "develop").get(0);
+        assertEquals(429, gaveUp.status());
+        assertEquals(1, gaveUp.attempts());
+
+        // with a cap above the asked wait, the retry comes after (at least) the asked wait:
+        long   t0     = System.currentTimeMillis();
+        Result waited = dispatcher(new Backoff(3, 10, 5_000)).dispatch(List.of(new Dispatch("b", "limited.yaml")), "develop").get(0);
+        assertTrue(waited.ok());
+        assertEquals(2, waited.attempts());
+        assertTrue(1_000 <= System.currentTimeMillis() - t0, "the Retry-After of the server was not respected");
+    }
+
+    @Test
+    public void readTimeoutsAreNotRetried() {
+        // the dispatch may have been accepted by the server, sending it again could start the workflow twice:
+        Result timedOut = dispatcher(new Backoff(3, 10, 20), Duration.ofMillis(200)).dispatch(List.of(new Dispatch("a", "slow.yaml")), "develop").get(0);
+        assertFalse(timedOut.ok());
+        assertEquals(-1, timedOut.status());
+        assertEquals(1, timedOut.attempts());
+        assertEquals(1, hits.get("/repos/owner/a/actions/workflows/slow.yaml/dispatches").get());
+    }
+}
@@ -0,0 +1,61 @@
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+//  (C) Copyright 2018-2026 Modeling Value Group B.V. (http://modelingvalue.org)                                         ~
+//                                                                                                                       ~
+//  Licensed under the GNU Lesser General Public License v3.0 (the 'License'). You may not use this file except in       ~
+//  compliance with the License. You may obtain a copy of the License at: https://choosealicense.com/licenses/lgpl-3.0   ~
+//  Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on  ~
+//  an 'AS IS' BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the   ~
+//  specific language governing permissions and limitations under the License.                                           ~
+//                                                                                                                       ~
+//  Maintainers:                                                                                                         ~
+//      Wim Bast, Tom Brus                                                                                               ~
+//                                                                                                                       ~
+//  Contributors:                                                                                                        ~
+//      Ronald Krijgsheld ✝, Arjan Kok, Carel Bast                                                                       ~
+// --------------------------------------------------------------------------------------------------------------------- ~
+//  In Memory of Ronald Krijgsheld, 1972 - 2023                                                                          ~
+//      Ronald was suddenly and unexpectedly taken from us. He was not only our long-term colleague and team member      ~
+//      but also our friend. "He will live on in many of the lines of code you see below."                               ~
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+package org.modelingvalue.gradle;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.modelingvalue.gradle.mvgplugin.WorkflowFiles;
+
+public class WorkflowFilesTest {
+    @Test
+    public void dispatchableWorkflows(@TempDir Path dir) throws IOException {
+        Files.writeString(dir.resolve("string.yaml"), "name: string\non: workflow_dispatch\njobs: {}\n");
+        Files.writeString(dir.resolve("list.yml"), "name: list\non: [push, workflow_dispatch]\njobs: {}\n");
+        Files.writeString(dir.resolve("map.yaml"), "name: map\non:\n  push:\n    branches: [master]\n  workflow_dispatch:\njobs: {}\n");
+        Files.writeString(dir.resolve("push.yaml"), "name: push\non: [push]\njobs: {}\n");
+        Files.writeString(dir.resolve("README.md"), "on: workflow_dispatch\n");
+
+        assertEquals(Set.of("string.yaml", "list.yml", "map.yaml"), WorkflowFiles.triggerWorkflows(dir, "somebody else"));
+        assertEquals(Set.of("map.yaml"), WorkflowFiles.triggerWorkflows(dir, "map"));
+        assertEquals(Set.of("string.yaml", "list.yml", "map.yaml"), WorkflowFiles.triggerWorkflows(dir, "push"), "a workflow that can not be dispatched is never a trigger workflow");
+    }
+
+    @Test
+    public void quotedNames(@TempDir Path dir) throws IOException {
+        Files.writeString(dir.resolve("build.yaml"), "name: \"build: all\"\n\"on\": workflow_dispatch\njobs: {}\n");
+        Files.writeString(dir.resolve("test.yaml"), "name: 'test'\n'on':\n  workflow_dispatch: {}\njobs: {}\n");
+
+        assertEquals(Set.of("build.yaml"), WorkflowFiles.triggerWorkflows(dir, "build: all"));
+        assertEquals(Set.of("test.yaml"), WorkflowFiles.triggerWorkflows(dir, "test"));
+    }
+
+    @Test
+    public void noWorkflowsDir(@TempDir Path dir) throws IOException {
+        assertEquals(Set.of(), WorkflowFiles.triggerWorkflows(dir.resolve("workflows"), "build"));
+    }
+}
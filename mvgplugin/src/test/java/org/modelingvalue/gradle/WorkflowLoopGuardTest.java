@@ -0,0 +1,84 @@
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+//  (C) Copyright 2018-2026 Modeling Value Group B.V. (http://modelingvalue.org)                                         ~
+//                                                                                                                       ~
+//  Licensed under the GNU Lesser General Public License v3.0 (the 'License'). You may not use this file except in       ~
+//  compliance with the License. You may obtain a copy of the License at: https://choosealicense.com/licenses/lgpl-3.0   ~
+//  Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on  ~
+//  an 'AS IS' BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the   ~
+//  specific language governing permissions and limitations under the License.                                           ~
+//                                                                                                                       ~
+//  Maintainers:                                                                                                         ~
+//      Wim Bast, Tom Brus                                                                                               ~
+//                                                                                                                       ~
+//  Contributors:                                                                                                        ~
+//      Ronald Krijgsheld ✝, Arjan Kok, Carel Bast                                                                       ~
+// --------------------------------------------------------------------------------------------------------------------- ~
+//  In Memory of Ronald Krijgsheld, 1972 - 2023                                                                          ~
+//      Ronald was suddenly and unexpectedly taken from us. He was not only our long-term colleague and team member      ~
+//      but also our friend. "He will live on in many of the lines of code you see below."                               ~
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+package org.modelingvalue.gradle;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.modelingvalue.gradle.mvgplugin.Info;
+import org.modelingvalue.gradle.mvgplugin.WorkflowLoopGuard;
+import org.modelingvalue.gradle.mvgplugin.WorkflowLoopGuard.Analysis;
+import org.modelingvalue.gradle.mvgplugin.WorkflowLoopGuard.Unguarded;
+
+public class WorkflowLoopGuardTest {
+    @Test
+    public void cachedAnalysisKeepsMultiLineIfs(@TempDir Path tmp) throws IOException {
+        Path workflow = tmp.resolve("build.yaml");
+        Files.writeString(workflow, """
+                name: build
+                on: [push]
+                jobs:
+                  build:
+                    if: |
+                      github.repository_owner == 'ModelingValueGroup' &&
+                      github.actor != 'dependabot[bot]'
+                    runs-on: ubuntu-latest
+                  test:
+                    runs-on: ubuntu-latest
+                  guarded:
+                    if: "%s"
+                    runs-on: ubuntu-latest
+                """.formatted(Info.NO_CI_GUARD));
+        Path cacheFile = tmp.resolve("loop-guard.properties");
+
+        WorkflowLoopGuard guard    = new WorkflowLoopGuard(cacheFile);
+        Analysis          analysis = guard.analyse(workflow);
+        guard.saveCache();
+        assertNull(analysis.skipReason());
+        assertEquals(List.of(
+                new Unguarded("build", "github.repository_owner == 'ModelingValueGroup' &&\ngithub.actor != 'dependabot[bot]'\n"),
+                new Unguarded("test", null)), analysis.unguarded());
+        assertTrue(Files.isRegularFile(cacheFile));
+
+        assertEquals(analysis, new WorkflowLoopGuard(cacheFile).analyse(workflow), "the cached analysis should be the same as the fresh one");
+    }
+
+    @Test
+    public void skippedWorkflows(@TempDir Path tmp) throws IOException {
+        Path workflow = tmp.resolve("release.yaml");
+        Files.writeString(workflow, "on:\n  push:\n    tags: ['v*']\njobs:\n  release:\n    runs-on: ubuntu-latest\n");
+        Path cacheFile = tmp.resolve("loop-guard.properties");
+
+        WorkflowLoopGuard guard    = new WorkflowLoopGuard(cacheFile);
+        Analysis          analysis = guard.analyse(workflow);
+        guard.saveCache();
+        assertEquals(new Analysis("not triggered by branch pushes", List.of()), analysis);
+        assertEquals(analysis, new WorkflowLoopGuard(cacheFile).analyse(workflow));
+    }
+}